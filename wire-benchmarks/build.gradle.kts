@@ -26,7 +26,11 @@ wire {
 
 jmh {
   jvmArgs = listOf("-Djmh.separateClasspathJAR=true")
-  include = listOf("""com\.squareup\.wire\.benchmarks\.EncodeBenchmark.*""")
+  include = listOf(
+    """com\.squareup\.wire\.benchmarks\.EncodeBenchmark.*""",
+    """com\.squareup\.wire\.benchmarks\.AdapterLookupBenchmark.*""",
+    """com\.squareup\.wire\.benchmarks\.BatchEncodeBenchmark.*"""
+  )
   duplicateClassesStrategy = DuplicatesStrategy.WARN
 }
 
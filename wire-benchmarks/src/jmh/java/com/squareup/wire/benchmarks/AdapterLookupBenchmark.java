@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2021 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.wire.benchmarks;
+
+import com.squareup.wire.ProtoAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import squareup.wire.benchmarks.EmailSearchResponse;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+
+/** Measures the lookups that reflective adapters and JSON integrations make per field. */
+@Fork(1)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+@BenchmarkMode(AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+public class AdapterLookupBenchmark {
+  Class<EmailSearchResponse> type = EmailSearchResponse.class;
+  String adapterString = "squareup.wire.benchmarks.EmailSearchResponse#ADAPTER";
+
+  @Benchmark public ProtoAdapter<?> getByClass() {
+    return ProtoAdapter.get(type);
+  }
+
+  @Benchmark public ProtoAdapter<?> getByAdapterString() {
+    return ProtoAdapter.get(adapterString);
+  }
+}
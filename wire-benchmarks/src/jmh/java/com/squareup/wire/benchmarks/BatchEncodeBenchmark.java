@@ -0,0 +1,91 @@
+/*
+ * Copyright 2021 Square Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.wire.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import okio.ByteString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import squareup.wire.benchmarks.NameAndAddress;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+
+/** Compares encoding and decoding a batch of small messages one at a time and all at once. */
+@Fork(1)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+@BenchmarkMode(AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+public class BatchEncodeBenchmark {
+  @Param({"500", "5000"})
+  int batchSize;
+
+  List<NameAndAddress> values;
+  List<ByteString> encoded;
+
+  @Setup public void setup() {
+    values = new ArrayList<>();
+    for (int i = 0; i < batchSize; i++) {
+      values.add(SampleData.INSTANCE.newSenderWire());
+    }
+    encoded = NameAndAddress.ADAPTER.encodeAll(values);
+  }
+
+  @Benchmark public List<ByteString> encodeEach() {
+    List<ByteString> result = new ArrayList<>(values.size());
+    for (NameAndAddress value : values) {
+      result.add(NameAndAddress.ADAPTER.encodeByteString(value));
+    }
+    return result;
+  }
+
+  @Benchmark public List<ByteString> encodeAll() {
+    return NameAndAddress.ADAPTER.encodeAll(values);
+  }
+
+  @Benchmark public List<ByteString> encodeAllParallel() {
+    return NameAndAddress.ADAPTER.encodeAll(values, ForkJoinPool.commonPool());
+  }
+
+  @Benchmark public List<NameAndAddress> decodeEach() throws IOException {
+    List<NameAndAddress> result = new ArrayList<>(encoded.size());
+    for (ByteString bytes : encoded) {
+      result.add(NameAndAddress.ADAPTER.decode(bytes));
+    }
+    return result;
+  }
+
+  @Benchmark public List<NameAndAddress> decodeAll() throws IOException {
+    return NameAndAddress.ADAPTER.decodeAll(encoded);
+  }
+
+  @Benchmark public List<NameAndAddress> decodeAllParallel() throws IOException {
+    return NameAndAddress.ADAPTER.decodeAll(encoded, ForkJoinPool.commonPool());
+  }
+}
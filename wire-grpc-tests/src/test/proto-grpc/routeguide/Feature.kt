@@ -10,6 +10,8 @@ import com.squareup.wire.ProtoWriter
 import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax.PROTO_2
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.sanitize
 import kotlin.Any
 import kotlin.AssertionError
@@ -99,10 +101,12 @@ public class Feature(
       "routeguide/RouteGuideProto.proto"
     ) {
       public override fun encodedSize(`value`: Feature): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         size += ProtoAdapter.STRING.encodedSizeWithTag(1, value.name)
         size += Point.ADAPTER.encodedSizeWithTag(2, value.location)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: Feature): Unit {
@@ -10,6 +10,8 @@ import com.squareup.wire.ProtoWriter
 import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax.PROTO_2
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.immutableCopyOf
 import com.squareup.wire.`internal`.redactElements
 import kotlin.Any
@@ -85,9 +87,11 @@ public class FeatureDatabase(
       "routeguide/RouteGuideProto.proto"
     ) {
       public override fun encodedSize(`value`: FeatureDatabase): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         size += Feature.ADAPTER.asRepeated().encodedSizeWithTag(1, value.feature)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: FeatureDatabase): Unit {
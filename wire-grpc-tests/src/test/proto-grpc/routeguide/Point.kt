@@ -10,6 +10,8 @@ import com.squareup.wire.ProtoWriter
 import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax.PROTO_2
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import kotlin.Any
 import kotlin.AssertionError
 import kotlin.Boolean
@@ -93,10 +95,12 @@ public class Point(
       "routeguide/RouteGuideProto.proto"
     ) {
       public override fun encodedSize(`value`: Point): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         size += ProtoAdapter.INT32.encodedSizeWithTag(1, value.latitude)
         size += ProtoAdapter.INT32.encodedSizeWithTag(2, value.longitude)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: Point): Unit {
@@ -10,6 +10,8 @@ import com.squareup.wire.ProtoWriter
 import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax.PROTO_2
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.sanitize
 import kotlin.Any
 import kotlin.AssertionError
@@ -97,10 +99,12 @@ public class RouteNote(
       "routeguide/RouteGuideProto.proto"
     ) {
       public override fun encodedSize(`value`: RouteNote): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         size += Point.ADAPTER.encodedSizeWithTag(1, value.location)
         size += ProtoAdapter.STRING.encodedSizeWithTag(2, value.message)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: RouteNote): Unit {
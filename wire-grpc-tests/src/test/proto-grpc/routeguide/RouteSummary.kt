@@ -10,6 +10,8 @@ import com.squareup.wire.ProtoWriter
 import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax.PROTO_2
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import kotlin.Any
 import kotlin.AssertionError
 import kotlin.Boolean
@@ -124,12 +126,14 @@ public class RouteSummary(
       "routeguide/RouteGuideProto.proto"
     ) {
       public override fun encodedSize(`value`: RouteSummary): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         size += ProtoAdapter.INT32.encodedSizeWithTag(1, value.point_count)
         size += ProtoAdapter.INT32.encodedSizeWithTag(2, value.feature_count)
         size += ProtoAdapter.INT32.encodedSizeWithTag(3, value.distance)
         size += ProtoAdapter.INT32.encodedSizeWithTag(4, value.elapsed_time)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: RouteSummary): Unit {
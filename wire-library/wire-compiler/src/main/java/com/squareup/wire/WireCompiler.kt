@@ -112,6 +112,7 @@ class WireCompiler internal constructor(
   val permitPackageCycles: Boolean,
   val javaInterop: Boolean,
   val kotlinBoxOneOfsMinSize: Int,
+  val kotlinPrimitiveRepeatedFields: Boolean,
 ) {
 
   @Throws(IOException::class)
@@ -136,6 +137,7 @@ class WireCompiler internal constructor(
           emitDeclaredOptions = emitDeclaredOptions,
           emitAppliedOptions = emitAppliedOptions,
           boxOneOfsMinSize = kotlinBoxOneOfsMinSize,
+          primitiveRepeatedFields = kotlinPrimitiveRepeatedFields,
       )
     } else if (swiftOut != null) {
       targets += SwiftTarget(
@@ -228,6 +230,7 @@ class WireCompiler internal constructor(
     private const val PERMIT_PACKAGE_CYCLES_OPTIONS = "--permit_package_cycles"
     private const val JAVA_INTEROP = "--java_interop"
     private const val KOTLIN_BOX_ONEOFS_MIN_SIZE = "--kotlin_box_oneofs_min_size="
+    private const val KOTLIN_PRIMITIVE_REPEATED_FIELDS = "--kotlin_primitive_repeated_fields"
 
     @Throws(IOException::class)
     @JvmStatic fun main(args: Array<String>) {
@@ -278,6 +281,7 @@ class WireCompiler internal constructor(
       var permitPackageCycles = false
       var javaInterop = false
       var kotlinBoxOneOfsMinSize = 5_000
+      var kotlinPrimitiveRepeatedFields = false
 
       for (arg in args) {
         when {
@@ -340,6 +344,7 @@ class WireCompiler internal constructor(
           arg == EMIT_APPLIED_OPTIONS -> emitAppliedOptions = true
           arg == EMIT_APPLIED_OPTIONS -> permitPackageCycles = true
           arg == JAVA_INTEROP -> javaInterop = true
+          arg == KOTLIN_PRIMITIVE_REPEATED_FIELDS -> kotlinPrimitiveRepeatedFields = true
           arg.startsWith("--") -> throw IllegalArgumentException("Unknown argument '$arg'.")
           else -> sourceFileNames.add(arg)
         }
@@ -376,7 +381,8 @@ class WireCompiler internal constructor(
         emitAppliedOptions = emitAppliedOptions,
         permitPackageCycles = permitPackageCycles,
         javaInterop = javaInterop,
-        kotlinBoxOneOfsMinSize = kotlinBoxOneOfsMinSize
+        kotlinBoxOneOfsMinSize = kotlinBoxOneOfsMinSize,
+        kotlinPrimitiveRepeatedFields = kotlinPrimitiveRepeatedFields,
       )
     }
   }
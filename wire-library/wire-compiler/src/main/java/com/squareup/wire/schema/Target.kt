@@ -325,6 +325,14 @@ data class KotlinTarget(
    * from the [rpcRole].
    */
   val nameSuffix: String? = null,
+
+  /**
+   * True to declare repeated `int32`, `int64`, `float`, `double`, and `bool` fields (and their
+   * unsigned, zig-zag, and fixed-width variants) as primitive-backed lists like
+   * [IntList][com.squareup.wire.IntList] instead of `List<Int>`. Such fields are encoded and
+   * decoded without boxing their elements.
+   */
+  val primitiveRepeatedFields: Boolean = false,
 ) : Target() {
   override fun newHandler(
     schema: Schema,
@@ -359,6 +367,7 @@ data class KotlinTarget(
         boxOneOfsMinSize = boxOneOfsMinSize,
         grpcServerCompatible = grpcServerCompatible,
         nameSuffix = nameSuffix,
+        primitiveRepeatedFields = primitiveRepeatedFields,
     )
 
     return object : SchemaHandler {
@@ -81,6 +81,7 @@ open class KotlinOutput @Inject constructor() : WireOutput() {
   var boxOneOfsMinSize: Int = 5_000
   var grpcServerCompatible: Boolean = false
   var nameSuffix: String? = null
+  var primitiveRepeatedFields: Boolean = false
 
   override fun toTarget(outputDirectory: String): KotlinTarget {
     val rpcCallStyle = RpcCallStyle.values()
@@ -107,6 +108,7 @@ open class KotlinOutput @Inject constructor() : WireOutput() {
         boxOneOfsMinSize = boxOneOfsMinSize,
         grpcServerCompatible = grpcServerCompatible,
         nameSuffix = nameSuffix,
+        primitiveRepeatedFields = primitiveRepeatedFields,
     )
   }
 }
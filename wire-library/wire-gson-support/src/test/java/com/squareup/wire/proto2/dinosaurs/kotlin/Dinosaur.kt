@@ -10,6 +10,8 @@ import com.squareup.wire.ProtoWriter
 import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax.PROTO_2
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.immutableCopyOf
 import com.squareup.wire.`internal`.sanitize
 import com.squareup.wire.proto2.geology.kotlin.Period
@@ -128,13 +130,15 @@ public class Dinosaur(
       "dinosaur_kotlin.proto"
     ) {
       public override fun encodedSize(`value`: Dinosaur): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         size += ProtoAdapter.STRING.encodedSizeWithTag(1, value.name)
         size += ProtoAdapter.STRING.asRepeated().encodedSizeWithTag(2, value.picture_urls)
         size += ProtoAdapter.DOUBLE.encodedSizeWithTag(3, value.length_meters)
         size += ProtoAdapter.DOUBLE.encodedSizeWithTag(4, value.mass_kilograms)
         size += Period.ADAPTER.encodedSizeWithTag(5, value.period)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: Dinosaur): Unit {
@@ -297,13 +297,13 @@ public final class KeywordJava extends Message<KeywordJava, KeywordJava.Builder>
         switch (tag) {
           case 1: builder.final_(ProtoAdapter.STRING.decode(reader)); break;
           case 2: builder.public_(ProtoAdapter.BOOL.decode(reader)); break;
-          case 3: builder.package_.putAll(package_Adapter().decode(reader)); break;
+          case 3: Internal.decodeMapEntry(package_Adapter(), reader, builder.package_); break;
           case 4: builder.return_.add(ProtoAdapter.BOOL.decode(reader)); break;
           case 5: {
             try {
               builder.enums.add(KeywordJavaEnum.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
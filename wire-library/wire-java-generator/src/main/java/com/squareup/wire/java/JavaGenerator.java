@@ -35,6 +35,7 @@ import com.squareup.javapoet.TypeSpec;
 import com.squareup.javapoet.WildcardTypeName;
 import com.squareup.wire.EnumAdapter;
 import com.squareup.wire.FieldEncoding;
+import com.squareup.wire.LazyMessage;
 import com.squareup.wire.Message;
 import com.squareup.wire.ProtoAdapter;
 import com.squareup.wire.ProtoAdapter.EnumConstantNotFoundException;
@@ -114,6 +115,7 @@ public final class JavaGenerator {
   static final ClassName ADAPTER = ClassName.get(ProtoAdapter.class);
   static final ClassName BUILDER = ClassName.get(Message.Builder.class);
   static final ClassName ENUM_ADAPTER = ClassName.get(EnumAdapter.class);
+  static final ClassName LAZY_MESSAGE = ClassName.get(LazyMessage.class);
   static final ClassName NULLABLE = ClassName.get("androidx.annotation", "Nullable");
   static final ClassName CREATOR = ClassName.get("android.os", "Parcelable", "Creator");
 
@@ -377,7 +379,7 @@ public final class JavaGenerator {
   }
 
   private CodeBlock singleAdapterFor(Field field, NameAllocator nameAllocator) {
-    return field.getType().isMap()
+    return field.getType().isMap() || isLazy(field)
         ? CodeBlock.of("$NAdapter()", nameAllocator.get(field))
         : singleAdapterFor(field.getType());
   }
@@ -989,13 +991,13 @@ public final class JavaGenerator {
     adapter.addMethod(messageAdapterRedact(nameAllocator, type, javaType, useBuilder, builderType));
 
     for (Field field : type.getFieldsAndOneOfFields()) {
-      if (field.getType().isMap()) {
+      if (field.getType().isMap() || isLazy(field)) {
         TypeName adapterType = adapterOf(fieldType(field));
         String fieldName = nameAllocator.get(field);
         adapter.addField(FieldSpec.builder(adapterType, fieldName, PRIVATE).build());
-        // Map adapters have to be lazy in order to avoid a circular reference when its value type
-        // is the same as its enclosing type.
-        adapter.addMethod(mapAdapter(nameAllocator, adapterType, fieldName, field.getType()));
+        // Map and lazy message adapters have to be lazy in order to avoid a circular reference
+        // when their value type is the same as their enclosing type.
+        adapter.addMethod(fieldAdapter(nameAllocator, adapterType, fieldName, field));
       }
     }
 
@@ -1114,7 +1116,7 @@ public final class JavaGenerator {
         result.addCode(";\n");
         if (useBuilder) {
           result.nextControlFlow("catch ($T e)", EnumConstantNotFoundException.class);
-          result.addStatement("builder.addUnknownField(tag, $T.VARINT, (long) e.value)",
+          result.addStatement("reader.addUnknownField(tag, $T.VARINT, (long) e.value)",
               FieldEncoding.class);
           result.endControlFlow(); // try/catch
         } else {
@@ -1163,6 +1165,15 @@ public final class JavaGenerator {
 
   private CodeBlock decodeAndAssign(Field field, NameAllocator nameAllocator, boolean useBuilder) {
     String fieldName = nameAllocator.get(field);
+    if (field.isPacked() && !isEnum(field.getType())) {
+      // Read the entire packed run in one call. Enums are decoded one value at a time so unknown
+      // constants can be retained individually.
+      return useBuilder
+          ? CodeBlock.of("$L.decodeRepeated(reader, builder.$L)",
+              singleAdapterFor(field, nameAllocator), fieldName)
+          : CodeBlock.of("$L.decodeRepeated(reader, $L)",
+              singleAdapterFor(field, nameAllocator), fieldName);
+    }
     CodeBlock decode = CodeBlock.of("$L.decode(reader)", singleAdapterFor(field, nameAllocator));
     if (field.isRepeated()) {
       return useBuilder
@@ -1171,9 +1182,12 @@ public final class JavaGenerator {
             : CodeBlock.of("builder.$L.add($L)", fieldName, decode)
           : CodeBlock.of("$L.add($L)", fieldName, decode);
     } else if (field.getType().isMap()) {
+      // Put each entry straight into the map rather than decoding a map per entry.
       return useBuilder
-          ? CodeBlock.of("builder.$L.putAll($L)", fieldName, decode)
-          : CodeBlock.of("$L.putAll($L)", fieldName, decode);
+          ? CodeBlock.of("$T.decodeMapEntry($L, reader, builder.$L)", Internal.class,
+              singleAdapterFor(field, nameAllocator), fieldName)
+          : CodeBlock.of("$T.decodeMapEntry($L, reader, $L)", Internal.class,
+              singleAdapterFor(field, nameAllocator), fieldName);
     } else {
       return useBuilder
           ? field.getType().equals(ProtoType.STRUCT_NULL)
@@ -1270,7 +1284,9 @@ public final class JavaGenerator {
           typeName(type.getValueType()).box());
     }
 
-    TypeName messageType = typeName(type);
+    TypeName messageType = isLazy(field)
+        ? ParameterizedTypeName.get(LAZY_MESSAGE, typeName(type))
+        : typeName(type);
     switch (field.getEncodeMode()) {
       case REPEATED:
       case PACKED:
@@ -1542,6 +1558,13 @@ public final class JavaGenerator {
     return result.build();
   }
 
+  /** True if {@code field} holds a {@link LazyMessage} that is decoded on first access. */
+  private boolean isLazy(Field field) {
+    return field.isLazy()
+        && !BUILT_IN_TYPES_MAP.containsKey(field.getType())
+        && profile.javaTarget(field.getType()) == null;
+  }
+
   private boolean isStruct(ProtoType protoType) {
     return protoType.equals(ProtoType.STRUCT_MAP)
         || protoType.equals(ProtoType.STRUCT_LIST)
@@ -1676,8 +1699,17 @@ public final class JavaGenerator {
   //   return result;
   // }
   //
-  private MethodSpec mapAdapter(NameAllocator nameAllocator, TypeName adapterType, String fieldName,
-      ProtoType mapType) {
+  // private ProtoAdapter<LazyMessage<Body>> bodyAdapter() {
+  //   ProtoAdapter<LazyMessage<Body>> result = body;
+  //   if (result == null) {
+  //     result = LazyMessage.newAdapter(Body.ADAPTER);
+  //     body = result;
+  //   }
+  //   return result;
+  // }
+  //
+  private MethodSpec fieldAdapter(NameAllocator nameAllocator, TypeName adapterType,
+      String fieldName, Field field) {
     NameAllocator localNameAllocator = nameAllocator.clone();
 
     String resultName = localNameAllocator.newName("result");
@@ -1687,8 +1719,14 @@ public final class JavaGenerator {
 
     result.addStatement("$T $N = $N", adapterType, resultName, fieldName);
     result.beginControlFlow("if ($N == null)", resultName);
-    result.addStatement("$N = $T.newMapAdapter($L, $L)", resultName, ADAPTER,
-        singleAdapterFor(mapType.getKeyType()), singleAdapterFor(mapType.getValueType()));
+    ProtoType type = field.getType();
+    if (type.isMap()) {
+      result.addStatement("$N = $T.newMapAdapter($L, $L)", resultName, ADAPTER,
+          singleAdapterFor(type.getKeyType()), singleAdapterFor(type.getValueType()));
+    } else {
+      result.addStatement("$N = $T.newAdapter($L)", resultName, LAZY_MESSAGE,
+          singleAdapterFor(type));
+    }
     result.addStatement("$N = $N", fieldName, resultName);
     result.endControlFlow();
     result.addStatement("return $N", resultName);
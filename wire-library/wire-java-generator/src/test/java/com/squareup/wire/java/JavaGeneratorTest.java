@@ -206,7 +206,7 @@ public final class JavaGeneratorTest {
         + "    for (int tag; (tag = reader.nextTag()) != -1;) {\n"
         + "      switch (tag) {\n"
         + "        case 1: field = Foo.ADAPTER.decode(reader); break;\n"
-        + "        case 2: bars.putAll(barsAdapter().decode(reader)); break;\n"
+        + "        case 2: Internal.decodeMapEntry(barsAdapter(), reader, bars); break;\n"
         + "        case 3: numbers.add(ProtoAdapter.INT32.decode(reader)); break;\n"
         + "        case 4: {\n"
         + "          try {\n"
@@ -576,6 +576,34 @@ public final class JavaGeneratorTest {
         + "    }");
   }
 
+  @Test public void lazyMessageField() throws IOException {
+    RepoBuilder repoBuilder = new RepoBuilder()
+        .add("envelope.proto", ""
+            + "import \"wire/extensions.proto\";\n"
+            + "\n"
+            + "message Envelope {\n"
+            + "  optional string route = 1;\n"
+            + "  optional Body body = 2 [(wire.lazy) = true];\n"
+            + "}\n"
+            + "message Body {\n"
+            + "  optional string text = 1;\n"
+            + "}\n");
+    String code = repoBuilder.generateCode("Envelope");
+    assertThat(code).contains("public final LazyMessage<Body> body;");
+    assertThat(code).contains("public Builder body(LazyMessage<Body> body) {");
+    assertThat(code).contains(""
+        + "    private ProtoAdapter<LazyMessage<Body>> bodyAdapter() {\n"
+        + "      ProtoAdapter<LazyMessage<Body>> result = body;\n"
+        + "      if (result == null) {\n"
+        + "        result = LazyMessage.newAdapter(Body.ADAPTER);\n"
+        + "        body = result;\n"
+        + "      }\n"
+        + "      return result;\n"
+        + "    }\n");
+    assertThat(code).contains("bodyAdapter().encodeWithTag(writer, 2, value.body);");
+    assertThat(code).contains("case 2: builder.body(bodyAdapter().decode(reader)); break;");
+  }
+
   @Test public void wirePackageTakesPrecedenceOverJavaPackage() throws IOException {
     RepoBuilder repoBuilder = new RepoBuilder()
         .add("proto_package/person.proto",
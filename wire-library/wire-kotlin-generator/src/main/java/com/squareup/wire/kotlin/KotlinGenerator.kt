@@ -57,6 +57,7 @@ import com.squareup.wire.GrpcCall
 import com.squareup.wire.GrpcClient
 import com.squareup.wire.GrpcMethod
 import com.squareup.wire.GrpcStreamingCall
+import com.squareup.wire.LazyMessage
 import com.squareup.wire.Message
 import com.squareup.wire.MessageSink
 import com.squareup.wire.MessageSource
@@ -122,6 +123,7 @@ class KotlinGenerator private constructor(
   private val boxOneOfsMinSize: Int,
   private val grpcServerCompatible: Boolean,
   private val nameSuffix: String?,
+  private val primitiveRepeatedFields: Boolean,
 ) {
   private val nameAllocatorStore = mutableMapOf<Type, NameAllocator>()
 
@@ -145,6 +147,29 @@ class KotlinGenerator private constructor(
         || this == ProtoType.STRUCT_NULL
   private val ProtoType.isStructNull
     get() = this == ProtoType.STRUCT_NULL
+
+  /**
+   * The primitive-backed list class like `IntList` that holds this repeated field's values, or null
+   * if it uses a regular `List`.
+   */
+  private val Field.primitiveListClass: ClassName?
+    get() {
+      if (!primitiveRepeatedFields || !isRepeated) return null
+      if (profile.kotlinTarget(type!!) != null) return null
+      return PROTOTYPE_TO_PRIMITIVE_LIST[type!!]
+    }
+
+  /** True if this field holds a `LazyMessage` that is decoded on first access. */
+  private val Field.isLazyMessage: Boolean
+    get() = isLazy && type!! !in BUILT_IN_TYPES && profile.kotlinTarget(type!!) == null
+
+  /** The declared type of this field's values, before any nullability or collection is applied. */
+  private val Field.valueTypeName: TypeName
+    get() = when {
+      isLazyMessage -> LazyMessage::class.asClassName().parameterizedBy(type!!.typeName)
+      else -> type!!.typeName
+    }
+
   private val Type.typeName
     get() = type.typeName
   private val Service.serviceName
@@ -877,7 +902,7 @@ class KotlinGenerator private constructor(
           .addMember("message = %S", "$fieldName is deprecated")
           .build())
     }
-    if (field.isRepeated) {
+    if (field.isRepeated && field.primitiveListClass == null) {
       val checkElementsNotNull = MemberName("com.squareup.wire.internal", "checkElementsNotNull")
       funBuilder.addStatement("%M(%L)", checkElementsNotNull, fieldName)
     }
@@ -992,6 +1017,7 @@ class KotlinGenerator private constructor(
     }
 
     val initializer = when {
+      field.primitiveListClass != null -> CodeBlock.of("%N", fieldName)
       field.type!!.valueType?.isStruct == true -> {
         CodeBlock.of(
           "%M(%S, %N)",
@@ -1337,8 +1363,8 @@ class KotlinGenerator private constructor(
         .addFunction(decodeFun(type))
         .addFunction(redactFun(type))
 
-    for (field in type.fields) {
-      if (field.isMap) {
+    for (field in type.fields + type.flatOneOfs().flatMap { it.fields }) {
+      if (field.isMap || field.isLazyMessage) {
         adapterObject.addProperty(field.toProtoAdapterPropertySpec())
       }
     }
@@ -1352,6 +1378,22 @@ class KotlinGenerator private constructor(
   }
 
   private fun Field.toProtoAdapterPropertySpec(): PropertySpec {
+    if (isLazyMessage) {
+      // Lazy because, like map adapters below, the message type may be the enclosing type.
+      return PropertySpec.builder(
+        "${name}Adapter",
+        ProtoAdapter::class.asTypeName().parameterizedBy(valueTypeName),
+        PRIVATE
+      )
+        .delegate(
+          "%M·{ %T.newAdapter(%L) }",
+          MemberName("kotlin", "lazy"),
+          LazyMessage::class,
+          type!!.getAdapterName()
+        )
+        .build()
+    }
+
     val adapterType = ProtoAdapter::class.asTypeName()
         .parameterizedBy(Map::class.asTypeName()
             .parameterizedBy(keyType.typeName, valueType.typeName))
@@ -1373,9 +1415,14 @@ class KotlinGenerator private constructor(
     val className = generatedTypeName(message)
     val localNameAllocator = nameAllocator(message).copy()
     val sizeName = localNameAllocator.newName("size")
+    val cachedEncodedSize = MemberName("com.squareup.wire.internal", "cachedEncodedSize")
+    val cacheEncodedSize = MemberName("com.squareup.wire.internal", "cacheEncodedSize")
 
     val body = buildCodeBlock {
-      addStatement("var %N = value.unknownFields.size", sizeName)
+      // Messages are immutable, so compute the size once and cache it on the message.
+      addStatement("var %N = %M(value)", sizeName, cachedEncodedSize)
+      addStatement("if (%N != 0) return %N", sizeName, sizeName)
+      addStatement("%N = value.unknownFields.size", sizeName)
       for (fieldOrOneOf in message.fieldsAndFlatOneOfFieldsAndBoxedOneOfs()) {
         when (fieldOrOneOf) {
           is Field -> {
@@ -1383,8 +1430,13 @@ class KotlinGenerator private constructor(
             if (fieldOrOneOf.encodeMode == EncodeMode.OMIT_IDENTITY) {
               add("if (value.%1L != %2L) ", fieldName, fieldOrOneOf.identityValue)
             }
-            addStatement("%N += %L.encodedSizeWithTag(%L, value.%L)", sizeName, adapterFor(fieldOrOneOf),
-              fieldOrOneOf.tag, fieldName)
+            if (fieldOrOneOf.primitiveListClass != null) {
+              addStatement("%N += value.%L.encodedSizeWithTag(%L, %L, packed = %L)", sizeName,
+                fieldName, fieldOrOneOf.getAdapterName(), fieldOrOneOf.tag, fieldOrOneOf.isPacked)
+            } else {
+              addStatement("%N += %L.encodedSizeWithTag(%L, value.%L)", sizeName,
+                adapterFor(fieldOrOneOf), fieldOrOneOf.tag, fieldName)
+            }
           }
           is OneOf -> {
             val fieldName = localNameAllocator[fieldOrOneOf]
@@ -1394,7 +1446,7 @@ class KotlinGenerator private constructor(
           else -> throw IllegalArgumentException("Unexpected element: $fieldOrOneOf")
         }
       }
-      addStatement("return %N", sizeName)
+      addStatement("return %M(value, %N)", cacheEncodedSize, sizeName)
     }
     return FunSpec.builder("encodedSize")
         .addParameter("value", className)
@@ -1424,12 +1476,22 @@ class KotlinGenerator private constructor(
         if (field.encodeMode == EncodeMode.OMIT_IDENTITY) {
           add("if (value.%L != %L) ", fieldName, field.identityValue)
         }
-        addStatement(
-          "%L.encodeWithTag(writer, %L, value.%L)",
-          adapterFor(field),
-          field.tag,
-          fieldName
-        )
+        if (field.primitiveListClass != null) {
+          addStatement(
+            "value.%L.encodeWithTag(writer, %L, %L, packed = %L)",
+            fieldName,
+            field.getAdapterName(),
+            field.tag,
+            field.isPacked
+          )
+        } else {
+          addStatement(
+            "%L.encodeWithTag(writer, %L, value.%L)",
+            adapterFor(field),
+            field.tag,
+            fieldName
+          )
+        }
       }
     }
     for (boxOneOf in message.boxOneOfs()) {
@@ -1503,6 +1565,8 @@ class KotlinGenerator private constructor(
                   fieldName,
                   fieldOrOneOf.name
                 )
+              } else if (fieldOrOneOf.primitiveListClass != null) {
+                CodeBlock.of(".build()")
               } else {
                 CodeBlock.of("")
               }
@@ -1546,24 +1610,15 @@ class KotlinGenerator private constructor(
             addStatement("%L -> %L", field.tag, decodeAndAssign(field, fieldName, adapterName))
           }
         }
-        if (boxOneOfs.isEmpty()) {
-          addStatement("else -> reader.readUnknownField(%L)", tag)
-        } else {
-          beginControlFlow("else ->")
-          val choiceKey = nameAllocator.newName("choiceKey")
-          for (boxOneOf in message.boxOneOfs()) {
-            val fieldName = nameAllocator[boxOneOf]
-            val choiceKeys = boxedOneOfKeysFieldName(fieldName)
-            beginControlFlow("for (%L in %L)", choiceKey, choiceKeys)
-            beginControlFlow("if (%L == %L.tag)", tag, choiceKey)
-            addStatement("%L = %L.decode(reader)", fieldName, choiceKey)
-            addStatement("return@forEachTag %T", Unit::class)
-            endControlFlow()
-            endControlFlow()
+        // Dispatch each boxed oneof choice by its tag, so decoding doesn't scan the oneof's keys.
+        for (boxOneOf in boxOneOfs) {
+          val fieldName = nameAllocator[boxOneOf]
+          for (field in boxOneOf.fields) {
+            val keyName = nameAllocator[boxedOneOfKeyFieldName(boxOneOf.name, field.name)]
+            addStatement("%L -> %L·= %L.decode(reader)", field.tag, fieldName, keyName)
           }
-          addStatement("reader.readUnknownField(%L)", tag)
-          endControlFlow()
         }
+        addStatement("else -> reader.readUnknownField(%L)", tag)
         add("⇤}\n⇤}\n") // close the block
       }
     }
@@ -1579,10 +1634,22 @@ class KotlinGenerator private constructor(
   }
 
   private fun decodeAndAssign(field: Field, fieldName: String, adapterName: CodeBlock): CodeBlock {
+    if (field.primitiveListClass != null) {
+      return CodeBlock.of("%L.decode(reader, %L)", fieldName, adapterName)
+    }
+    if (field.isPacked && !field.type!!.isEnum) {
+      // Read the entire packed run in one call. Enums are decoded one value at a time so unknown
+      // constants can be retained individually.
+      return CodeBlock.of("%L.decodeRepeated(reader, %L)", adapterName, fieldName)
+    }
+    if (field.isMap) {
+      // Put each entry straight into the map rather than decoding a map per entry.
+      val decodeMapEntry = MemberName("com.squareup.wire.internal", "decodeMapEntry")
+      return CodeBlock.of("%M(%L, reader, %L)", decodeMapEntry, adapterName, fieldName)
+    }
     val decode = CodeBlock.of("%L.decode(reader)", adapterName)
     return CodeBlock.of(when {
       field.isRepeated -> "%L.add(%L)"
-      field.isMap -> "%L.putAll(%L)"
       else -> "%L·= %L"
     }, fieldName, decode)
   }
@@ -1641,7 +1708,7 @@ class KotlinGenerator private constructor(
   private fun Field.redact(fieldName: String): CodeBlock? {
     if (isRedacted) {
       return when {
-        isRepeated -> CodeBlock.of("emptyList()")
+        isRepeated -> identityValue
         isMap -> CodeBlock.of("emptyMap()")
         encodeMode!! == EncodeMode.NULL_IF_ABSENT -> CodeBlock.of("null")
         isScalar -> PROTOTYPE_TO_IDENTITY_VALUES[type!!]
@@ -1670,7 +1737,7 @@ class KotlinGenerator private constructor(
   }
 
   private fun Field.getAdapterName(nameDelimiter: Char = '.'): CodeBlock {
-    return if (type!!.isMap) {
+    return if (type!!.isMap || isLazyMessage) {
       CodeBlock.of("%N", "${name}Adapter")
     } else {
       type!!.getAdapterName(nameDelimiter)
@@ -1976,6 +2043,8 @@ class KotlinGenerator private constructor(
   }
 
   private fun Field.getDeclaration(allocatedName: String) = when {
+    primitiveListClass != null ->
+      CodeBlock.of("val $allocatedName = %T()", primitiveListClass!!.nestedClass("Builder"))
     isRepeated -> CodeBlock.of("val $allocatedName = mutableListOf<%T>()", type!!.typeName)
     isMap -> CodeBlock.of("val $allocatedName = mutableMapOf<%T, %T>()",
         keyType.typeName, valueType.typeName)
@@ -2001,10 +2070,10 @@ class KotlinGenerator private constructor(
 
   private fun Field.typeNameForBuilderSetter(): TypeName {
     val type = type!!
-    val baseClass = type.typeName
+    val baseClass = valueTypeName
     return when (encodeMode!!) {
       EncodeMode.REPEATED,
-      EncodeMode.PACKED -> List::class.asClassName().parameterizedBy(baseClass)
+      EncodeMode.PACKED -> primitiveListClass ?: List::class.asClassName().parameterizedBy(baseClass)
       EncodeMode.MAP -> baseClass.copy(nullable = false)
       EncodeMode.NULL_IF_ABSENT -> baseClass.copy(nullable = true)
       else -> {
@@ -2023,14 +2092,15 @@ class KotlinGenerator private constructor(
         EncodeMode.MAP ->
           Map::class.asTypeName().parameterizedBy(keyType.typeName, valueType.typeName)
         EncodeMode.REPEATED,
-        EncodeMode.PACKED -> List::class.asClassName().parameterizedBy(type.typeName)
-        EncodeMode.NULL_IF_ABSENT -> type.typeName.copy(nullable = true)
-        EncodeMode.REQUIRED -> type.typeName
+        EncodeMode.PACKED -> primitiveListClass
+            ?: List::class.asClassName().parameterizedBy(type.typeName)
+        EncodeMode.NULL_IF_ABSENT -> valueTypeName.copy(nullable = true)
+        EncodeMode.REQUIRED -> valueTypeName
         EncodeMode.OMIT_IDENTITY -> {
           when {
             type.isStructNull -> type.typeName.copy(nullable = true)
-            isOneOf -> type.typeName.copy(nullable = true)
-            type.isMessage -> type.typeName.copy(nullable = true)
+            isOneOf -> valueTypeName.copy(nullable = true)
+            type.isMessage -> valueTypeName.copy(nullable = true)
             else -> type.typeName
           }
         }
@@ -2042,7 +2112,10 @@ class KotlinGenerator private constructor(
       return when (encodeMode!!) {
         EncodeMode.MAP -> CodeBlock.of("emptyMap()")
         EncodeMode.REPEATED,
-        EncodeMode.PACKED -> CodeBlock.of("emptyList()")
+        EncodeMode.PACKED -> when (val primitiveListClass = primitiveListClass) {
+          null -> CodeBlock.of("emptyList()")
+          else -> CodeBlock.of("%T.EMPTY", primitiveListClass)
+        }
         EncodeMode.NULL_IF_ABSENT -> CodeBlock.of("null")
         EncodeMode.OMIT_IDENTITY -> {
           val protoType = type!!
@@ -2243,7 +2316,7 @@ class KotlinGenerator private constructor(
           "tag",
           field.tag,
           "adapter",
-          field.getAdapterName(),
+          field.type!!.getAdapterName(),
           "declaredName",
           field.name
         )
@@ -2329,6 +2402,21 @@ class KotlinGenerator private constructor(
         MESSAGE_OPTIONS to ClassName("com.google.protobuf", "MessageOptions"),
         ENUM_OPTIONS to ClassName("com.google.protobuf", "EnumOptions")
     )
+    private val PROTOTYPE_TO_PRIMITIVE_LIST = mapOf(
+        ProtoType.BOOL to ClassName("com.squareup.wire", "BooleanList"),
+        ProtoType.DOUBLE to ClassName("com.squareup.wire", "DoubleList"),
+        ProtoType.FLOAT to ClassName("com.squareup.wire", "FloatList"),
+        ProtoType.FIXED32 to ClassName("com.squareup.wire", "IntList"),
+        ProtoType.INT32 to ClassName("com.squareup.wire", "IntList"),
+        ProtoType.SFIXED32 to ClassName("com.squareup.wire", "IntList"),
+        ProtoType.SINT32 to ClassName("com.squareup.wire", "IntList"),
+        ProtoType.UINT32 to ClassName("com.squareup.wire", "IntList"),
+        ProtoType.FIXED64 to ClassName("com.squareup.wire", "LongList"),
+        ProtoType.INT64 to ClassName("com.squareup.wire", "LongList"),
+        ProtoType.SFIXED64 to ClassName("com.squareup.wire", "LongList"),
+        ProtoType.SINT64 to ClassName("com.squareup.wire", "LongList"),
+        ProtoType.UINT64 to ClassName("com.squareup.wire", "LongList")
+    )
     private val PROTOTYPE_TO_IDENTITY_VALUES = mapOf(
         ProtoType.BOOL to CodeBlock.of("false"),
         ProtoType.STRING to CodeBlock.of("\"\""),
@@ -2362,6 +2450,7 @@ class KotlinGenerator private constructor(
       boxOneOfsMinSize: Int = 5_000,
       grpcServerCompatible: Boolean = false,
       nameSuffix: String? = null,
+      primitiveRepeatedFields: Boolean = false,
     ): KotlinGenerator {
       val typeToKotlinName = mutableMapOf<ProtoType, TypeName>()
       val memberToKotlinName = mutableMapOf<ProtoMember, TypeName>()
@@ -2412,6 +2501,7 @@ class KotlinGenerator private constructor(
           boxOneOfsMinSize = boxOneOfsMinSize,
           grpcServerCompatible = grpcServerCompatible,
           nameSuffix = nameSuffix,
+          primitiveRepeatedFields = primitiveRepeatedFields,
       )
     }
 
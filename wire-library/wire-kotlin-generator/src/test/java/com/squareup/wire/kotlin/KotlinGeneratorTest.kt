@@ -108,7 +108,7 @@ class KotlinGeneratorTest {
     assertTrue(code.contains("val when_: Float"))
     assertTrue(code.contains("val ADAPTER_: Int"))
     assertTrue(code.contains("val adapter_: Long?"))
-    assertTrue(code.contains("var size = value.unknownFields.size"))
+    assertTrue(code.contains("size = value.unknownFields.size"))
     assertTrue(code.contains("size += ProtoAdapter.FLOAT.encodedSizeWithTag(1, value.when_)"))
     assertTrue(code.contains("ProtoAdapter.FLOAT.encodeWithTag(writer, 1, value.when_)"))
     assertTrue(code.contains("ProtoAdapter.FLOAT.encodeWithTag(writer, 1, value.when_)"))
@@ -1447,10 +1447,12 @@ class KotlinGeneratorTest {
         """.trimMargin())
     assertThat(kotlin).contains("""
         |      public override fun encodedSize(`value`: Feature): Int {
-        |        var size = value.unknownFields.size
+        |        var size = cachedEncodedSize(value)
+        |        if (size != 0) return size
+        |        size = value.unknownFields.size
         |        size += ProtoAdapter.STRING.encodedSizeWithTag(1, value.name)
         |        size += StringPointAdapter.INSTANCE.encodedSizeWithTag(2, value.location)
-        |        return size
+        |        return cacheEncodedSize(value, size)
         |      }
         """.trimMargin())
       assertThat(kotlin).contains("""
@@ -1607,6 +1609,90 @@ class KotlinGeneratorTest {
     """.trimMargin())
   }
 
+  @Test
+  fun primitiveRepeatedFields() {
+    val repoBuilder = RepoBuilder()
+      .add("message.proto", """
+        |syntax = "proto2";
+        |message Samples {
+        |  repeated int32 ints = 1 [packed = true];
+        |  repeated sint64 longs = 2;
+        |  repeated double doubles = 3 [packed = true];
+        |  repeated bool flags = 4;
+        |  repeated string names = 5;
+        |}
+        |""".trimMargin())
+    val code = repoBuilder.generateKotlin("Samples", primitiveRepeatedFields = true)
+    assertThat(code).contains("ints: IntList = IntList.EMPTY")
+    assertThat(code).contains("longs: LongList = LongList.EMPTY")
+    assertThat(code).contains("doubles: DoubleList = DoubleList.EMPTY")
+    assertThat(code).contains("flags: BooleanList = BooleanList.EMPTY")
+    assertThat(code).contains("names: List<String> = emptyList()")
+    assertThat(code).contains(
+      "size += value.ints.encodedSizeWithTag(ProtoAdapter.INT32, 1, packed = true)")
+    assertThat(code).contains(
+      "value.longs.encodeWithTag(writer, ProtoAdapter.SINT64, 2, packed = false)")
+    assertThat(code).contains("val doubles = DoubleList.Builder()")
+    assertThat(code).contains("3 -> doubles.decode(reader, ProtoAdapter.DOUBLE)")
+    assertThat(code).contains("doubles = doubles.build(),")
+    assertThat(code).contains("ProtoAdapter.STRING.asRepeated().encodeWithTag(writer, 5, value.names)")
+  }
+
+  @Test
+  fun primitiveRepeatedFieldsAreOptIn() {
+    val repoBuilder = RepoBuilder()
+      .add("message.proto", """
+        |syntax = "proto2";
+        |message Samples {
+        |  repeated int32 ints = 1 [packed = true];
+        |}
+        |""".trimMargin())
+    val code = repoBuilder.generateKotlin("Samples")
+    assertThat(code).contains("ints: List<Int> = emptyList()")
+    assertThat(code).doesNotContain("IntList")
+  }
+
+  @Test
+  fun mapEntriesDecodedIntoMap() {
+    val repoBuilder = RepoBuilder()
+      .add("features.proto", """
+        |syntax = "proto3";
+        |message Features {
+        |  map<string, double> values = 1;
+        |}
+        |""".trimMargin())
+    val code = repoBuilder.generateKotlin("Features")
+    assertThat(code).contains("import com.squareup.wire.`internal`.decodeMapEntry")
+    assertThat(code).contains("val values = mutableMapOf<String, Double>()")
+    assertThat(code).contains("1 -> decodeMapEntry(valuesAdapter, reader, values)")
+  }
+
+  @Test
+  fun lazyMessageField() {
+    val repoBuilder = RepoBuilder()
+      .add("envelope.proto", """
+        |syntax = "proto2";
+        |import "wire/extensions.proto";
+        |
+        |message Envelope {
+        |  optional string route = 1;
+        |  optional Body body = 2 [(wire.lazy) = true];
+        |}
+        |message Body {
+        |  optional string text = 1;
+        |}
+        |""".trimMargin())
+    val code = repoBuilder.generateKotlin("Envelope")
+    assertThat(code).contains("public val body: LazyMessage<Body>? = null,")
+    assertThat(code).contains("private val bodyAdapter: ProtoAdapter<LazyMessage<Body>> by lazy {")
+    assertThat(code).contains("LazyMessage.newAdapter(Body.ADAPTER) }")
+    assertThat(code).contains("size += bodyAdapter.encodedSizeWithTag(2, value.body)")
+    assertThat(code).contains("bodyAdapter.encodeWithTag(writer, 2, value.body)")
+    assertThat(code).contains("2 -> body = bodyAdapter.decode(reader)")
+    assertThat(code).contains("body = value.body?.let(bodyAdapter::redact),")
+    assertThat(code).contains("adapter = \"Body#ADAPTER\"")
+  }
+
   @Test
   fun fieldsDeclarationOrderIsRespected() {
     val repoBuilder = RepoBuilder()
@@ -1691,6 +1777,12 @@ class KotlinGeneratorTest {
       |  public val k: String? = null,
       |  unknownFields: ByteString = ByteString.EMPTY
       """.trimMargin())
+    assertThat(code).contains("""
+      |            6 -> decision = DECISION_F.decode(reader)
+      |            7 -> decision = DECISION_G.decode(reader)
+      |            9 -> decision = DECISION_H.decode(reader)
+      |            else -> reader.readUnknownField(tag)
+      """.trimMargin())
   }
 
   @Test fun hashCodeFunctionImplementation() {
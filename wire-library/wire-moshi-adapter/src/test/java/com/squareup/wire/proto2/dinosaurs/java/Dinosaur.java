@@ -241,7 +241,7 @@ public final class Dinosaur extends Message<Dinosaur, Dinosaur.Builder> {
             try {
               builder.period(Period.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
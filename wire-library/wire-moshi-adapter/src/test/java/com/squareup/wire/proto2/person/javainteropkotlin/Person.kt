@@ -13,6 +13,8 @@ import com.squareup.wire.Syntax
 import com.squareup.wire.Syntax.PROTO_2
 import com.squareup.wire.WireEnum
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.checkElementsNotNull
 import com.squareup.wire.`internal`.immutableCopyOf
 import com.squareup.wire.`internal`.missingRequiredFields
@@ -193,12 +195,14 @@ public class Person(
       "person_java_interop_kotlin.proto"
     ) {
       public override fun encodedSize(`value`: Person): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         size += ProtoAdapter.STRING.encodedSizeWithTag(1, value.name)
         size += ProtoAdapter.INT32.encodedSizeWithTag(2, value.id)
         size += ProtoAdapter.STRING.encodedSizeWithTag(3, value.email)
         size += PhoneNumber.ADAPTER.asRepeated().encodedSizeWithTag(4, value.phone)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: Person): Unit {
@@ -390,10 +394,12 @@ public class Person(
         "person_java_interop_kotlin.proto"
       ) {
         public override fun encodedSize(`value`: PhoneNumber): Int {
-          var size = value.unknownFields.size
+          var size = cachedEncodedSize(value)
+          if (size != 0) return size
+          size = value.unknownFields.size
           size += ProtoAdapter.STRING.encodedSizeWithTag(1, value.number)
           size += PhoneType.ADAPTER.encodedSizeWithTag(2, value.type)
-          return size
+          return cacheEncodedSize(value, size)
         }
 
         public override fun encode(writer: ProtoWriter, `value`: PhoneNumber): Unit {
@@ -14,7 +14,10 @@ import com.squareup.wire.Syntax.PROTO_2
 import com.squareup.wire.WireEnum
 import com.squareup.wire.WireEnumConstant
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.checkElementsNotNull
+import com.squareup.wire.`internal`.decodeMapEntry
 import com.squareup.wire.`internal`.immutableCopyOf
 import com.squareup.wire.`internal`.missingRequiredFields
 import com.squareup.wire.`internal`.sanitize
@@ -201,13 +204,15 @@ public class KeywordKotlin(
           ProtoAdapter.newMapAdapter(ProtoAdapter.STRING, ProtoAdapter.STRING) }
 
       public override fun encodedSize(`value`: KeywordKotlin): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         size += ProtoAdapter.STRING.encodedSizeWithTag(1, value.object_)
         size += ProtoAdapter.INT32.encodedSizeWithTag(2, value.when_)
         size += funAdapter.encodedSizeWithTag(3, value.fun_)
         size += ProtoAdapter.BOOL.asRepeated().encodedSizeWithTag(4, value.return_)
         size += KeywordKotlinEnum.ADAPTER.asRepeated().encodedSizeWithTag(5, value.enums)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: KeywordKotlin): Unit {
@@ -238,7 +243,7 @@ public class KeywordKotlin(
           when (tag) {
             1 -> object_ = ProtoAdapter.STRING.decode(reader)
             2 -> when_ = ProtoAdapter.INT32.decode(reader)
-            3 -> fun_.putAll(funAdapter.decode(reader))
+            3 -> decodeMapEntry(funAdapter, reader, fun_)
             4 -> return_.add(ProtoAdapter.BOOL.decode(reader))
             5 -> try {
               enums.add(KeywordKotlinEnum.ADAPTER.decode(reader))
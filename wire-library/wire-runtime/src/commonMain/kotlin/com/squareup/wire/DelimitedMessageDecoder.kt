@@ -0,0 +1,135 @@
+/*
+ * Copyright 2021 Square Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.wire
+
+import com.squareup.wire.internal.ProtocolException
+import com.squareup.wire.internal.Throws
+import com.squareup.wire.internal.readDelimitedLength
+import okio.Buffer
+import okio.ByteString
+import okio.EOFException
+import okio.IOException
+import kotlin.jvm.JvmOverloads
+
+/**
+ * Decodes a stream of varint length-prefixed messages from bytes that are pushed to it as they
+ * arrive. This never blocks, so it's suitable for event loops and non-blocking I/O: call [feed]
+ * with each chunk of input and it returns the messages that chunk completes. Bytes of a message
+ * that hasn't completely arrived are retained until a later chunk completes it.
+ *
+ * Each message is only decoded once all of its bytes are buffered, so [adapter] can be any adapter,
+ * including generated ones.
+ *
+ * If a message can't be decoded, [feed] throws and that message is dropped. Messages that the same
+ * call completed before it aren't lost: they're returned by the next call to [feed] or [finish].
+ *
+ * Instances of this class are not safe for concurrent use.
+ */
+class DelimitedMessageDecoder<E> @JvmOverloads constructor(
+  private val adapter: ProtoAdapter<E>,
+  /** The largest message to accept. Larger length prefixes fail with a [ProtocolException]. */
+  private val maxMessageSize: Int = Int.MAX_VALUE
+) {
+  /** Input that hasn't been decoded yet. Always starts with a length prefix, or is empty. */
+  private val buffer = Buffer()
+  /** The length of the message at the head of [buffer], or -1 if its prefix isn't read yet. */
+  private var messageSize = -1L
+  /** Messages decoded by a call to [feed] that failed before it could return them. */
+  private var undelivered: MutableList<E>? = null
+
+  /** The number of bytes buffered towards messages that haven't completely arrived. */
+  val bufferedByteCount: Long
+    get() = buffer.size
+
+  /** Buffers [chunk] and returns the messages it completes, which may be none. */
+  @JvmOverloads
+  @Throws(IOException::class)
+  fun feed(chunk: ByteArray, offset: Int = 0, byteCount: Int = chunk.size): List<E> {
+    buffer.write(chunk, offset, byteCount)
+    return decodeBuffered()
+  }
+
+  /** Buffers [chunk] and returns the messages it completes, which may be none. */
+  @Throws(IOException::class)
+  fun feed(chunk: ByteString): List<E> {
+    buffer.write(chunk)
+    return decodeBuffered()
+  }
+
+  /**
+   * Moves all bytes of [chunk] into this decoder and returns the messages they complete, which may
+   * be none. This moves segments rather than copying them.
+   */
+  @Throws(IOException::class)
+  fun feed(chunk: Buffer): List<E> {
+    buffer.writeAll(chunk)
+    return decodeBuffered()
+  }
+
+  /**
+   * Signals that the input is complete, and returns the messages that a failed call to [feed]
+   * decoded but couldn't return, which are usually none.
+   *
+   * @throws EOFException if the input ended partway through a message.
+   */
+  @Throws(IOException::class)
+  fun finish(): List<E> {
+    if (buffer.size > 0L) {
+      throw EOFException("input ended with ${buffer.size} bytes of an incomplete message")
+    }
+    val result = undelivered ?: return emptyList()
+    undelivered = null
+    return result
+  }
+
+  private fun decodeBuffered(): List<E> {
+    var result = undelivered
+    undelivered = null
+    try {
+      while (true) {
+        if (messageSize == -1L) {
+          messageSize = readLengthPrefix()
+          if (messageSize == -1L) break
+        }
+        if (buffer.size < messageSize) break
+
+        val message = Buffer()
+        message.write(buffer, messageSize)
+        messageSize = -1L
+        if (result == null) result = mutableListOf()
+        result.add(adapter.decode(message))
+      }
+    } catch (e: Throwable) {
+      undelivered = result
+      throw e
+    }
+    return result ?: emptyList()
+  }
+
+  /**
+   * Consumes the length prefix at the head of [buffer] and returns it, or returns -1 without
+   * consuming anything if the prefix hasn't completely arrived.
+   */
+  private fun readLengthPrefix(): Long {
+    var i = 0L
+    val result = readDelimitedLength(maxMessageSize) {
+      if (i < buffer.size) buffer[i++].toInt() and 0xff else -1
+    }
+    if (result == -1) return -1L
+    buffer.skip(i)
+    return result.toLong()
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2021 Square Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.wire
+
+import com.squareup.wire.internal.Throws
+import okio.BufferedSink
+import okio.IOException
+import kotlin.jvm.JvmOverloads
+
+/**
+ * Writes messages to [sink], each prefixed with its length as a varint. This is the format of
+ * protobuf-java's `writeDelimitedTo()`, and it can be read with [DelimitedMessageSource] or
+ * [DelimitedMessageDecoder].
+ *
+ * All messages are encoded with the same writer, so writing a message doesn't allocate buffers.
+ * Each message is emitted to the underlying sink as it is written. If encoding a message fails,
+ * none of its bytes are written and the sink can still be used.
+ *
+ * Instances of this class are not safe for concurrent use.
+ */
+class DelimitedMessageSink<in T : Any> @JvmOverloads constructor(
+  private val sink: BufferedSink,
+  private val adapter: ProtoAdapter<T>,
+  /**
+   * The largest message to write. Larger messages fail with an [IllegalArgumentException] and
+   * nothing is written.
+   */
+  private val maxMessageSize: Int = Int.MAX_VALUE
+) : MessageSink<T> {
+  private val writer = ReverseProtoWriter()
+  private var canceled = false
+  private var closed = false
+
+  @Throws(IOException::class)
+  override fun write(message: T) {
+    check(!closed) { "closed" }
+    check(!canceled) { "canceled" }
+    try {
+      adapter.encode(writer, message)
+      val messageSize = writer.byteCount
+      require(messageSize <= maxMessageSize) {
+        "message of $messageSize bytes exceeds $maxMessageSize"
+      }
+      writer.writeVarint32(messageSize)
+      writer.writeTo(sink)
+    } catch (t: Throwable) {
+      // Don't let the bytes of a failed message prefix the next one.
+      writer.reset()
+      throw t
+    }
+    sink.emit()
+  }
+
+  /** Stops writing. Messages that have already been written are retained. */
+  @Throws(IOException::class)
+  override fun cancel() {
+    check(!closed) { "closed" }
+    canceled = true
+  }
+
+  @Throws(IOException::class)
+  override fun close() {
+    if (closed) return
+    closed = true
+    sink.close()
+  }
+}
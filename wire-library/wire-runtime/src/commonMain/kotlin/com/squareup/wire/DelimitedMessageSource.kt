@@ -0,0 +1,76 @@
+/*
+ * Copyright 2021 Square Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.wire
+
+import com.squareup.wire.internal.ProtocolException
+import com.squareup.wire.internal.Throws
+import okio.BufferedSource
+import okio.EOFException
+import okio.IOException
+import kotlin.jvm.JvmOverloads
+
+/**
+ * Reads messages from [source] that are each prefixed with their length as a varint. This is the
+ * format of protobuf-java's `parseDelimitedFrom()`, and of messages written by
+ * [DelimitedMessageSink].
+ *
+ * All messages are decoded with the same reader, and messages that aren't needed can be skipped
+ * with [skip] without decoding them. Use [DelimitedMessageDecoder] instead to decode without
+ * blocking.
+ *
+ * Instances of this class are not safe for concurrent use.
+ */
+class DelimitedMessageSource<out T : Any> @JvmOverloads constructor(
+  private val source: BufferedSource,
+  private val adapter: ProtoAdapter<out T>,
+  /** The largest message to accept. Larger length prefixes fail with a [ProtocolException]. */
+  private val maxMessageSize: Int = Int.MAX_VALUE
+) : MessageSource<T> {
+  private val reader = ProtoReader(source)
+  private var closed = false
+
+  /**
+   * Returns the next message, or null if the source is exhausted.
+   *
+   * @throws EOFException if the source ends partway through a message.
+   */
+  @Throws(IOException::class)
+  override fun read(): T? {
+    check(!closed) { "closed" }
+    if (reader.nextDelimitedMessage(maxMessageSize) == -1L) return null
+    return adapter.decode(reader)
+  }
+
+  /**
+   * Skips the next message without decoding it. Returns false if the source is exhausted.
+   *
+   * @throws EOFException if the source ends partway through a message.
+   */
+  @Throws(IOException::class)
+  fun skip(): Boolean {
+    check(!closed) { "closed" }
+    if (reader.nextDelimitedMessage(maxMessageSize) == -1L) return false
+    reader.skip()
+    return true
+  }
+
+  @Throws(IOException::class)
+  override fun close() {
+    if (closed) return
+    closed = true
+    source.close()
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2021 Square Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.wire
+
+import com.squareup.wire.FieldEncoding.LENGTH_DELIMITED
+import okio.ByteString
+import kotlin.jvm.JvmStatic
+
+/**
+ * A message that is decoded from its encoded bytes on first access.
+ *
+ * Fields annotated `[(wire.lazy) = true]` are generated with this type. Decoding the enclosing
+ * message copies the field's bytes without decoding them, and [value] decodes them when it's first
+ * read. Encoding writes the original bytes back out, so a message can be decoded, partially
+ * inspected, and re-encoded while paying only for the fields that were actually read.
+ *
+ * Lazy messages are equal if their encoded bytes are equal, so comparing and hashing them doesn't
+ * decode them. Messages that are equal but were encoded differently, such as with their fields in
+ * a different order, are not equal as lazy messages.
+ */
+class LazyMessage<M : Any> private constructor(
+  private val adapter: ProtoAdapter<M>,
+  /** The encoded message. This is computed when first needed if it was created decoded. */
+  private var bytes: ByteString?,
+  private var decoded: M?
+) {
+  /** The message, decoded on first access and memoized. */
+  val value: M
+    get() {
+      var result = decoded
+      if (result == null) {
+        result = adapter.decode(bytes!!)
+        decoded = result
+      }
+      return result
+    }
+
+  /** True if [value] has been decoded, or was never encoded. */
+  val isDecoded: Boolean
+    get() = decoded != null
+
+  internal fun encodedSize(): Int = bytes?.size ?: adapter.encodedSize(decoded!!)
+
+  internal fun encode(writer: ProtoWriter) {
+    if (bytes != null) writer.writeBytes(bytes) else adapter.encode(writer, decoded!!)
+  }
+
+  internal fun encode(writer: ReverseProtoWriter) {
+    if (bytes != null) writer.writeBytes(bytes) else adapter.encode(writer, decoded!!)
+  }
+
+  private fun encoded(): ByteString {
+    var result = bytes
+    if (result == null) {
+      result = adapter.encodeByteString(decoded!!)
+      bytes = result
+    }
+    return result
+  }
+
+  override fun equals(other: Any?): Boolean {
+    if (other === this) return true
+    if (other !is LazyMessage<*>) return false
+    return encoded() == other.encoded()
+  }
+
+  override fun hashCode() = encoded().hashCode()
+
+  override fun toString() = decoded?.toString() ?: "LazyMessage{${bytes!!.size} bytes}"
+
+  companion object {
+    /** Returns a lazy message that holds the already-decoded [value]. */
+    @JvmStatic
+    fun <M : Any> of(adapter: ProtoAdapter<M>, value: M): LazyMessage<M> =
+      LazyMessage(adapter, null, value)
+
+    /**
+     * Returns an adapter that reads [adapter]'s messages without decoding them, and writes them
+     * without re-encoding them if they were read that way.
+     */
+    @JvmStatic
+    fun <M : Any> newAdapter(adapter: ProtoAdapter<M>): ProtoAdapter<LazyMessage<M>> =
+      LazyMessageAdapter(adapter)
+  }
+
+  private class LazyMessageAdapter<M : Any>(
+    private val messageAdapter: ProtoAdapter<M>
+  ) : ProtoAdapter<LazyMessage<M>>(
+    LENGTH_DELIMITED,
+    LazyMessage::class,
+    null,
+    messageAdapter.syntax
+  ) {
+    override fun encodedSize(value: LazyMessage<M>): Int = value.encodedSize()
+
+    override fun encode(writer: ProtoWriter, value: LazyMessage<M>) = value.encode(writer)
+
+    override fun encode(writer: ReverseProtoWriter, value: LazyMessage<M>) = value.encode(writer)
+
+    override fun decode(reader: ProtoReader): LazyMessage<M> =
+      LazyMessage(messageAdapter, reader.readBytes(), null)
+
+    override fun redact(value: LazyMessage<M>): LazyMessage<M> =
+      of(messageAdapter, messageAdapter.redact(value.value))
+  }
+}
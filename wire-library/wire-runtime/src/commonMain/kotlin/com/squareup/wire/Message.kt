@@ -26,6 +26,9 @@ expect abstract class Message<M : Message<M, B>, B : Message.Builder<M, B>> prot
   /** If non-zero, the hash code of this message. Accessed by generated code. */
   protected var hashCode: Int
 
+  /** If non-zero, the encoded size of this message. */
+  internal var cachedSerializedSize: Int
+
   /**
    * Returns a byte string containing the proto encoding of this message's unknown fields. Returns
    * an empty byte string if this message has no unknown fields.
@@ -0,0 +1,731 @@
+/*
+ * Copyright 2021 Square Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.wire
+
+import com.squareup.wire.FieldEncoding.LENGTH_DELIMITED
+import com.squareup.wire.ProtoWriter.Companion.decodeZigZag32
+import com.squareup.wire.ProtoWriter.Companion.decodeZigZag64
+import com.squareup.wire.ProtoWriter.Companion.encodeZigZag32
+import com.squareup.wire.ProtoWriter.Companion.encodeZigZag64
+import com.squareup.wire.ProtoWriter.Companion.int32Size
+import com.squareup.wire.ProtoWriter.Companion.tagSize
+import com.squareup.wire.ProtoWriter.Companion.varint32Size
+import com.squareup.wire.ProtoWriter.Companion.varint64Size
+import kotlin.jvm.JvmField
+import kotlin.jvm.JvmStatic
+
+/*
+ * Immutable lists that store scalar values in primitive arrays.
+ *
+ * Kotlin code generated with `primitiveRepeatedFields` enabled uses these for repeated `int32`,
+ * `int64`, `float`, `double` and `bool` fields (and their unsigned, zig-zag, and fixed-width
+ * variants). Generated adapters encode and decode them with the methods below, which read and
+ * write each element directly rather than boxing it and going through a [ProtoAdapter].
+ */
+
+/** An immutable list of `int32`, `uint32`, `sint32`, `fixed32`, or `sfixed32` values. */
+class IntList internal constructor(
+  private val values: IntArray,
+  override val size: Int
+) : AbstractList<Int>(), RandomAccess {
+  override fun get(index: Int): Int = getInt(index)
+
+  /** Returns the value at [index] without boxing it. */
+  fun getInt(index: Int): Int {
+    checkElementIndex(index, size)
+    return values[index]
+  }
+
+  fun toIntArray(): IntArray = values.copyOf(size)
+
+  /** Returns the size of this list encoded as repeated field [tag]. For generated code. */
+  fun encodedSizeWithTag(adapter: ProtoAdapter<Int>, tag: Int, packed: Boolean): Int {
+    if (size == 0) return 0
+    val valuesSize = valuesSize(intKind(adapter))
+    return if (packed) {
+      tagSize(tag) + varint32Size(valuesSize) + valuesSize
+    } else {
+      size * tagSize(tag) + valuesSize
+    }
+  }
+
+  /** Writes this list as repeated field [tag]. For generated code. */
+  fun encodeWithTag(writer: ProtoWriter, adapter: ProtoAdapter<Int>, tag: Int, packed: Boolean) {
+    if (size == 0) return
+    val kind = intKind(adapter)
+    if (packed) {
+      writer.writeTag(tag, LENGTH_DELIMITED)
+      writer.writeVarint32(valuesSize(kind))
+      for (i in 0 until size) {
+        writer.writeInt(kind, values[i])
+      }
+    } else {
+      for (i in 0 until size) {
+        writer.writeTag(tag, adapter.fieldEncoding)
+        writer.writeInt(kind, values[i])
+      }
+    }
+  }
+
+  /** Writes this list as repeated field [tag]. For generated code. */
+  fun encodeWithTag(
+    writer: ReverseProtoWriter,
+    adapter: ProtoAdapter<Int>,
+    tag: Int,
+    packed: Boolean
+  ) {
+    if (size == 0) return
+    val kind = intKind(adapter)
+    if (packed) {
+      val byteCountBefore = writer.byteCount
+      for (i in size - 1 downTo 0) {
+        writer.writeInt(kind, values[i])
+      }
+      writer.writeVarint32(writer.byteCount - byteCountBefore)
+      writer.writeTag(tag, LENGTH_DELIMITED)
+    } else {
+      for (i in size - 1 downTo 0) {
+        writer.writeInt(kind, values[i])
+        writer.writeTag(tag, adapter.fieldEncoding)
+      }
+    }
+  }
+
+  private fun valuesSize(kind: Int): Int {
+    if (kind == KIND_FIXED) return size * 4
+    var result = 0
+    for (i in 0 until size) {
+      val value = values[i]
+      result += when (kind) {
+        KIND_VARINT -> int32Size(value)
+        KIND_UNSIGNED -> varint32Size(value)
+        else -> varint32Size(encodeZigZag32(value))
+      }
+    }
+    return result
+  }
+
+  class Builder {
+    private var values = IntArray(0)
+    private var size = 0
+
+    fun add(value: Int): Builder {
+      if (size == values.size) ensureCapacity(size + 1)
+      values[size++] = value
+      return this
+    }
+
+    /**
+     * Decodes the next value of a repeated [adapter] field from [reader]. If the value is part of a
+     * packed run the entire run is decoded. For generated code.
+     */
+    fun decode(reader: ProtoReader, adapter: ProtoAdapter<Int>) {
+      val kind = intKind(adapter)
+      val packedByteCount = reader.packedByteCount()
+      if (packedByteCount == 0L) {
+        reader.skip() // An empty packed run.
+        return
+      }
+      if (kind == KIND_FIXED && packedByteCount > 0L) {
+        ensureCapacity(size + (packedByteCount / 4).toInt())
+      }
+      do {
+        add(reader.readInt(kind))
+      } while (reader.nextPackedValue())
+    }
+
+    fun build(): IntList = if (size == 0) EMPTY else IntList(values.copyOf(size), size)
+
+    private fun ensureCapacity(minCapacity: Int) {
+      if (minCapacity > values.size) {
+        values = values.copyOf(newCapacity(values.size, minCapacity))
+      }
+    }
+  }
+
+  companion object {
+    @JvmField val EMPTY = IntList(IntArray(0), 0)
+
+    @JvmStatic fun of(vararg values: Int): IntList = IntList(values.copyOf(), values.size)
+  }
+}
+
+/** An immutable list of `int64`, `uint64`, `sint64`, `fixed64`, or `sfixed64` values. */
+class LongList internal constructor(
+  private val values: LongArray,
+  override val size: Int
+) : AbstractList<Long>(), RandomAccess {
+  override fun get(index: Int): Long = getLong(index)
+
+  /** Returns the value at [index] without boxing it. */
+  fun getLong(index: Int): Long {
+    checkElementIndex(index, size)
+    return values[index]
+  }
+
+  fun toLongArray(): LongArray = values.copyOf(size)
+
+  /** Returns the size of this list encoded as repeated field [tag]. For generated code. */
+  fun encodedSizeWithTag(adapter: ProtoAdapter<Long>, tag: Int, packed: Boolean): Int {
+    if (size == 0) return 0
+    val valuesSize = valuesSize(longKind(adapter))
+    return if (packed) {
+      tagSize(tag) + varint32Size(valuesSize) + valuesSize
+    } else {
+      size * tagSize(tag) + valuesSize
+    }
+  }
+
+  /** Writes this list as repeated field [tag]. For generated code. */
+  fun encodeWithTag(writer: ProtoWriter, adapter: ProtoAdapter<Long>, tag: Int, packed: Boolean) {
+    if (size == 0) return
+    val kind = longKind(adapter)
+    if (packed) {
+      writer.writeTag(tag, LENGTH_DELIMITED)
+      writer.writeVarint32(valuesSize(kind))
+      for (i in 0 until size) {
+        writer.writeLong(kind, values[i])
+      }
+    } else {
+      for (i in 0 until size) {
+        writer.writeTag(tag, adapter.fieldEncoding)
+        writer.writeLong(kind, values[i])
+      }
+    }
+  }
+
+  /** Writes this list as repeated field [tag]. For generated code. */
+  fun encodeWithTag(
+    writer: ReverseProtoWriter,
+    adapter: ProtoAdapter<Long>,
+    tag: Int,
+    packed: Boolean
+  ) {
+    if (size == 0) return
+    val kind = longKind(adapter)
+    if (packed) {
+      val byteCountBefore = writer.byteCount
+      for (i in size - 1 downTo 0) {
+        writer.writeLong(kind, values[i])
+      }
+      writer.writeVarint32(writer.byteCount - byteCountBefore)
+      writer.writeTag(tag, LENGTH_DELIMITED)
+    } else {
+      for (i in size - 1 downTo 0) {
+        writer.writeLong(kind, values[i])
+        writer.writeTag(tag, adapter.fieldEncoding)
+      }
+    }
+  }
+
+  private fun valuesSize(kind: Int): Int {
+    if (kind == KIND_FIXED) return size * 8
+    var result = 0
+    for (i in 0 until size) {
+      val value = values[i]
+      result += when (kind) {
+        KIND_ZIGZAG -> varint64Size(encodeZigZag64(value))
+        else -> varint64Size(value)
+      }
+    }
+    return result
+  }
+
+  class Builder {
+    private var values = LongArray(0)
+    private var size = 0
+
+    fun add(value: Long): Builder {
+      if (size == values.size) ensureCapacity(size + 1)
+      values[size++] = value
+      return this
+    }
+
+    /**
+     * Decodes the next value of a repeated [adapter] field from [reader]. If the value is part of a
+     * packed run the entire run is decoded. For generated code.
+     */
+    fun decode(reader: ProtoReader, adapter: ProtoAdapter<Long>) {
+      val kind = longKind(adapter)
+      val packedByteCount = reader.packedByteCount()
+      if (packedByteCount == 0L) {
+        reader.skip() // An empty packed run.
+        return
+      }
+      if (kind == KIND_FIXED && packedByteCount > 0L) {
+        ensureCapacity(size + (packedByteCount / 8).toInt())
+      }
+      do {
+        add(reader.readLong(kind))
+      } while (reader.nextPackedValue())
+    }
+
+    fun build(): LongList = if (size == 0) EMPTY else LongList(values.copyOf(size), size)
+
+    private fun ensureCapacity(minCapacity: Int) {
+      if (minCapacity > values.size) {
+        values = values.copyOf(newCapacity(values.size, minCapacity))
+      }
+    }
+  }
+
+  companion object {
+    @JvmField val EMPTY = LongList(LongArray(0), 0)
+
+    @JvmStatic fun of(vararg values: Long): LongList = LongList(values.copyOf(), values.size)
+  }
+}
+
+/** An immutable list of `float` values. */
+class FloatList internal constructor(
+  private val values: FloatArray,
+  override val size: Int
+) : AbstractList<Float>(), RandomAccess {
+  override fun get(index: Int): Float = getFloat(index)
+
+  /** Returns the value at [index] without boxing it. */
+  fun getFloat(index: Int): Float {
+    checkElementIndex(index, size)
+    return values[index]
+  }
+
+  fun toFloatArray(): FloatArray = values.copyOf(size)
+
+  /** Returns the size of this list encoded as repeated field [tag]. For generated code. */
+  fun encodedSizeWithTag(adapter: ProtoAdapter<Float>, tag: Int, packed: Boolean): Int {
+    checkAdapter(adapter, ProtoAdapter.FLOAT)
+    if (size == 0) return 0
+    val valuesSize = size * 4
+    return if (packed) {
+      tagSize(tag) + varint32Size(valuesSize) + valuesSize
+    } else {
+      size * tagSize(tag) + valuesSize
+    }
+  }
+
+  /** Writes this list as repeated field [tag]. For generated code. */
+  fun encodeWithTag(writer: ProtoWriter, adapter: ProtoAdapter<Float>, tag: Int, packed: Boolean) {
+    checkAdapter(adapter, ProtoAdapter.FLOAT)
+    if (size == 0) return
+    if (packed) {
+      writer.writeTag(tag, LENGTH_DELIMITED)
+      writer.writeVarint32(size * 4)
+      for (i in 0 until size) {
+        writer.writeFixed32(values[i].toBits())
+      }
+    } else {
+      for (i in 0 until size) {
+        writer.writeTag(tag, FieldEncoding.FIXED32)
+        writer.writeFixed32(values[i].toBits())
+      }
+    }
+  }
+
+  /** Writes this list as repeated field [tag]. For generated code. */
+  fun encodeWithTag(
+    writer: ReverseProtoWriter,
+    adapter: ProtoAdapter<Float>,
+    tag: Int,
+    packed: Boolean
+  ) {
+    checkAdapter(adapter, ProtoAdapter.FLOAT)
+    if (size == 0) return
+    if (packed) {
+      for (i in size - 1 downTo 0) {
+        writer.writeFixed32(values[i].toBits())
+      }
+      writer.writeVarint32(size * 4)
+      writer.writeTag(tag, LENGTH_DELIMITED)
+    } else {
+      for (i in size - 1 downTo 0) {
+        writer.writeFixed32(values[i].toBits())
+        writer.writeTag(tag, FieldEncoding.FIXED32)
+      }
+    }
+  }
+
+  class Builder {
+    private var values = FloatArray(0)
+    private var size = 0
+
+    fun add(value: Float): Builder {
+      if (size == values.size) ensureCapacity(size + 1)
+      values[size++] = value
+      return this
+    }
+
+    /**
+     * Decodes the next value of a repeated [adapter] field from [reader]. If the value is part of a
+     * packed run the entire run is decoded. For generated code.
+     */
+    fun decode(reader: ProtoReader, adapter: ProtoAdapter<Float>) {
+      checkAdapter(adapter, ProtoAdapter.FLOAT)
+      val packedByteCount = reader.packedByteCount()
+      if (packedByteCount == 0L) {
+        reader.skip() // An empty packed run.
+        return
+      }
+      if (packedByteCount > 0L) {
+        ensureCapacity(size + (packedByteCount / 4).toInt())
+      }
+      do {
+        add(Float.fromBits(reader.readFixed32()))
+      } while (reader.nextPackedValue())
+    }
+
+    fun build(): FloatList = if (size == 0) EMPTY else FloatList(values.copyOf(size), size)
+
+    private fun ensureCapacity(minCapacity: Int) {
+      if (minCapacity > values.size) {
+        values = values.copyOf(newCapacity(values.size, minCapacity))
+      }
+    }
+  }
+
+  companion object {
+    @JvmField val EMPTY = FloatList(FloatArray(0), 0)
+
+    @JvmStatic fun of(vararg values: Float): FloatList = FloatList(values.copyOf(), values.size)
+  }
+}
+
+/** An immutable list of `double` values. */
+class DoubleList internal constructor(
+  private val values: DoubleArray,
+  override val size: Int
+) : AbstractList<Double>(), RandomAccess {
+  override fun get(index: Int): Double = getDouble(index)
+
+  /** Returns the value at [index] without boxing it. */
+  fun getDouble(index: Int): Double {
+    checkElementIndex(index, size)
+    return values[index]
+  }
+
+  fun toDoubleArray(): DoubleArray = values.copyOf(size)
+
+  /** Returns the size of this list encoded as repeated field [tag]. For generated code. */
+  fun encodedSizeWithTag(adapter: ProtoAdapter<Double>, tag: Int, packed: Boolean): Int {
+    checkAdapter(adapter, ProtoAdapter.DOUBLE)
+    if (size == 0) return 0
+    val valuesSize = size * 8
+    return if (packed) {
+      tagSize(tag) + varint32Size(valuesSize) + valuesSize
+    } else {
+      size * tagSize(tag) + valuesSize
+    }
+  }
+
+  /** Writes this list as repeated field [tag]. For generated code. */
+  fun encodeWithTag(writer: ProtoWriter, adapter: ProtoAdapter<Double>, tag: Int, packed: Boolean) {
+    checkAdapter(adapter, ProtoAdapter.DOUBLE)
+    if (size == 0) return
+    if (packed) {
+      writer.writeTag(tag, LENGTH_DELIMITED)
+      writer.writeVarint32(size * 8)
+      for (i in 0 until size) {
+        writer.writeFixed64(values[i].toBits())
+      }
+    } else {
+      for (i in 0 until size) {
+        writer.writeTag(tag, FieldEncoding.FIXED64)
+        writer.writeFixed64(values[i].toBits())
+      }
+    }
+  }
+
+  /** Writes this list as repeated field [tag]. For generated code. */
+  fun encodeWithTag(
+    writer: ReverseProtoWriter,
+    adapter: ProtoAdapter<Double>,
+    tag: Int,
+    packed: Boolean
+  ) {
+    checkAdapter(adapter, ProtoAdapter.DOUBLE)
+    if (size == 0) return
+    if (packed) {
+      for (i in size - 1 downTo 0) {
+        writer.writeFixed64(values[i].toBits())
+      }
+      writer.writeVarint32(size * 8)
+      writer.writeTag(tag, LENGTH_DELIMITED)
+    } else {
+      for (i in size - 1 downTo 0) {
+        writer.writeFixed64(values[i].toBits())
+        writer.writeTag(tag, FieldEncoding.FIXED64)
+      }
+    }
+  }
+
+  class Builder {
+    private var values = DoubleArray(0)
+    private var size = 0
+
+    fun add(value: Double): Builder {
+      if (size == values.size) ensureCapacity(size + 1)
+      values[size++] = value
+      return this
+    }
+
+    /**
+     * Decodes the next value of a repeated [adapter] field from [reader]. If the value is part of a
+     * packed run the entire run is decoded. For generated code.
+     */
+    fun decode(reader: ProtoReader, adapter: ProtoAdapter<Double>) {
+      checkAdapter(adapter, ProtoAdapter.DOUBLE)
+      val packedByteCount = reader.packedByteCount()
+      if (packedByteCount == 0L) {
+        reader.skip() // An empty packed run.
+        return
+      }
+      if (packedByteCount > 0L) {
+        ensureCapacity(size + (packedByteCount / 8).toInt())
+      }
+      do {
+        add(Double.fromBits(reader.readFixed64()))
+      } while (reader.nextPackedValue())
+    }
+
+    fun build(): DoubleList = if (size == 0) EMPTY else DoubleList(values.copyOf(size), size)
+
+    private fun ensureCapacity(minCapacity: Int) {
+      if (minCapacity > values.size) {
+        values = values.copyOf(newCapacity(values.size, minCapacity))
+      }
+    }
+  }
+
+  companion object {
+    @JvmField val EMPTY = DoubleList(DoubleArray(0), 0)
+
+    @JvmStatic fun of(vararg values: Double): DoubleList = DoubleList(values.copyOf(), values.size)
+  }
+}
+
+/** An immutable list of `bool` values. */
+class BooleanList internal constructor(
+  private val values: BooleanArray,
+  override val size: Int
+) : AbstractList<Boolean>(), RandomAccess {
+  override fun get(index: Int): Boolean = getBoolean(index)
+
+  /** Returns the value at [index] without boxing it. */
+  fun getBoolean(index: Int): Boolean {
+    checkElementIndex(index, size)
+    return values[index]
+  }
+
+  fun toBooleanArray(): BooleanArray = values.copyOf(size)
+
+  /** Returns the size of this list encoded as repeated field [tag]. For generated code. */
+  fun encodedSizeWithTag(adapter: ProtoAdapter<Boolean>, tag: Int, packed: Boolean): Int {
+    checkAdapter(adapter, ProtoAdapter.BOOL)
+    if (size == 0) return 0
+    return if (packed) {
+      tagSize(tag) + varint32Size(size) + size
+    } else {
+      size * tagSize(tag) + size
+    }
+  }
+
+  /** Writes this list as repeated field [tag]. For generated code. */
+  fun encodeWithTag(
+    writer: ProtoWriter,
+    adapter: ProtoAdapter<Boolean>,
+    tag: Int,
+    packed: Boolean
+  ) {
+    checkAdapter(adapter, ProtoAdapter.BOOL)
+    if (size == 0) return
+    if (packed) {
+      writer.writeTag(tag, LENGTH_DELIMITED)
+      writer.writeVarint32(size)
+      for (i in 0 until size) {
+        writer.writeVarint32(if (values[i]) 1 else 0)
+      }
+    } else {
+      for (i in 0 until size) {
+        writer.writeTag(tag, FieldEncoding.VARINT)
+        writer.writeVarint32(if (values[i]) 1 else 0)
+      }
+    }
+  }
+
+  /** Writes this list as repeated field [tag]. For generated code. */
+  fun encodeWithTag(
+    writer: ReverseProtoWriter,
+    adapter: ProtoAdapter<Boolean>,
+    tag: Int,
+    packed: Boolean
+  ) {
+    checkAdapter(adapter, ProtoAdapter.BOOL)
+    if (size == 0) return
+    if (packed) {
+      for (i in size - 1 downTo 0) {
+        writer.writeVarint32(if (values[i]) 1 else 0)
+      }
+      writer.writeVarint32(size)
+      writer.writeTag(tag, LENGTH_DELIMITED)
+    } else {
+      for (i in size - 1 downTo 0) {
+        writer.writeVarint32(if (values[i]) 1 else 0)
+        writer.writeTag(tag, FieldEncoding.VARINT)
+      }
+    }
+  }
+
+  class Builder {
+    private var values = BooleanArray(0)
+    private var size = 0
+
+    fun add(value: Boolean): Builder {
+      if (size == values.size) ensureCapacity(size + 1)
+      values[size++] = value
+      return this
+    }
+
+    /**
+     * Decodes the next value of a repeated [adapter] field from [reader]. If the value is part of a
+     * packed run the entire run is decoded. For generated code.
+     */
+    fun decode(reader: ProtoReader, adapter: ProtoAdapter<Boolean>) {
+      checkAdapter(adapter, ProtoAdapter.BOOL)
+      val packedByteCount = reader.packedByteCount()
+      if (packedByteCount == 0L) {
+        reader.skip() // An empty packed run.
+        return
+      }
+      do {
+        add(reader.readVarint32() != 0) // Lenient to match ProtoAdapter.BOOL.
+      } while (reader.nextPackedValue())
+    }
+
+    fun build(): BooleanList = if (size == 0) EMPTY else BooleanList(values.copyOf(size), size)
+
+    private fun ensureCapacity(minCapacity: Int) {
+      if (minCapacity > values.size) {
+        values = values.copyOf(newCapacity(values.size, minCapacity))
+      }
+    }
+  }
+
+  companion object {
+    @JvmField val EMPTY = BooleanList(BooleanArray(0), 0)
+
+    @JvmStatic fun of(vararg values: Boolean): BooleanList =
+      BooleanList(values.copyOf(), values.size)
+  }
+}
+
+fun Collection<Int>.toIntList(): IntList = IntList(toIntArray(), size)
+
+fun Collection<Long>.toLongList(): LongList = LongList(toLongArray(), size)
+
+fun Collection<Float>.toFloatList(): FloatList = FloatList(toFloatArray(), size)
+
+fun Collection<Double>.toDoubleList(): DoubleList = DoubleList(toDoubleArray(), size)
+
+fun Collection<Boolean>.toBooleanList(): BooleanList = BooleanList(toBooleanArray(), size)
+
+/** Sign-extended varints: `int32` and `int64`. */
+private const val KIND_VARINT = 0
+/** Unsigned varints: `uint32` and `uint64`. */
+private const val KIND_UNSIGNED = 1
+/** Zig-zag encoded varints: `sint32` and `sint64`. */
+private const val KIND_ZIGZAG = 2
+/** Fixed-width values: `fixed32`, `sfixed32`, `fixed64`, and `sfixed64`. */
+private const val KIND_FIXED = 3
+
+private fun intKind(adapter: ProtoAdapter<Int>): Int = when {
+  adapter === ProtoAdapter.INT32 -> KIND_VARINT
+  adapter === ProtoAdapter.UINT32 -> KIND_UNSIGNED
+  adapter === ProtoAdapter.SINT32 -> KIND_ZIGZAG
+  adapter === ProtoAdapter.FIXED32 || adapter === ProtoAdapter.SFIXED32 -> KIND_FIXED
+  else -> throw IllegalArgumentException("unexpected adapter: $adapter")
+}
+
+private fun longKind(adapter: ProtoAdapter<Long>): Int = when {
+  adapter === ProtoAdapter.INT64 -> KIND_VARINT
+  adapter === ProtoAdapter.UINT64 -> KIND_UNSIGNED
+  adapter === ProtoAdapter.SINT64 -> KIND_ZIGZAG
+  adapter === ProtoAdapter.FIXED64 || adapter === ProtoAdapter.SFIXED64 -> KIND_FIXED
+  else -> throw IllegalArgumentException("unexpected adapter: $adapter")
+}
+
+private fun checkAdapter(adapter: ProtoAdapter<*>, expected: ProtoAdapter<*>) {
+  require(adapter === expected) { "unexpected adapter: $adapter" }
+}
+
+private fun ProtoWriter.writeInt(kind: Int, value: Int) {
+  when (kind) {
+    KIND_VARINT -> writeSignedVarint32(value)
+    KIND_UNSIGNED -> writeVarint32(value)
+    KIND_ZIGZAG -> writeVarint32(encodeZigZag32(value))
+    else -> writeFixed32(value)
+  }
+}
+
+private fun ReverseProtoWriter.writeInt(kind: Int, value: Int) {
+  when (kind) {
+    KIND_VARINT -> writeSignedVarint32(value)
+    KIND_UNSIGNED -> writeVarint32(value)
+    KIND_ZIGZAG -> writeVarint32(encodeZigZag32(value))
+    else -> writeFixed32(value)
+  }
+}
+
+private fun ProtoWriter.writeLong(kind: Int, value: Long) {
+  when (kind) {
+    KIND_ZIGZAG -> writeVarint64(encodeZigZag64(value))
+    KIND_FIXED -> writeFixed64(value)
+    else -> writeVarint64(value)
+  }
+}
+
+private fun ReverseProtoWriter.writeLong(kind: Int, value: Long) {
+  when (kind) {
+    KIND_ZIGZAG -> writeVarint64(encodeZigZag64(value))
+    KIND_FIXED -> writeFixed64(value)
+    else -> writeVarint64(value)
+  }
+}
+
+private fun ProtoReader.readInt(kind: Int): Int {
+  return when (kind) {
+    KIND_ZIGZAG -> decodeZigZag32(readVarint32())
+    KIND_FIXED -> readFixed32()
+    else -> readVarint32()
+  }
+}
+
+private fun ProtoReader.readLong(kind: Int): Long {
+  return when (kind) {
+    KIND_ZIGZAG -> decodeZigZag64(readVarint64())
+    KIND_FIXED -> readFixed64()
+    else -> readVarint64()
+  }
+}
+
+private fun checkElementIndex(index: Int, size: Int) {
+  if (index < 0 || index >= size) {
+    throw IndexOutOfBoundsException("index: $index, size: $size")
+  }
+}
+
+private fun newCapacity(oldCapacity: Int, minCapacity: Int): Int {
+  val grown = oldCapacity + (oldCapacity shr 1)
+  return if (grown < minCapacity) maxOf(minCapacity, 8) else grown
+}
@@ -26,6 +26,10 @@ import com.squareup.wire.ProtoWriter.Companion.tagSize
 import com.squareup.wire.ProtoWriter.Companion.varint32Size
 import com.squareup.wire.ProtoWriter.Companion.varint64Size
 import com.squareup.wire.internal.Throws
+import com.squareup.wire.internal.ensureCapacity
+import com.squareup.wire.internal.incrementForwardEncodedCount
+import com.squareup.wire.internal.releasePooledReverseProtoWriter
+import com.squareup.wire.internal.takePooledReverseProtoWriter
 import okio.Buffer
 import okio.BufferedSink
 import okio.BufferedSource
@@ -128,6 +132,20 @@ expect abstract class ProtoAdapter<E>(
   /** Encode `value` as a [ByteString]. */
   fun encodeByteString(value: E): ByteString
 
+  /**
+   * Encode `value` directly into `destination` starting at `offset`, and return the number of
+   * bytes written. This allocates nothing when encoding into a reused array.
+   *
+   * @throws IndexOutOfBoundsException if the encoded value doesn't fit in `destination`.
+   */
+  fun encode(value: E, destination: ByteArray, offset: Int): Int
+
+  /**
+   * Encode each of `values` as a [ByteString]. One writer is reused for the whole batch, which
+   * saves the per-call setup of [encodeByteString] when the values are small.
+   */
+  fun encodeAll(values: List<E>): List<ByteString>
+
   /** Read a non-null value from `reader`. */
   @Throws(IOException::class)
   abstract fun decode(reader: ProtoReader): E
@@ -144,6 +162,59 @@ expect abstract class ProtoAdapter<E>(
   @Throws(IOException::class)
   fun decode(source: BufferedSource): E
 
+  /**
+   * Read a message from `reader`, decoding only the fields included in `mask`. Other fields are
+   * skipped without being decoded, and aren't retained as unknown fields.
+   */
+  @Throws(IOException::class)
+  fun decode(reader: ProtoReader, mask: TagMask): E
+
+  /** Read an encoded message from `bytes`, decoding only the fields included in `mask`. */
+  @Throws(IOException::class)
+  fun decode(bytes: ByteArray, mask: TagMask): E
+
+  /**
+   * Read an encoded message from `bytes`. Large `bytes` fields and unknown fields of the returned
+   * message share memory with the input instead of copying it, which is worthwhile when the input
+   * carries large blobs. Input that was itself read from a buffer, like a large byte string from
+   * [BufferedSource.readByteString], is shared without copying it at all; other input is copied
+   * into segments once.
+   */
+  @Throws(IOException::class)
+  fun decodeSharing(bytes: ByteString): E
+
+  /**
+   * Read an encoded message from `source`. Large `bytes` fields and unknown fields of the returned
+   * message share segments with the source's buffer instead of being copied out of it.
+   */
+  @Throws(IOException::class)
+  fun decodeSharing(source: BufferedSource): E
+
+  /**
+   * Read each of `encoded` as a message. One reader is reused for the whole batch, which saves the
+   * per-call setup of [decode] when the messages are small.
+   */
+  @Throws(IOException::class)
+  fun decodeAll(encoded: List<ByteString>): List<E>
+
+  /**
+   * Read one or more values of a repeated field from `reader` and add them to `destination`. If the
+   * value is packed this reads the entire packed run in a single call; otherwise this reads a
+   * single value.
+   */
+  @Throws(IOException::class)
+  fun decodeRepeated(reader: ProtoReader, destination: MutableList<E>)
+
+  /**
+   * Returns the values of repeated field `tag` of the message in `source`, decoding each one as the
+   * sequence is iterated. Other fields are skipped without being decoded, so memory is bounded by
+   * one value rather than by the whole message. This adapter must be the adapter of the field's
+   * values, not of the enclosing message.
+   *
+   * The returned sequence reads from `source` and can only be iterated once.
+   */
+  fun decodeRepeatedField(source: BufferedSource, tag: Int): Sequence<E>
+
   /** Returns a human-readable version of the given `value`. */
   open fun toString(value: E): String
 
@@ -234,6 +305,7 @@ internal inline fun <E> ProtoAdapter<E>.delegateEncode(
   writer: ReverseProtoWriter,
   value: E
 ) {
+  incrementForwardEncodedCount()
   writer.writeForward { forwardWriter ->
     encode(forwardWriter, value)
   }
@@ -272,9 +344,74 @@ internal inline fun <E> ProtoAdapter<E>.commonEncodeWithTag(
 
 @Suppress("NOTHING_TO_INLINE")
 internal inline fun <E> ProtoAdapter<E>.commonEncode(sink: BufferedSink, value: E) {
-  val writer = ReverseProtoWriter()
-  encode(writer, value)
-  writer.writeTo(sink)
+  // Reuse a writer and its buffers; allocating them dominates the cost of small messages.
+  val writer = takePooledReverseProtoWriter() ?: ReverseProtoWriter()
+  try {
+    encode(writer, value)
+    writer.writeTo(sink)
+  } finally {
+    releasePooledReverseProtoWriter(writer)
+  }
+}
+
+@Suppress("NOTHING_TO_INLINE")
+internal inline fun <E> ProtoAdapter<E>.commonEncode(
+  value: E,
+  destination: ByteArray,
+  offset: Int
+): Int {
+  val byteCount = encodedSize(value)
+  if (offset < 0 || offset > destination.size || destination.size - offset < byteCount) {
+    throw IndexOutOfBoundsException(
+      "cannot encode $byteCount bytes at offset $offset of an array of size ${destination.size}"
+    )
+  }
+  commonEncode(value, destination, offset, byteCount)
+  return byteCount
+}
+
+/**
+ * Encodes `value` into the [byteCount] bytes of [destination] that start at [offset]. The caller
+ * has already computed [byteCount] with `encodedSize(value)` and checked that it fits.
+ */
+internal fun <E> ProtoAdapter<E>.commonEncode(
+  value: E,
+  destination: ByteArray,
+  offset: Int,
+  byteCount: Int
+) {
+  // Writing backwards from the end of the range fills it exactly, without any intermediate buffer.
+  val writer = takePooledReverseProtoWriter() ?: ReverseProtoWriter()
+  try {
+    writer.beginWritingInto(destination, offset, byteCount)
+    encode(writer, value)
+    check(writer.byteCount == byteCount) {
+      "encoded ${writer.byteCount} bytes but encodedSize() returned $byteCount"
+    }
+  } finally {
+    releasePooledReverseProtoWriter(writer)
+  }
+}
+
+/** Encodes `values` in `[fromIndex..toIndex)` with a single writer. */
+internal fun <E> ProtoAdapter<E>.commonEncodeAll(
+  values: List<E>,
+  fromIndex: Int = 0,
+  toIndex: Int = values.size
+): List<ByteString> {
+  val result = ArrayList<ByteString>(toIndex - fromIndex)
+  val buffer = Buffer()
+  val writer = takePooledReverseProtoWriter() ?: ReverseProtoWriter()
+  try {
+    for (i in fromIndex until toIndex) {
+      encode(writer, values[i])
+      writer.writeTo(buffer)
+      result += buffer.readByteString()
+    }
+  } finally {
+    releasePooledReverseProtoWriter(writer)
+  }
+  return result
 }
 
 @Suppress("NOTHING_TO_INLINE")
@@ -293,12 +430,13 @@ internal inline fun <E> ProtoAdapter<E>.commonEncodeByteString(value: E): ByteSt
 
 @Suppress("NOTHING_TO_INLINE")
 internal inline fun <E> ProtoAdapter<E>.commonDecode(bytes: ByteArray): E {
-  return decode(Buffer().write(bytes))
+  return decode(ProtoReader(bytes))
 }
 
 @Suppress("NOTHING_TO_INLINE")
 internal inline fun <E> ProtoAdapter<E>.commonDecode(bytes: ByteString): E {
-  return decode(Buffer().write(bytes))
+  // ByteString doesn't expose its backing array so this copies once, like writing to a Buffer did.
+  return decode(ProtoReader(bytes.toByteArray()))
 }
 
 @Suppress("NOTHING_TO_INLINE")
@@ -306,6 +444,103 @@ internal inline fun <E> ProtoAdapter<E>.commonDecode(source: BufferedSource): E
   return decode(ProtoReader(source))
 }
 
+@Suppress("NOTHING_TO_INLINE")
+internal inline fun <E> ProtoAdapter<E>.commonDecode(reader: ProtoReader, mask: TagMask): E {
+  reader.applyMaskToNextMessage(mask)
+  return decode(reader)
+}
+
+@Suppress("NOTHING_TO_INLINE")
+internal inline fun <E> ProtoAdapter<E>.commonDecodeSharing(bytes: ByteString): E {
+  return decode(ProtoReader.sharing(Buffer().write(bytes)))
+}
+
+@Suppress("NOTHING_TO_INLINE")
+internal inline fun <E> ProtoAdapter<E>.commonDecodeSharing(source: BufferedSource): E {
+  return decode(ProtoReader.sharing(source))
+}
+
+internal fun <E> ProtoAdapter<E>.commonDecodeRepeatedField(
+  source: BufferedSource,
+  tag: Int
+): Sequence<E> {
+  return sequence {
+    val reader = ProtoReader(source)
+    val token = reader.beginMessage()
+    while (true) {
+      val nextTag = reader.nextTag()
+      if (nextTag == -1) break
+      if (nextTag != tag) {
+        reader.skip()
+        continue
+      }
+      if (fieldEncoding != LENGTH_DELIMITED && reader.packedByteCount() != -1L) {
+        // Yield each value of a packed run as it's read.
+        if (reader.packedByteCount() == 0L) {
+          reader.skip()
+          continue
+        }
+        do {
+          yield(decode(reader))
+        } while (reader.nextPackedValue())
+      } else {
+        yield(decode(reader))
+      }
+    }
+    reader.endMessageAndGetUnknownFields(token)
+  }.constrainOnce()
+}
+
+/** Decodes `encoded` in `[fromIndex..toIndex)` with a single reader. */
+@Throws(IOException::class)
+internal fun <E> ProtoAdapter<E>.commonDecodeAll(
+  encoded: List<ByteString>,
+  fromIndex: Int = 0,
+  toIndex: Int = encoded.size
+): List<E> {
+  val result = ArrayList<E>(toIndex - fromIndex)
+  // Decoded values copy what they keep from the input, so one array can hold each message in turn.
+  var array = ByteArray(0)
+  val reader = ProtoReader(array)
+  for (i in fromIndex until toIndex) {
+    val bytes = encoded[i]
+    if (bytes.size > array.size) array = ByteArray(maxOf(bytes.size, array.size * 2))
+    bytes.copyInto(0, array, 0, bytes.size)
+    reader.reset(array, 0, bytes.size)
+    result += decode(reader)
+  }
+  return result
+}
+
+internal fun <E> ProtoAdapter<E>.commonDecodeRepeated(
+  reader: ProtoReader,
+  destination: MutableList<E>
+) {
+  val packedByteCount = if (fieldEncoding != LENGTH_DELIMITED) reader.packedByteCount() else -1L
+  if (packedByteCount == -1L) {
+    destination.add(decode(reader))
+    return
+  }
+  if (packedByteCount == 0L) {
+    reader.skip() // An empty packed run.
+    return
+  }
+
+  // Fixed-width values let us size the destination exactly from the length prefix.
+  val fixedByteCount = when (fieldEncoding) {
+    FieldEncoding.FIXED32 -> FIXED_32_SIZE
+    FieldEncoding.FIXED64 -> FIXED_64_SIZE
+    else -> 0
+  }
+  if (fixedByteCount != 0) {
+    destination.ensureCapacity(destination.size + (packedByteCount / fixedByteCount).toInt())
+  }
+
+  do {
+    destination.add(decode(reader))
+  } while (reader.nextPackedValue())
+}
+
 @Suppress("NOTHING_TO_INLINE")
 internal inline fun <E> commonToString(value: E): String = value.toString()
 
@@ -375,7 +610,11 @@ internal class PackedProtoAdapter<E>(
   }
 
   @Throws(IOException::class)
-  override fun decode(reader: ProtoReader): List<E> = listOf(originalAdapter.decode(reader))
+  override fun decode(reader: ProtoReader): List<E> {
+    val result = mutableListOf<E>()
+    originalAdapter.decodeRepeated(reader, result)
+    return result
+  }
 
   override fun redact(value: List<E>): List<E> = emptyList()
 }
@@ -488,6 +727,16 @@ internal class MapProtoAdapter<K, V> internal constructor(
 
   @Throws(IOException::class)
   override fun decode(reader: ProtoReader): Map<K, V> {
+    return decodeEntry(reader) { key, value -> mapOf(key to value) }
+  }
+
+  /** Decodes a single entry and puts it in [destination], without allocating a map for it. */
+  @Throws(IOException::class)
+  internal fun decodeEntry(reader: ProtoReader, destination: MutableMap<K, V>) {
+    decodeEntry(reader) { key, value -> destination[key] = value }
+  }
+
+  private inline fun <R> decodeEntry(reader: ProtoReader, block: (key: K, value: V) -> R): R {
     var key: K? = null
     var value: V? = null
 
@@ -505,7 +754,7 @@ internal class MapProtoAdapter<K, V> internal constructor(
 
     check(key != null) { "Map entry with null key" }
     check(value != null) { "Map entry with null value" }
-    return mapOf(key to value)
+    return block(key, value)
   }
 
   override fun redact(value: Map<K, V>): Map<K, V> = emptyMap()
@@ -36,10 +36,12 @@ package com.squareup.wire
 import com.squareup.wire.internal.ProtocolException
 import com.squareup.wire.internal.Throws
 import com.squareup.wire.internal.and
+import com.squareup.wire.internal.readDelimitedLength
 import com.squareup.wire.internal.shl
 import okio.Buffer
 import okio.BufferedSource
 import okio.ByteString
+import okio.ByteString.Companion.toByteString
 import okio.EOFException
 import okio.IOException
 import kotlin.jvm.JvmName
@@ -48,7 +50,18 @@ import kotlin.jvm.JvmName
  * Reads and decodes protocol message fields.
  */
 class ProtoReader(private val source: BufferedSource) {
-  /** The current position in the input source, starting at 0 and increasing monotonically. */
+  /**
+   * When non-null, this reader decodes directly from this array instead of [source], which is then
+   * unused. This avoids copying input that is already in memory and lets us read scalars with plain
+   * array indexing.
+   */
+  private var array: ByteArray? = null
+  /** The index after the last readable byte of [array]. */
+  private var arrayLimit = 0
+  /**
+   * The current position in the input source, starting at 0 and increasing monotonically. When
+   * reading from [array] this is the index of the next byte to read.
+   */
   private var pos: Long = 0
   /** The absolute position of the end of the current message. */
   private var limit = Long.MAX_VALUE
@@ -64,6 +77,61 @@ class ProtoReader(private val source: BufferedSource) {
   private var nextFieldEncoding: FieldEncoding? = null
   /** Pooled buffers for unknown fields, indexed by [recursionDepth]. */
   private val bufferStack = mutableListOf<Buffer>()
+  /** Reads multi-byte varints directly from the segments of [source]'s buffer. */
+  private val cursor = Buffer.UnsafeCursor()
+  /**
+   * False to skip unknown fields without decoding or buffering them, in which case
+   * [endMessageAndGetUnknownFields] always returns an empty byte string. Use this when decoded
+   * messages don't need to be re-encoded with fields that this code doesn't know about. This may
+   * only be changed between top-level messages.
+   */
+  var retainUnknownFields = true
+    set(value) {
+      check(recursionDepth == 0) { "retainUnknownFields must not change within a message" }
+      field = value
+    }
+  /**
+   * True if large `bytes` values should share the segments of [source]'s buffer rather than be
+   * copied out of it. Unknown fields are stored as `bytes` values so they share too.
+   */
+  private var shareBytes = false
+  /** The fields to decode from the current message, or null to decode all of them. */
+  private var mask: TagMask? = null
+  /** The mask to apply to the message that starts with the next call to [beginMessage]. */
+  private var nextMask: TagMask? = null
+  /**
+   * The masks of enclosing messages, indexed by [recursionDepth]. This is only allocated once a
+   * mask has been applied, so reading without one doesn't track masks.
+   */
+  private var maskStack: Array<TagMask?>? = null
+
+  /** Reads `byteCount` bytes of `array` starting at `offset`. */
+  internal constructor(array: ByteArray, offset: Int = 0, byteCount: Int = array.size) :
+      this(Buffer()) {
+    reset(array, offset, byteCount)
+  }
+
+  /**
+   * Makes this reader read `byteCount` bytes of `array` starting at `offset`, discarding any state
+   * from earlier reads. This lets one reader decode many messages without allocating.
+   */
+  internal fun reset(array: ByteArray, offset: Int, byteCount: Int) {
+    require(offset >= 0 && byteCount >= 0 && offset + byteCount <= array.size) {
+      "offset=$offset byteCount=$byteCount size=${array.size}"
+    }
+    this.array = array
+    this.arrayLimit = offset + byteCount
+    this.pos = offset.toLong()
+    this.limit = arrayLimit.toLong()
+    recursionDepth = 0
+    state = STATE_LENGTH_DELIMITED
+    tag = -1
+    pushedLimit = -1
+    nextFieldEncoding = null
+    mask = null
+    nextMask = null
+    for (buffer in bufferStack) buffer.clear()
+  }
 
   /**
    * Begin a nested message. A call to this method will restrict the reader so that [nextTag]
@@ -77,12 +145,18 @@ class ProtoReader(private val source: BufferedSource) {
       throw IOException("Wire recursion limit exceeded")
     }
     // Allocate a buffer to store unknown fields encountered at this recursion level.
-    if (recursionDepth > bufferStack.size) bufferStack += Buffer()
+    if (retainUnknownFields && recursionDepth > bufferStack.size) bufferStack += Buffer()
     // Give the pushed limit to the caller to hold. The value is returned in endMessage() where we
     // resume using it as our limit.
     val token = pushedLimit
     pushedLimit = -1L
     state = STATE_TAG
+    val maskStack = maskStack
+    if (maskStack != null) {
+      maskStack[recursionDepth - 1] = mask
+      mask = nextMask
+      nextMask = null
+    }
     return token
   }
 
@@ -100,6 +174,9 @@ class ProtoReader(private val source: BufferedSource) {
       throw IOException("Expected to end at $limit but was $pos")
     }
     limit = token
+    val maskStack = maskStack
+    if (maskStack != null) mask = maskStack[recursionDepth]
+    if (!retainUnknownFields) return ByteString.EMPTY
     val unknownFieldsBuffer = bufferStack[recursionDepth]
     return if (unknownFieldsBuffer.size > 0L) {
       unknownFieldsBuffer.readByteString()
@@ -138,12 +215,23 @@ class ProtoReader(private val source: BufferedSource) {
       throw IllegalStateException("Unexpected call to nextTag()")
     }
 
-    loop@ while (pos < limit && !source.exhausted()) {
+    loop@ while (pos < limit && !exhausted()) {
       val tagAndFieldEncoding = internalReadVarint32()
       if (tagAndFieldEncoding == 0) throw ProtocolException("Unexpected tag 0")
 
       tag = tagAndFieldEncoding shr TAG_FIELD_ENCODING_BITS
-      when (val groupOrFieldEncoding = tagAndFieldEncoding and FIELD_ENCODING_MASK) {
+      val groupOrFieldEncoding = tagAndFieldEncoding and FIELD_ENCODING_MASK
+      var childMask: TagMask? = null
+      val mask = mask
+      if (mask != null) {
+        val index = mask.indexOf(tag)
+        if (index == -1) {
+          skipField(tag, groupOrFieldEncoding)
+          continue@loop
+        }
+        childMask = mask.child(index)
+      }
+      when (groupOrFieldEncoding) {
         STATE_START_GROUP -> {
           skipGroup(tag)
           continue@loop
@@ -161,6 +249,7 @@ class ProtoReader(private val source: BufferedSource) {
           pushedLimit = limit
           limit = pos + length
           if (limit > pushedLimit) throw EOFException()
+          nextMask = childMask
           return tag
         }
 
@@ -202,7 +291,7 @@ class ProtoReader(private val source: BufferedSource) {
     when (state) {
       STATE_LENGTH_DELIMITED -> {
         val byteCount = beforeLengthDelimitedScalar()
-        source.skip(byteCount)
+        if (array == null) source.skip(byteCount)
       }
       STATE_VARINT -> readVarint64()
       STATE_FIXED64 -> readFixed64()
@@ -213,37 +302,48 @@ class ProtoReader(private val source: BufferedSource) {
 
   /** Skips a section of the input delimited by START_GROUP/END_GROUP type markers. */
   private fun skipGroup(expectedEndTag: Int) {
-    while (pos < limit && !source.exhausted()) {
+    while (pos < limit && !exhausted()) {
       val tagAndFieldEncoding = internalReadVarint32()
       if (tagAndFieldEncoding == 0) throw ProtocolException("Unexpected tag 0")
       val tag = tagAndFieldEncoding shr TAG_FIELD_ENCODING_BITS
-      when (val groupOrFieldEncoding = tagAndFieldEncoding and FIELD_ENCODING_MASK) {
-        STATE_START_GROUP -> skipGroup(tag) // Nested group.
-        STATE_END_GROUP -> {
-          if (tag == expectedEndTag) return  // Success!
-          throw ProtocolException("Unexpected end group")
-        }
-        STATE_LENGTH_DELIMITED -> {
-          val length = internalReadVarint32()
-          pos += length.toLong()
+      val groupOrFieldEncoding = tagAndFieldEncoding and FIELD_ENCODING_MASK
+      if (groupOrFieldEncoding == STATE_END_GROUP) {
+        if (tag == expectedEndTag) return  // Success!
+        throw ProtocolException("Unexpected end group")
+      }
+      skipField(tag, groupOrFieldEncoding)
+    }
+    throw EOFException()
+  }
+
+  /** Skips the value of a field whose tag has just been read. */
+  private fun skipField(tag: Int, groupOrFieldEncoding: Int) {
+    when (groupOrFieldEncoding) {
+      STATE_START_GROUP -> skipGroup(tag) // Nested group.
+      STATE_END_GROUP -> throw ProtocolException("Unexpected end group")
+      STATE_LENGTH_DELIMITED -> {
+        val length = internalReadVarint32()
+        pos += length.toLong()
+        if (array == null) {
           source.skip(length.toLong())
+        } else if (length < 0 || pos > arrayLimit) {
+          throw EOFException()
         }
-        STATE_VARINT -> {
-          state = STATE_VARINT
-          readVarint64()
-        }
-        STATE_FIXED64 -> {
-          state = STATE_FIXED64
-          readFixed64()
-        }
-        STATE_FIXED32 -> {
-          state = STATE_FIXED32
-          readFixed32()
-        }
-        else -> throw ProtocolException("Unexpected field encoding: $groupOrFieldEncoding")
       }
+      STATE_VARINT -> {
+        state = STATE_VARINT
+        readVarint64()
+      }
+      STATE_FIXED64 -> {
+        state = STATE_FIXED64
+        readFixed64()
+      }
+      STATE_FIXED32 -> {
+        state = STATE_FIXED32
+        readFixed32()
+      }
+      else -> throw ProtocolException("Unexpected field encoding: $groupOrFieldEncoding")
     }
-    throw EOFException()
   }
 
   /**
@@ -253,7 +353,18 @@ class ProtoReader(private val source: BufferedSource) {
   @Throws(IOException::class)
   fun readBytes(): ByteString {
     val byteCount = beforeLengthDelimitedScalar()
+    val array = array
+    if (array != null) {
+      return array.toByteString((pos - byteCount).toInt(), byteCount.toInt())
+    }
     source.require(byteCount) // Throws EOFException if insufficient bytes are available.
+    if (shareBytes && byteCount >= SHARE_MINIMUM) {
+      // Snapshots share segments with the buffer, and okio won't write to a shared segment.
+      val buffer = source.buffer
+      val result = buffer.snapshot(byteCount.toInt())
+      buffer.skip(byteCount)
+      return result
+    }
     return source.readByteString(byteCount)
   }
 
@@ -261,6 +372,10 @@ class ProtoReader(private val source: BufferedSource) {
   @Throws(IOException::class)
   fun readString(): String {
     val byteCount = beforeLengthDelimitedScalar()
+    val array = array
+    if (array != null) {
+      return array.decodeToString((pos - byteCount).toInt(), pos.toInt())
+    }
     source.require(byteCount) // Throws EOFException if insufficient bytes are available.
     return source.readUtf8(byteCount)
   }
@@ -279,53 +394,18 @@ class ProtoReader(private val source: BufferedSource) {
   }
 
   private fun internalReadVarint32(): Int {
-    source.require(1) // Throws EOFException if insufficient bytes are available.
-    pos++
-    var tmp = source.readByte()
-    if (tmp >= 0) {
-      return tmp.toInt()
-    }
-    var result = tmp and 0x7f
-    source.require(1) // Throws EOFException if insufficient bytes are available.
-    pos++
-    tmp = source.readByte()
-    if (tmp >= 0) {
-      result = result or (tmp shl 7)
-    } else {
-      result = result or (tmp and 0x7f shl 7)
-      source.require(1) // Throws EOFException if insufficient bytes are available.
-      pos++
-      tmp = source.readByte()
-      if (tmp >= 0) {
-        result = result or (tmp shl 14)
-      } else {
-        result = result or (tmp and 0x7f shl 14)
-        source.require(1) // Throws EOFException if insufficient bytes are available.
+    val array = array
+    if (array != null) {
+      // Fast path for single-byte varints, which includes most tags.
+      val i = pos.toInt()
+      if (i < arrayLimit && array[i] >= 0) {
         pos++
-        tmp = source.readByte()
-        if (tmp >= 0) {
-          result = result or (tmp shl 21)
-        } else {
-          result = result or (tmp and 0x7f shl 21)
-          source.require(1) // Throws EOFException if insufficient bytes are available.
-          pos++
-          tmp = source.readByte()
-          result = result or (tmp shl 28)
-          if (tmp < 0) {
-            // Discard upper 32 bits.
-            for (i in 0..4) {
-              source.require(1) // Throws EOFException if insufficient bytes are available.
-              pos++
-              if (source.readByte() >= 0) {
-                return result
-              }
-            }
-            throw ProtocolException("Malformed VARINT")
-          }
-        }
+        return array[i].toInt()
       }
+      return arrayReadVarint64(array).toInt()
     }
-    return result
+
+    return streamReadVarint64().toInt()
   }
 
   /** Reads a raw varint up to 64 bits in length from the stream.  */
@@ -334,15 +414,91 @@ class ProtoReader(private val source: BufferedSource) {
     if (state != STATE_VARINT && state != STATE_LENGTH_DELIMITED) {
       throw ProtocolException("Expected VARINT or LENGTH_DELIMITED but was $state")
     }
-    var shift = 0
-    var result: Long = 0
+    val array = array
+    if (array != null) {
+      val result = arrayReadVarint64(array)
+      afterPackableScalar(STATE_VARINT)
+      return result
+    }
+    val result = streamReadVarint64()
+    afterPackableScalar(STATE_VARINT)
+    return result
+  }
+
+  /**
+   * Reads a varint of up to 64 bits from [source]. Varints that are entirely within the first
+   * segment of the source's buffer are decoded directly from that segment's array, which saves a
+   * `require()` and `readByte()` call per byte. Varints that span segments are read byte by byte.
+   */
+  private fun streamReadVarint64(): Long {
+    source.require(1) // Throws EOFException if insufficient bytes are available.
+    val buffer = source.buffer
+    val first = buffer.readByte()
+    pos++
+    if (first >= 0) return first.toLong() // Single-byte varints, which includes most tags.
+
+    val cursor = cursor
+    var result = first.toLong() and 0x7fL
+    var byteCount = 0
+    if (buffer.size > 0L) {
+      buffer.readUnsafe(cursor)
+      try {
+        cursor.seek(0L)
+        val data = cursor.data!!
+        val start = cursor.start
+        val end = minOf(cursor.end, start + MAX_VARINT_SIZE - 1)
+        var shift = 7
+        var i = start
+        while (i < end) {
+          val b = data[i++]
+          result = result or ((b and 0x7f).toLong() shl shift)
+          if (b >= 0) {
+            byteCount = i - start
+            break
+          }
+          shift += 7
+        }
+      } finally {
+        cursor.close()
+      }
+    }
+    if (byteCount != 0) {
+      buffer.skip(byteCount.toLong())
+      pos += byteCount
+      return result
+    }
+
+    // The varint continues past the first segment. Read it a byte at a time.
+    result = first.toLong() and 0x7fL
+    var shift = 7
     while (shift < 64) {
       source.require(1) // Throws EOFException if insufficient bytes are available.
       pos++
-      val b = source.readByte()
+      val b = buffer.readByte()
       result = result or ((b and 0x7F).toLong() shl shift)
       if (b and 0x80 == 0) {
-        afterPackableScalar(STATE_VARINT)
+        return result
+      }
+      shift += 7
+    }
+    throw ProtocolException("WireInput encountered a malformed varint")
+  }
+
+  /**
+   * Reads a varint of up to 64 bits from [array]. Bytes are only bounds checked when a
+   * maximum-length varint could run past the end of the input.
+   */
+  private fun arrayReadVarint64(array: ByteArray): Long {
+    var i = pos.toInt()
+    val checked = arrayLimit - i < MAX_VARINT_SIZE
+    var shift = 0
+    var result: Long = 0
+    while (shift < 64) {
+      if (checked && i >= arrayLimit) throw EOFException()
+      val b = array[i++]
+      result = result or ((b and 0x7F).toLong() shl shift)
+      if (b >= 0) {
+        pos = i.toLong()
         return result
       }
       shift += 7
@@ -356,9 +512,21 @@ class ProtoReader(private val source: BufferedSource) {
     if (state != STATE_FIXED32 && state != STATE_LENGTH_DELIMITED) {
       throw ProtocolException("Expected FIXED32 or LENGTH_DELIMITED but was $state")
     }
-    source.require(4) // Throws EOFException if insufficient bytes are available.
-    pos += 4
-    val result = source.readIntLe()
+    val array = array
+    val result: Int
+    if (array != null) {
+      val i = pos.toInt()
+      if (arrayLimit - i < 4) throw EOFException()
+      result = (array[i] and 0xff) or
+          (array[i + 1] and 0xff shl 8) or
+          (array[i + 2] and 0xff shl 16) or
+          (array[i + 3] and 0xff shl 24)
+      pos += 4
+    } else {
+      source.require(4) // Throws EOFException if insufficient bytes are available.
+      pos += 4
+      result = source.readIntLe()
+    }
     afterPackableScalar(STATE_FIXED32)
     return result
   }
@@ -369,9 +537,25 @@ class ProtoReader(private val source: BufferedSource) {
     if (state != STATE_FIXED64 && state != STATE_LENGTH_DELIMITED) {
       throw ProtocolException("Expected FIXED64 or LENGTH_DELIMITED but was $state")
     }
-    source.require(8) // Throws EOFException if insufficient bytes are available.
-    pos += 8
-    val result = source.readLongLe()
+    val array = array
+    val result: Long
+    if (array != null) {
+      val i = pos.toInt()
+      if (arrayLimit - i < 8) throw EOFException()
+      result = (array[i].toLong() and 0xffL) or
+          (array[i + 1].toLong() and 0xffL shl 8) or
+          (array[i + 2].toLong() and 0xffL shl 16) or
+          (array[i + 3].toLong() and 0xffL shl 24) or
+          (array[i + 4].toLong() and 0xffL shl 32) or
+          (array[i + 5].toLong() and 0xffL shl 40) or
+          (array[i + 6].toLong() and 0xffL shl 48) or
+          (array[i + 7].toLong() and 0xffL shl 56)
+      pos += 8
+    } else {
+      source.require(8) // Throws EOFException if insufficient bytes are available.
+      pos += 8
+      result = source.readLongLe()
+    }
     afterPackableScalar(STATE_FIXED64)
     return result
   }
@@ -400,7 +584,6 @@ class ProtoReader(private val source: BufferedSource) {
       throw ProtocolException("Expected LENGTH_DELIMITED but was $state")
     }
     val byteCount = limit - pos
-    source.require(byteCount) // Throws EOFException if insufficient bytes are available.
     state = STATE_TAG
     // We've completed a length-delimited scalar. Pop the limit.
     pos = limit
@@ -409,6 +592,80 @@ class ProtoReader(private val source: BufferedSource) {
     return byteCount
   }
 
+  /**
+   * Returns the number of bytes remaining in the packed run that the next value will be read from,
+   * or -1 if the next value isn't packed.
+   */
+  internal fun packedByteCount(): Long {
+    return if (state == STATE_LENGTH_DELIMITED) limit - pos else -1L
+  }
+
+  /**
+   * Prepares to read the next value of the current packed run without going through [nextTag].
+   * Returns false if the run is complete.
+   */
+  internal fun nextPackedValue(): Boolean {
+    if (state != STATE_PACKED_TAG) return false
+    state = STATE_LENGTH_DELIMITED
+    return true
+  }
+
+  /**
+   * Decodes only the fields of [mask] from the message that starts with the next call to
+   * [beginMessage]. Masks of nested messages apply as those messages are read, and the enclosing
+   * message's mask is restored when the message ends.
+   */
+  internal fun applyMaskToNextMessage(mask: TagMask) {
+    if (maskStack == null) maskStack = arrayOfNulls(RECURSION_LIMIT)
+    nextMask = mask
+  }
+
+  /**
+   * Reads the length prefix of the next top-level message in a stream of varint length-prefixed
+   * messages, and limits the next call to [beginMessage] to that many bytes. Call [skip] instead to
+   * skip the message. Returns the message's length, or -1 if the input is exhausted.
+   *
+   * The whole message is buffered so that input that ends partway through it fails here with an
+   * [EOFException], rather than decoding as a shorter message.
+   */
+  internal fun nextDelimitedMessage(maxMessageSize: Int): Long {
+    check(recursionDepth == 0 && pushedLimit == -1L) { "Unexpected call to nextDelimitedMessage()" }
+    if (exhausted()) return -1L
+    val length = readDelimitedLength(maxMessageSize) {
+      val array = array
+      when {
+        exhausted() -> -1
+        array != null -> array[(pos++).toInt()] and 0xff
+        else -> {
+          pos++
+          source.readByte() and 0xff
+        }
+      }
+    }
+    if (length == -1) throw EOFException("input ended partway through a length prefix")
+    if (array == null) {
+      source.require(length.toLong()) // Throws EOFException if insufficient bytes are available.
+    } else if (pos + length > arrayLimit) {
+      throw EOFException()
+    }
+    state = STATE_LENGTH_DELIMITED
+    pushedLimit = limit
+    limit = pos + length
+    return length.toLong()
+  }
+
+  /**
+   * The number of bytes consumed so far. When reading from an array this is the index of the next
+   * byte to read.
+   */
+  internal val position: Long
+    get() = pos
+
+  /** Returns true if there are no more bytes in the input. */
+  private fun exhausted(): Boolean {
+    return if (array != null) pos >= arrayLimit else source.exhausted()
+  }
+
   /** Reads each tag, handles it, and returns a byte string with the unknown fields. */
   @JvmName("-forEachTag") // hide from Java
   inline fun forEachTag(tagHandler: (Int) -> Any): ByteString {
@@ -426,6 +683,10 @@ class ProtoReader(private val source: BufferedSource) {
    * [endMessageAndGetUnknownFields] to retrieve unknown fields.
    */
   fun readUnknownField(tag: Int) {
+    if (!retainUnknownFields) {
+      skip()
+      return
+    }
     val fieldEncoding = peekFieldEncoding()
     val protoAdapter = fieldEncoding!!.rawProtoAdapter()
     val value = protoAdapter.decode(this)
@@ -441,6 +702,7 @@ class ProtoReader(private val source: BufferedSource) {
     fieldEncoding: FieldEncoding,
     value: Any?
   ) {
+    if (!retainUnknownFields) return
     val unknownFieldsWriter = ProtoWriter(bufferStack[recursionDepth - 1])
     val protoAdapter = fieldEncoding.rawProtoAdapter()
     @Suppress("UNCHECKED_CAST") // We encode and decode the same types.
@@ -448,8 +710,21 @@ class ProtoReader(private val source: BufferedSource) {
   }
 
   companion object {
+    /** Returns a reader of [source] whose large `bytes` values share its buffer's memory. */
+    internal fun sharing(source: BufferedSource): ProtoReader =
+      ProtoReader(source).also { it.shareBytes = true }
+
     /** The standard number of levels of message nesting to allow. */
-    private const val RECURSION_LIMIT = 65
+    internal const val RECURSION_LIMIT = 65
+
+    /** The maximum number of bytes in an encoded varint. */
+    private const val MAX_VARINT_SIZE = 10
+
+    /**
+     * The smallest `bytes` value to share rather than copy. Smaller values are cheaper to copy than
+     * to track as segments, and sharing them would keep whole segments reachable.
+     */
+    private const val SHARE_MINIMUM = 1024L
 
     private const val FIELD_ENCODING_MASK = 0x7
     internal const val TAG_FIELD_ENCODING_BITS = 3
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2021 Square Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.wire
+
+import com.squareup.wire.internal.ProtocolException
+import com.squareup.wire.internal.Throws
+import okio.IOException
+
+/**
+ * Walks the fields of an encoded message without a schema or an adapter. Each call to [next]
+ * advances to the next field and reports its [tag], its [fieldEncoding], and the span of `bytes`
+ * that holds its value. Values are skipped rather than decoded, and spans are offsets into `bytes`
+ * rather than copies.
+ *
+ * Use [enter] to walk the fields of a length-delimited value that holds a nested message:
+ *
+ * ```
+ * val scanner = ProtoScanner(bytes)
+ * while (scanner.next()) {
+ *   if (scanner.tag == 4) {
+ *     val nested = scanner.enter()
+ *     ...
+ *   }
+ * }
+ * ```
+ *
+ * Groups are skipped and not reported.
+ */
+class ProtoScanner private constructor(
+  private val bytes: ByteArray,
+  offset: Int,
+  byteCount: Int,
+  /** The number of messages that enclose this one. */
+  private val depth: Int
+) {
+  private val reader = ProtoReader(bytes, offset, byteCount)
+
+  /** Scans the message in the `byteCount` bytes of `bytes` that start at `offset`. */
+  constructor(bytes: ByteArray, offset: Int = 0, byteCount: Int = bytes.size - offset) :
+      this(bytes, offset, byteCount, 0)
+
+  init {
+    reader.beginMessage()
+  }
+
+  /** The tag of the current field, or -1 if [next] hasn't returned true. */
+  var tag: Int = -1
+    private set
+
+  /** The encoding of the current field, or null if [next] hasn't returned true. */
+  var fieldEncoding: FieldEncoding? = null
+    private set
+
+  /**
+   * The offset in `bytes` of the current field's value. For length-delimited fields this is the
+   * first byte after the length prefix.
+   */
+  var valueOffset: Int = -1
+    private set
+
+  /** The number of bytes of the current field's value. */
+  var valueByteCount: Int = 0
+    private set
+
+  /** Advances to the next field. Returns false if the message has no further fields. */
+  @Throws(IOException::class)
+  fun next(): Boolean {
+    val tag = reader.nextTag()
+    if (tag == -1) {
+      this.tag = -1
+      fieldEncoding = null
+      valueOffset = -1
+      valueByteCount = 0
+      return false
+    }
+    this.tag = tag
+    fieldEncoding = reader.peekFieldEncoding()
+    val valueStart = reader.position.toInt()
+    reader.skip()
+    valueOffset = valueStart
+    valueByteCount = reader.position.toInt() - valueStart
+    return true
+  }
+
+  /** Returns a scanner over the fields of the current length-delimited value. */
+  @Throws(IOException::class)
+  fun enter(): ProtoScanner {
+    check(fieldEncoding == FieldEncoding.LENGTH_DELIMITED) {
+      "expected LENGTH_DELIMITED but was $fieldEncoding"
+    }
+    if (depth + 1 >= ProtoReader.RECURSION_LIMIT) {
+      throw IOException("Wire recursion limit exceeded")
+    }
+    return ProtoScanner(bytes, valueOffset, valueByteCount, depth + 1)
+  }
+
+  /** Returns the current `VARINT` value. */
+  fun varintValue(): Long {
+    check(fieldEncoding == FieldEncoding.VARINT) { "expected VARINT but was $fieldEncoding" }
+    var result = 0L
+    for (i in 0 until valueByteCount) {
+      result = result or ((bytes[valueOffset + i].toLong() and 0x7fL) shl (7 * i))
+    }
+    return result
+  }
+
+  /** Returns the current `FIXED32` value. */
+  fun fixed32Value(): Int {
+    check(fieldEncoding == FieldEncoding.FIXED32) { "expected FIXED32 but was $fieldEncoding" }
+    return littleEndian(4).toInt()
+  }
+
+  /** Returns the current `FIXED64` value. */
+  fun fixed64Value(): Long {
+    check(fieldEncoding == FieldEncoding.FIXED64) { "expected FIXED64 but was $fieldEncoding" }
+    return littleEndian(8)
+  }
+
+  /**
+   * Visits each field of this message with [visitor], and the fields of nested messages that it
+   * asks for. Those values are scanned as messages; if one isn't, this may throw a
+   * [ProtocolException] or visit meaningless fields.
+   */
+  @Throws(IOException::class)
+  fun accept(visitor: Visitor) {
+    while (next()) {
+      if (visitor.visitField(this) && fieldEncoding == FieldEncoding.LENGTH_DELIMITED) {
+        visitor.enterMessage(this)
+        enter().accept(visitor)
+        visitor.exitMessage(this)
+      }
+    }
+  }
+
+  private fun littleEndian(byteCount: Int): Long {
+    var result = 0L
+    for (i in 0 until byteCount) {
+      result = result or ((bytes[valueOffset + i].toLong() and 0xffL) shl (8 * i))
+    }
+    return result
+  }
+
+  /** Receives the fields of an encoded message from [accept]. */
+  interface Visitor {
+    /**
+     * Visits the current field of [scanner]. Return true to also visit the fields of its value,
+     * which must be a length-delimited nested message.
+     */
+    fun visitField(scanner: ProtoScanner): Boolean
+
+    /** Called before the fields of the nested message in the current field of [scanner]. */
+    fun enterMessage(scanner: ProtoScanner) {
+    }
+
+    /** Called after the fields of the nested message in the current field of [scanner]. */
+    fun exitMessage(scanner: ProtoScanner) {
+    }
+  }
+}
@@ -18,11 +18,12 @@ package com.squareup.wire
 import com.squareup.wire.ProtoWriter.Companion.varint32Size
 import com.squareup.wire.ProtoWriter.Companion.varint64Size
 import com.squareup.wire.internal.Throws
+import com.squareup.wire.internal.getForwardEncodedCount
 import okio.Buffer
 import okio.BufferedSink
 import okio.ByteString
 import okio.IOException
-import kotlin.LazyThreadSafetyMode.NONE
+import kotlin.jvm.JvmStatic
 
 /**
  * Encodes protocol buffer message fields from back-to-front for efficiency. Callers should write
@@ -32,6 +33,9 @@ import kotlin.LazyThreadSafetyMode.NONE
  * computed in constant time. Get the length of a message by subtracting the [byteCount] before
  * writing it from [byteCount] after writing it.
  *
+ * A writer is empty again after [writeTo], so it can be reused to encode many messages. Code that
+ * encodes in a loop can hold one writer and reuse it rather than allocating a writer per message.
+ *
  * Utilities for encoding and writing protocol message fields.
  */
 class ReverseProtoWriter {
@@ -57,33 +61,78 @@ class ReverseProtoWriter {
   private var array: ByteArray = EMPTY_ARRAY
   private var arrayLimit: Int = 0
 
+  // The writable range of 'array' is [arrayStart..arrayEnd). These are only nonzero and
+  // array.size when writing directly into a caller's array.
+  private var arrayStart: Int = 0
+  private var arrayEnd: Int = 0
+
+  /** True if 'array' is a caller's array that must be filled exactly, rather than a segment. */
+  private var writingIntoArray = false
+
   // These are cached and reused for all forward-encoded messages inside a reverse-encoded message.
-  private val forwardBuffer: Buffer by lazy(mode = NONE) { Buffer() }
-  private val forwardWriter: ProtoWriter by lazy(mode = NONE) { ProtoWriter(forwardBuffer) }
+  // Large forward-encoded messages are moved into 'tail' by swapping buffers, which replaces both.
+  private var forwardBuffer: Buffer? = null
+  private var forwardWriter: ProtoWriter? = null
 
   /** The total number of bytes emitted thus far. */
   val byteCount: Int
-    get() = tail.size.toInt() + (array.size - arrayLimit)
+    get() = tail.size.toInt() + (arrayEnd - arrayLimit)
 
+  /** Writes everything written so far to [sink], leaving this writer empty. */
   @Throws(IOException::class)
   fun writeTo(sink: BufferedSink) {
     emitCurrentSegment()
     sink.writeAll(tail)
   }
 
+  /**
+   * Discards everything written so far, leaving this writer empty. Use this to reuse a writer after
+   * abandoning a message partway through; it's not necessary after [writeTo].
+   */
+  fun reset() {
+    if (writingIntoArray) {
+      writingIntoArray = false
+      arrayStart = 0
+    } else if (array !== EMPTY_ARRAY) {
+      cursor.close()
+    }
+    array = EMPTY_ARRAY
+    arrayLimit = 0
+    arrayEnd = 0
+    head.clear()
+    tail.clear()
+    forwardBuffer?.clear()
+  }
+
+  /**
+   * Makes this empty writer write directly into [array], filling the [byteCount] bytes that start
+   * at [offset]. The caller must write exactly [byteCount] bytes and then call [reset].
+   */
+  internal fun beginWritingInto(array: ByteArray, offset: Int, byteCount: Int) {
+    check(this.array === EMPTY_ARRAY && tail.size == 0L) { "writer is not empty" }
+    this.array = array
+    arrayStart = offset
+    arrayEnd = offset + byteCount
+    arrayLimit = arrayEnd
+    writingIntoArray = true
+  }
+
   private fun require(minByteCount: Int) {
-    if (arrayLimit >= minByteCount) return
+    if (arrayLimit - arrayStart >= minByteCount) return
+    check(!writingIntoArray) { "encoded message is larger than its encodedSize()" }
     emitCurrentSegment()
     head.readAndWriteUnsafe(cursor)
     cursor.expandBuffer(minByteCount)
     check(cursor.offset == 0L && cursor.end == cursor.data!!.size)
     array = cursor.data!!
     arrayLimit = cursor.end
+    arrayEnd = cursor.end
   }
 
   /** Make the current segment a prefix of [tail]. */
   private fun emitCurrentSegment() {
     if (array === EMPTY_ARRAY) return // No current segment.
+    check(!writingIntoArray) { "unexpected call when writing into an array" }
     cursor.close()
 
     // Advance the cursor to the first byte of data.
@@ -98,23 +147,45 @@ class ReverseProtoWriter {
     // Use EMPTY_ARRAY as a sentinel until we start a new segment.
     array = EMPTY_ARRAY
     arrayLimit = 0
+    arrayEnd = 0
   }
 
   /**
    * When a forward-writable message needs to be written while we're writing in reverse, write that
-   * message forwards then copy its bytes into this.
+   * message forwards then transfer its bytes into this.
+   *
+   * Small messages are copied once, directly into the current segment. Larger ones are moved into
+   * [tail] a segment at a time without copying.
    */
   @Throws(IOException::class)
   internal fun writeForward(block: (forwardWriter: ProtoWriter) -> Unit) {
-    block(forwardWriter)
-    writeBytes(forwardBuffer.readByteString())
+    val buffer = forwardBuffer ?: Buffer().also { forwardBuffer = it }
+    val writer = forwardWriter ?: ProtoWriter(buffer).also { forwardWriter = it }
+    block(writer)
+
+    val byteCount = buffer.size.toInt()
+    if (writingIntoArray || byteCount <= FORWARD_COPY_MAX) {
+      require(byteCount)
+      arrayLimit -= byteCount
+      var offset = arrayLimit
+      while (!buffer.exhausted()) {
+        offset += buffer.read(array, offset, arrayLimit + byteCount - offset)
+      }
+    } else {
+      // Put the current segment in front of 'tail' and the forward-encoded data in front of that.
+      emitCurrentSegment()
+      buffer.writeAll(tail)
+      forwardBuffer = tail
+      forwardWriter = null
+      tail = buffer
+    }
   }
 
   fun writeBytes(value: ByteString) {
     var valueLimit = value.size
     while (valueLimit != 0) {
       require(1)
-      val copyByteCount = minOf(arrayLimit, valueLimit)
+      val copyByteCount = minOf(arrayLimit - arrayStart, valueLimit)
       arrayLimit -= copyByteCount
       val valuePos = valueLimit - copyByteCount
       value.copyInto(valuePos, array, arrayLimit, copyByteCount)
@@ -140,7 +211,7 @@ class ReverseProtoWriter {
 
           // Fast-path contiguous runs of ASCII characters. This is ugly, but yields a ~4x
           // performance improvement over independent calls to writeByte().
-          val runLimit = maxOf(-1, i - localArrayLimit)
+          val runLimit = maxOf(-1, i - (localArrayLimit - arrayStart))
           while (i > runLimit) {
             val d = value[i].toInt()
             if (d >= 0x80) break
@@ -271,7 +342,23 @@ class ReverseProtoWriter {
     array[offset  ] = (value ushr 56 and 0xffL).toByte() // ktlint-disable no-multi-spaces
   }
 
-  private companion object {
+  companion object {
     private val EMPTY_ARRAY = ByteArray(0)
+
+    /**
+     * Forward-encoded messages up to this size are copied into the current segment. Moving them
+     * would leave that segment partially filled.
+     */
+    private const val FORWARD_COPY_MAX = 2048
+
+    /**
+     * The number of values that have been encoded forwards and then transferred into a reverse
+     * writer, because their adapters don't override `encode(ReverseProtoWriter, E)`. This includes
+     * adapters generated by older versions of Wire and hand-written adapters. Regenerating or
+     * updating those adapters avoids the extra buffering; watch this count to find them.
+     */
+    @JvmStatic
+    val forwardEncodedCount: Long
+      get() = getForwardEncodedCount()
   }
 }
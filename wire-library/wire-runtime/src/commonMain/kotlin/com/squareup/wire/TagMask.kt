@@ -0,0 +1,103 @@
+/*
+ * Copyright 2021 Square Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.wire
+
+/**
+ * The fields of a message to decode, identified by their tags. Decoding with a mask skips every
+ * other field without decoding it, and skipped fields are not retained as unknown fields.
+ *
+ * A path of tags includes a field of a nested message. This mask includes the top-level field 1,
+ * and field 2 of the message in top-level field 4:
+ *
+ * ```
+ * val mask = TagMask.Builder()
+ *     .add(1)
+ *     .add(4, 2)
+ *     .build()
+ * ```
+ *
+ * Fields that are skipped take their default values, so a mask must include the message's required
+ * fields.
+ */
+class TagMask private constructor(
+  /** The included tags, in increasing order. */
+  private val tags: IntArray,
+  /** The mask for each tag in [tags], or null if that field is included entirely. */
+  private val children: Array<TagMask?>
+) {
+  /** Returns the index of [tag] in this mask, or -1 if that field is skipped. */
+  internal fun indexOf(tag: Int): Int {
+    var low = 0
+    var high = tags.size - 1
+    while (low <= high) {
+      val middle = (low + high) ushr 1
+      val middleTag = tags[middle]
+      when {
+        middleTag < tag -> low = middle + 1
+        middleTag > tag -> high = middle - 1
+        else -> return middle
+      }
+    }
+    return -1
+  }
+
+  /** Returns the mask of the message field at [index], or null to decode all of its fields. */
+  internal fun child(index: Int): TagMask? = children[index]
+
+  override fun toString(): String = buildString {
+    append('[')
+    for (i in tags.indices) {
+      if (i > 0) append(", ")
+      append(tags[i])
+      val child = children[i]
+      if (child != null) append(child.toString())
+    }
+    append(']')
+  }
+
+  class Builder {
+    private val root = Node()
+
+    /**
+     * Includes the field at [tagPath]. The last tag is the field to include, and the tags before it
+     * are the message fields that contain it.
+     */
+    fun add(vararg tagPath: Int) = apply {
+      require(tagPath.isNotEmpty()) { "tagPath is empty" }
+      var node = root
+      for (tag in tagPath) {
+        require(tag > 0) { "unexpected tag: $tag" }
+        if (node.includesAll) return@apply // An enclosing field is already included entirely.
+        node = node.children.getOrPut(tag) { Node() }
+      }
+      node.includesAll = true
+      node.children.clear()
+    }
+
+    fun build(): TagMask = root.toTagMask()!!
+
+    private class Node {
+      var includesAll = false
+      val children = mutableMapOf<Int, Node>()
+
+      fun toTagMask(): TagMask? {
+        if (includesAll) return null
+        val tags = children.keys.sorted().toIntArray()
+        return TagMask(tags, Array(tags.size) { children.getValue(tags[it]).toTagMask() })
+      }
+    }
+  }
+}
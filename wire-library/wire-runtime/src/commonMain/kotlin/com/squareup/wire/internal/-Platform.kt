@@ -15,6 +15,7 @@
  */
 package com.squareup.wire.internal
 
+import com.squareup.wire.ReverseProtoWriter
 import okio.IOException
 import kotlin.reflect.KClass
 
@@ -33,6 +34,22 @@ expect fun <T> MutableList<T>.toUnmodifiableList(): List<T>
 
 expect fun <K, V> MutableMap<K, V>.toUnmodifiableMap(): Map<K, V>
 
+/**
+ * Returns the calling thread's pooled writer, or null if it doesn't have one because this is its
+ * first encode or because its writer is already in use. Pass the writer, or a newly-allocated one,
+ * to [releasePooledReverseProtoWriter] when done with it.
+ */
+internal expect fun takePooledReverseProtoWriter(): ReverseProtoWriter?
+
+/** Empties [writer] and makes it the calling thread's pooled writer. */
+internal expect fun releasePooledReverseProtoWriter(writer: ReverseProtoWriter)
+
+/** Counts a value encoded by an adapter that doesn't implement reverse encoding. */
+internal expect fun incrementForwardEncodedCount()
+
+/** Returns the number of calls to [incrementForwardEncodedCount] in this process. */
+internal expect fun getForwardEncodedCount(): Long
+
 /**
  * Convert [string], from snake case to camel case.
  *
@@ -65,6 +65,12 @@ abstract class FieldOrOneOfBinding<M, B> {
 
   abstract fun value(builder: B, value: Any)
 
+  /**
+   * Returns the builder's map for this map field, first replacing it with a mutable copy if it
+   * isn't already mutable. Map entries are decoded directly into this map.
+   */
+  abstract fun mutableMapFromBuilder(builder: B): MutableMap<Any, Any>
+
   abstract fun set(builder: B, value: Any?)
 
   abstract operator fun get(message: M): Any?
@@ -18,7 +18,11 @@
 
 package com.squareup.wire.internal
 
+import com.squareup.wire.MapProtoAdapter
+import com.squareup.wire.Message
 import com.squareup.wire.ProtoAdapter
+import com.squareup.wire.ProtoReader
+import okio.IOException
 import kotlin.jvm.JvmMultifileClass
 import kotlin.jvm.JvmName
 
@@ -124,6 +128,35 @@ fun <K, V> Map<K, V>.redactElements(adapter: ProtoAdapter<V>): Map<K, V> {
   return mapValues { (_, value) -> adapter.redact(value) }
 }
 
+/**
+ * Decodes one entry of a map field with [adapter] and puts it in [destination]. Adapters from
+ * [ProtoAdapter.newMapAdapter] do this without allocating a map for each entry.
+ */
+@Throws(IOException::class)
+fun <K, V> decodeMapEntry(
+  adapter: ProtoAdapter<Map<K, V>>,
+  reader: ProtoReader,
+  destination: MutableMap<K, V>
+) {
+  if (adapter is MapProtoAdapter<K, V>) {
+    adapter.decodeEntry(reader, destination)
+  } else {
+    destination.putAll(adapter.decode(reader))
+  }
+}
+
+/** Returns the encoded size cached by [cacheEncodedSize], or 0 if there isn't one. */
+fun cachedEncodedSize(message: Message<*, *>): Int = message.cachedSerializedSize
+
+/**
+ * Caches [size] as the encoded size of [message] and returns it. Messages are immutable so their
+ * encoded size never changes, and generated adapters only compute it once.
+ */
+fun cacheEncodedSize(message: Message<*, *>, size: Int): Int {
+  message.cachedSerializedSize = size
+  return size
+}
+
 fun equals(a: Any?, b: Any?): Boolean = a === b || (a != null && a == b)
 
 /**
@@ -49,6 +49,17 @@ internal class MutableOnWriteList<T>(
     return (mutableList as ArrayList).removeAt(index)
   }
 
+  /** Switches to a mutable list that can hold at least `minCapacity` elements without resizing. */
+  internal fun ensureCapacity(minCapacity: Int) {
+    if (mutableList === immutableList) {
+      mutableList = ArrayList<T>(maxOf(minCapacity, immutableList.size)).apply {
+        addAll(immutableList)
+      }
+    } else {
+      (mutableList as ArrayList).ensureCapacity(minCapacity)
+    }
+  }
+
   @Throws(ObjectStreamException::class)
   private fun writeReplace(): Any = ArrayList(mutableList)
 }
@@ -22,22 +22,27 @@ import com.squareup.wire.ProtoWriter
 import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.WireField
 
-class RuntimeMessageAdapter<M : Any, B : Any>(
+class RuntimeMessageAdapter<M : Any, B : Any> internal constructor(
   private val binding: MessageBinding<M, B>,
+  /**
+   * Field bindings by index. The indexes are consistent across all related fields including
+   * [jsonNames], [jsonAlternateNames], and the result of [jsonAdapters].
+   */
+  val fieldBindingsArray: Array<FieldOrOneOfBinding<M, B>>
 ) : ProtoAdapter<M>(
   fieldEncoding = FieldEncoding.LENGTH_DELIMITED,
   type = binding.messageType,
   typeUrl = binding.typeUrl,
   syntax = binding.syntax
 ) {
+  constructor(binding: MessageBinding<M, B>) : this(binding, binding.fields.values.toTypedArray())
+
   private val messageType = binding.messageType
-  val fields = binding.fields
+  val fields: Map<Int, FieldOrOneOfBinding<M, B>>
+    get() = binding.fields
 
-  /**
-   * Field bindings by index. The indexes are consistent across all related fields including
-   * [jsonNames], [jsonAlternateNames], and the result of [jsonAdapters].
-   */
-  val fieldBindingsArray: Array<FieldOrOneOfBinding<M, B>> = fields.values.toTypedArray()
+  /** Field bindings by tag, for decoding without boxing or hashing tags. */
+  private val fieldBindingsByTag = FieldBindingsByTag(fieldBindingsArray)
   val jsonNames: List<String> = fieldBindingsArray.map { it.jsonName }
 
   /**
@@ -70,7 +75,7 @@ class RuntimeMessageAdapter<M : Any, B : Any>(
     if (cachedSerializedSize != 0) return cachedSerializedSize
 
     var size = 0
-    for (field in fields.values) {
+    for (field in fieldBindingsArray) {
       val fieldValue = field[value] ?: continue
       size += field.adapter.encodedSizeWithTag(field.tag, fieldValue)
     }
@@ -81,7 +86,7 @@ class RuntimeMessageAdapter<M : Any, B : Any>(
   }
 
   override fun encode(writer: ProtoWriter, value: M) {
-    for (field in fields.values) {
+    for (field in fieldBindingsArray) {
       val binding = field[value] ?: continue
       field.adapter.encodeWithTag(writer, field.tag, binding)
     }
@@ -99,7 +104,7 @@ class RuntimeMessageAdapter<M : Any, B : Any>(
 
   override fun redact(value: M): M {
     val builder = binding.newBuilder()
-    for (field in fields.values) {
+    for (field in fieldBindingsArray) {
       if (field.redacted && field.label == WireField.Label.REQUIRED) {
         throw UnsupportedOperationException(
             "Field '${field.name}' in $type is required and cannot be redacted."
@@ -135,7 +140,7 @@ class RuntimeMessageAdapter<M : Any, B : Any>(
     append(messageType.simpleName)
     append('{')
     var first = true
-    for (field in fields.values) {
+    for (field in fieldBindingsArray) {
       val binding = field[value] ?: continue
       if (!first) append(", ")
       first = false
@@ -152,16 +157,21 @@ class RuntimeMessageAdapter<M : Any, B : Any>(
     while (true) {
       val tag = reader.nextTag()
       if (tag == -1) break
-      val field = fields[tag]
+      val field = fieldBindingsByTag[tag]
       try {
-        if (field != null) {
-          val adapter = if (field.isMap) {
-            field.adapter
-          } else {
-            field.singleAdapter
-          }
-          val value = adapter.decode(reader)
+        if (field != null && field.isMap) {
+          // Put each entry straight into the builder's map rather than decoding a map per entry.
+          @Suppress("UNCHECKED_CAST")
+          decodeMapEntry(
+            field.adapter as ProtoAdapter<Map<Any, Any>>,
+            reader,
+            field.mutableMapFromBuilder(builder)
+          )
+        } else if (field != null) {
+          val value = field.singleAdapter.decode(reader)
           field.value(builder, value!!)
+        } else if (!reader.retainUnknownFields) {
+          reader.skip()
         } else {
           val fieldEncoding = reader.peekFieldEncoding()!!
           val value = fieldEncoding.rawProtoAdapter().decode(reader)
@@ -169,7 +179,9 @@ class RuntimeMessageAdapter<M : Any, B : Any>(
         }
       } catch (e: EnumConstantNotFoundException) {
         // An unknown Enum value was encountered, store it as an unknown field.
-        binding.addUnknownField(builder, tag, FieldEncoding.VARINT, e.value.toLong())
+        if (reader.retainUnknownFields) {
+          binding.addUnknownField(builder, tag, FieldEncoding.VARINT, e.value.toLong())
+        }
       }
 
     }
@@ -212,3 +224,48 @@ class RuntimeMessageAdapter<M : Any, B : Any>(
     private const val REDACTED = "\u2588\u2588"
   }
 }
+
+/**
+ * Maps tags to field bindings. When tags are dense this is an array indexed by tag; otherwise it
+ * binary searches a sorted array of tags.
+ */
+private class FieldBindingsByTag<M, B>(fieldBindings: Array<FieldOrOneOfBinding<M, B>>) {
+  /** The sorted tags, or null if [bindings] is indexed by tag. */
+  private val tags: IntArray?
+  private val bindings: Array<Any?>
+
+  init {
+    val sorted = fieldBindings.sortedBy { it.tag }
+    val maxTag = sorted.lastOrNull()?.tag ?: 0
+    if (maxTag <= sorted.size * 2 + 16) {
+      tags = null
+      bindings = arrayOfNulls<Any>(maxTag + 1)
+      for (binding in sorted) bindings[binding.tag] = binding
+    } else {
+      tags = IntArray(sorted.size) { sorted[it].tag }
+      bindings = Array<Any?>(sorted.size) { sorted[it] }
+    }
+  }
+
+  @Suppress("UNCHECKED_CAST")
+  operator fun get(tag: Int): FieldOrOneOfBinding<M, B>? {
+    val index = if (tags == null) tag else indexOf(tags, tag)
+    if (index < 0 || index >= bindings.size) return null
+    return bindings[index] as FieldOrOneOfBinding<M, B>?
+  }
+
+  private fun indexOf(tags: IntArray, tag: Int): Int {
+    var low = 0
+    var high = tags.size - 1
+    while (low <= high) {
+      val middle = (low + high) ushr 1
+      val middleTag = tags[middle]
+      when {
+        middleTag < tag -> low = middle + 1
+        middleTag > tag -> high = middle - 1
+        else -> return middle
+      }
+    }
+    return -1
+  }
+}
@@ -24,3 +24,36 @@ internal inline infix fun Byte.and(other: Int): Int = toInt() and other
 
 @Suppress("NOTHING_TO_INLINE") // Syntactic sugar.
 internal inline infix fun Byte.shl(other: Int): Int = toInt() shl other
+
+/** Grows this list if it's a type we know how to presize. Otherwise this does nothing. */
+internal fun <T> MutableList<T>.ensureCapacity(minCapacity: Int) {
+  when (this) {
+    is ArrayList<T> -> ensureCapacity(minCapacity)
+    is MutableOnWriteList<T> -> ensureCapacity(minCapacity)
+  }
+}
+
+/**
+ * Decodes the varint length prefix of a message in a stream of length-prefixed messages.
+ * [nextByte] returns each byte of the prefix in turn as a value in `0..255`, or -1 if no more
+ * bytes are available. Returns the message's length, or -1 if the bytes ran out first.
+ *
+ * @throws ProtocolException if the prefix is malformed or the length exceeds [maxMessageSize].
+ */
+internal inline fun readDelimitedLength(maxMessageSize: Int, nextByte: () -> Int): Int {
+  var result = 0L
+  var shift = 0
+  while (shift < 35) {
+    val b = nextByte()
+    if (b == -1) return -1
+    result = result or ((b and 0x7f).toLong() shl shift)
+    if (b and 0x80 == 0) {
+      if (result > maxMessageSize) {
+        throw ProtocolException("message of $result bytes exceeds $maxMessageSize")
+      }
+      return result.toInt()
+    }
+    shift += 7
+  }
+  throw ProtocolException("malformed length prefix")
+}
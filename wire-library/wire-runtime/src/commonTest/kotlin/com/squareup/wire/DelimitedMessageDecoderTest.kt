@@ -0,0 +1,96 @@
+/*
+ * Copyright 2021 Square Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.wire
+
+import com.squareup.wire.internal.ProtocolException
+import okio.Buffer
+import okio.ByteString
+import okio.EOFException
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+
+class DelimitedMessageDecoderTest {
+  @Test fun messagesSplitAcrossChunks() {
+    val encoded = encodeDelimited(1L, 300L, 0L).toByteArray()
+    val decoder = DelimitedMessageDecoder(ProtoAdapter.DURATION)
+
+    // Feed one byte at a time, so every prefix and message is split across chunks.
+    val decoded = mutableListOf<Duration>()
+    for (i in encoded.indices) {
+      decoded += decoder.feed(encoded, i, 1)
+    }
+    decoder.finish()
+    assertEquals(listOf(1L, 300L, 0L), decoded.map { it.getSeconds() })
+    assertEquals(0L, decoder.bufferedByteCount)
+  }
+
+  @Test fun manyMessagesInOneChunk() {
+    val decoder = DelimitedMessageDecoder(ProtoAdapter.DURATION)
+    val decoded = decoder.feed(Buffer().write(encodeDelimited(5L, 6L)))
+    assertEquals(listOf(5L, 6L), decoded.map { it.getSeconds() })
+  }
+
+  @Test fun incompleteMessageAtEnd() {
+    val encoded = encodeDelimited(300L)
+    val decoder = DelimitedMessageDecoder(ProtoAdapter.DURATION)
+    assertEquals(listOf<Duration>(), decoder.feed(encoded.substring(0, encoded.size - 1)))
+    assertFailsWith<EOFException> {
+      decoder.finish()
+    }
+  }
+
+  @Test fun messageTooLarge() {
+    val decoder = DelimitedMessageDecoder(ProtoAdapter.DURATION, maxMessageSize = 2)
+    assertFailsWith<ProtocolException> {
+      decoder.feed(encodeDelimited(300L))
+    }
+  }
+
+  @Test fun messagesBeforeFailedMessageAreReturnedByNextFeed() {
+    val chunk = Buffer()
+      .write(encodeDelimited(5L))
+      .writeByte(1).writeByte(0) // A message with the invalid tag 0.
+      .write(encodeDelimited(6L))
+    val decoder = DelimitedMessageDecoder(ProtoAdapter.DURATION)
+    assertFailsWith<ProtocolException> {
+      decoder.feed(chunk)
+    }
+    assertEquals(listOf(5L, 6L), decoder.feed(ByteString.EMPTY).map { it.getSeconds() })
+    assertEquals(listOf<Duration>(), decoder.finish())
+  }
+
+  @Test fun messagesBeforeFailedMessageAreReturnedByFinish() {
+    val chunk = Buffer()
+      .write(encodeDelimited(5L))
+      .writeByte(1).writeByte(0) // A message with the invalid tag 0.
+    val decoder = DelimitedMessageDecoder(ProtoAdapter.DURATION)
+    assertFailsWith<ProtocolException> {
+      decoder.feed(chunk)
+    }
+    assertEquals(listOf(5L), decoder.finish().map { it.getSeconds() })
+  }
+
+  private fun encodeDelimited(vararg seconds: Long): ByteString {
+    val buffer = Buffer()
+    for (s in seconds) {
+      val message = ProtoAdapter.DURATION.encodeByteString(durationOfSeconds(s, 0L))
+      buffer.writeByte(message.size) // Each of these messages is shorter than 128 bytes.
+      buffer.write(message)
+    }
+    return buffer.readByteString()
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2021 Square Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.wire
+
+import com.squareup.wire.internal.ProtocolException
+import okio.Buffer
+import okio.EOFException
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class DelimitedMessageSourceTest {
+  @Test fun roundTrip() {
+    val buffer = Buffer()
+    val sink = DelimitedMessageSink(buffer, ProtoAdapter.DURATION)
+    sink.write(durationOfSeconds(1L, 0L))
+    sink.write(durationOfSeconds(0L, 0L)) // Encodes as an empty message.
+    sink.write(durationOfSeconds(300L, 5L))
+    sink.close()
+
+    val source = DelimitedMessageSource(buffer, ProtoAdapter.DURATION)
+    assertEquals(1L, source.read()!!.getSeconds())
+    assertEquals(0L, source.read()!!.getSeconds())
+    val third = source.read()!!
+    assertEquals(300L, third.getSeconds())
+    assertEquals(5, third.getNano())
+    assertNull(source.read())
+    source.close()
+  }
+
+  @Test fun sinkMatchesDecoderFormat() {
+    val buffer = Buffer()
+    val sink = DelimitedMessageSink(buffer, ProtoAdapter.DURATION)
+    sink.write(durationOfSeconds(5L, 0L))
+    sink.write(durationOfSeconds(6L, 0L))
+
+    val decoded = DelimitedMessageDecoder(ProtoAdapter.DURATION).feed(buffer)
+    assertEquals(listOf(5L, 6L), decoded.map { it.getSeconds() })
+  }
+
+  @Test fun skipWithoutDecoding() {
+    val buffer = Buffer()
+    val sink = DelimitedMessageSink(buffer, ProtoAdapter.DURATION)
+    for (seconds in 1L..3L) {
+      sink.write(durationOfSeconds(seconds, 0L))
+    }
+
+    val source = DelimitedMessageSource(buffer, ProtoAdapter.DURATION)
+    assertTrue(source.skip())
+    assertTrue(source.skip())
+    assertEquals(3L, source.read()!!.getSeconds())
+    assertFalse(source.skip())
+  }
+
+  @Test fun truncatedMessage() {
+    val buffer = Buffer()
+    DelimitedMessageSink(buffer, ProtoAdapter.DURATION).write(durationOfSeconds(300L, 0L))
+    val truncated = Buffer().write(buffer, buffer.size - 1)
+    val source = DelimitedMessageSource(truncated, ProtoAdapter.DURATION)
+    assertFailsWith<EOFException> {
+      source.read()
+    }
+  }
+
+  @Test fun messageTooLarge() {
+    val buffer = Buffer()
+    DelimitedMessageSink(buffer, ProtoAdapter.DURATION).write(durationOfSeconds(300L, 0L))
+    val source = DelimitedMessageSource(buffer, ProtoAdapter.DURATION, maxMessageSize = 2)
+    assertFailsWith<ProtocolException> {
+      source.read()
+    }
+
+    val sink = DelimitedMessageSink(Buffer(), ProtoAdapter.DURATION, maxMessageSize = 2)
+    assertFailsWith<IllegalArgumentException> {
+      sink.write(durationOfSeconds(300L, 0L))
+    }
+    sink.write(durationOfSeconds(1L, 0L)) // The writer is still usable.
+  }
+
+  @Test fun canceledSinkRejectsWrites() {
+    val sink = DelimitedMessageSink(Buffer(), ProtoAdapter.DURATION)
+    sink.cancel()
+    assertFailsWith<IllegalStateException> {
+      sink.write(durationOfSeconds(1L, 0L))
+    }
+  }
+
+  @Test fun failedWriteIsDiscarded() {
+    val buffer = Buffer()
+    val sink = DelimitedMessageSink(buffer, rejectsNegativeDurations)
+    assertFailsWith<IllegalArgumentException> {
+      sink.write(durationOfSeconds(-5L, 0L))
+    }
+    sink.write(durationOfSeconds(7L, 0L))
+    sink.close()
+
+    val source = DelimitedMessageSource(buffer, ProtoAdapter.DURATION)
+    assertEquals(7L, source.read()!!.getSeconds())
+    assertNull(source.read())
+  }
+
+  /** Encodes durations normally, then fails on negative ones after their bytes are written. */
+  private val rejectsNegativeDurations = object : ProtoAdapter<Duration>(
+    FieldEncoding.LENGTH_DELIMITED,
+    Duration::class,
+    null,
+    Syntax.PROTO_3,
+    null
+  ) {
+    override fun redact(value: Duration) = error("unexpected call")
+
+    override fun encodedSize(value: Duration) = DURATION.encodedSize(value)
+
+    override fun encode(writer: ProtoWriter, value: Duration) = error("unexpected call")
+
+    override fun encode(writer: ReverseProtoWriter, value: Duration) {
+      DURATION.encode(writer, value)
+      require(value.getSeconds() >= 0L) { "negative duration" }
+    }
+
+    override fun decode(reader: ProtoReader) = DURATION.decode(reader)
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2021 Square Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.wire
+
+import okio.Buffer
+import okio.ByteString
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class LazyMessageTest {
+  private val adapter = LazyMessage.newAdapter(ProtoAdapter.DURATION)
+  private val duration = durationOfSeconds(1L, 200_000_000L)
+
+  @Test fun decodesOnFirstAccess() {
+    val lazy = decodeField(encodeField(ProtoAdapter.DURATION, duration))
+    assertFalse(lazy.isDecoded)
+    assertEquals(1L, lazy.value.getSeconds())
+    assertEquals(200_000_000, lazy.value.getNano())
+    assertTrue(lazy.isDecoded)
+  }
+
+  @Test fun reEncodesRetainedBytes() {
+    val bytes = encodeField(ProtoAdapter.DURATION, duration)
+    val lazy = decodeField(bytes)
+    assertEquals(bytes, encodeField(adapter, lazy))
+    assertEquals(bytes.size, adapter.encodedSizeWithTag(1, lazy))
+    assertFalse(lazy.isDecoded)
+  }
+
+  @Test fun encodesDecodedValue() {
+    val lazy = LazyMessage.of(ProtoAdapter.DURATION, duration)
+    assertTrue(lazy.isDecoded)
+    assertEquals(encodeField(ProtoAdapter.DURATION, duration), encodeField(adapter, lazy))
+  }
+
+  @Test fun identicalBytesAreEqualWithoutDecoding() {
+    val bytes = encodeField(ProtoAdapter.DURATION, duration)
+    val a = decodeField(bytes)
+    val b = decodeField(bytes)
+    assertEquals(a, b)
+    assertFalse(a.isDecoded)
+    assertFalse(b.isDecoded)
+  }
+
+  @Test fun hashCodeAndToStringDoNotDecode() {
+    val bytes = encodeField(ProtoAdapter.DURATION, duration)
+    val a = decodeField(bytes)
+    val b = decodeField(bytes)
+    assertEquals(a.hashCode(), b.hashCode())
+    assertEquals("LazyMessage{7 bytes}", a.toString())
+    assertFalse(a.isDecoded)
+    assertFalse(b.isDecoded)
+  }
+
+  @Test fun decodedValueEqualsItsEncoding() {
+    val decoded = LazyMessage.of(ProtoAdapter.DURATION, duration)
+    val encoded = decodeField(encodeField(ProtoAdapter.DURATION, duration))
+    assertEquals(decoded, encoded)
+    assertEquals(decoded.hashCode(), encoded.hashCode())
+    assertFalse(encoded.isDecoded)
+  }
+
+  private fun <T> encodeField(adapter: ProtoAdapter<T>, value: T): ByteString {
+    val buffer = Buffer()
+    adapter.encodeWithTag(ProtoWriter(buffer), 1, value)
+    return buffer.readByteString()
+  }
+
+  private fun decodeField(bytes: ByteString): LazyMessage<Duration> {
+    val reader = ProtoReader(Buffer().write(bytes))
+    val token = reader.beginMessage()
+    assertEquals(1, reader.nextTag())
+    val result = adapter.decode(reader)
+    assertEquals(-1, reader.nextTag())
+    reader.endMessageAndGetUnknownFields(token)
+    return result
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2021 Square Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.wire
+
+import okio.Buffer
+import okio.ByteString
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+
+class PrimitiveListsTest {
+  @Test fun listSemantics() {
+    val list = IntList.of(1, -2, 3)
+    assertEquals(listOf(1, -2, 3), list)
+    assertEquals(listOf(1, -2, 3).hashCode(), list.hashCode())
+    assertEquals(-2, list.getInt(1))
+    assertEquals("[1, -2, 3]", list.toString())
+    assertFailsWith<IndexOutOfBoundsException> {
+      list.getInt(3)
+    }
+    assertEquals(list, listOf(1, -2, 3).toIntList())
+  }
+
+  @Test fun packedIntsMatchProtoAdapter() {
+    val values = listOf(0, 1, -1, 300, Int.MIN_VALUE, Int.MAX_VALUE)
+    for (adapter in listOf(ProtoAdapter.INT32, ProtoAdapter.UINT32, ProtoAdapter.SINT32,
+        ProtoAdapter.FIXED32, ProtoAdapter.SFIXED32)) {
+      val expected = encode { adapter.asPacked().encodeWithTag(it, 7, values) }
+      val list = values.toIntList()
+      assertEquals(expected, encode { list.encodeWithTag(it, adapter, 7, packed = true) })
+      assertEquals(expected, reverseEncode { list.encodeWithTag(it, adapter, 7, packed = true) })
+      assertEquals(expected.size, list.encodedSizeWithTag(adapter, 7, packed = true))
+
+      val builder = IntList.Builder()
+      decode(expected) { builder.decode(it, adapter) }
+      assertEquals(values, builder.build())
+    }
+  }
+
+  @Test fun repeatedLongsMatchProtoAdapter() {
+    val values = listOf(0L, 1L, -1L, Long.MIN_VALUE, Long.MAX_VALUE)
+    for (adapter in listOf(ProtoAdapter.INT64, ProtoAdapter.UINT64, ProtoAdapter.SINT64,
+        ProtoAdapter.FIXED64, ProtoAdapter.SFIXED64)) {
+      val expected = encode { adapter.asRepeated().encodeWithTag(it, 3, values) }
+      val list = values.toLongList()
+      assertEquals(expected, encode { list.encodeWithTag(it, adapter, 3, packed = false) })
+      assertEquals(expected, reverseEncode { list.encodeWithTag(it, adapter, 3, packed = false) })
+      assertEquals(expected.size, list.encodedSizeWithTag(adapter, 3, packed = false))
+
+      val builder = LongList.Builder()
+      decode(expected) { builder.decode(it, adapter) }
+      assertEquals(values, builder.build())
+    }
+  }
+
+  @Test fun floatsDoublesAndBools() {
+    val floats = FloatList.of(1.5f, -0f, Float.NaN)
+    val doubles = DoubleList.of(2.25, Double.NEGATIVE_INFINITY)
+    val bools = BooleanList.of(true, false, true)
+
+    val floatBytes = encode { floats.encodeWithTag(it, ProtoAdapter.FLOAT, 1, packed = true) }
+    assertEquals(encode { ProtoAdapter.FLOAT.asPacked().encodeWithTag(it, 1, floats) }, floatBytes)
+    val doubleBytes = encode { doubles.encodeWithTag(it, ProtoAdapter.DOUBLE, 2, packed = false) }
+    assertEquals(
+      encode { ProtoAdapter.DOUBLE.asRepeated().encodeWithTag(it, 2, doubles) }, doubleBytes)
+    val boolBytes = reverseEncode { bools.encodeWithTag(it, ProtoAdapter.BOOL, 3, packed = true) }
+    assertEquals(encode { ProtoAdapter.BOOL.asPacked().encodeWithTag(it, 3, bools) }, boolBytes)
+
+    val floatBuilder = FloatList.Builder()
+    decode(floatBytes) { floatBuilder.decode(it, ProtoAdapter.FLOAT) }
+    assertEquals(floats, floatBuilder.build())
+    val doubleBuilder = DoubleList.Builder()
+    decode(doubleBytes) { doubleBuilder.decode(it, ProtoAdapter.DOUBLE) }
+    assertEquals(doubles, doubleBuilder.build())
+    val boolBuilder = BooleanList.Builder()
+    decode(boolBytes) { boolBuilder.decode(it, ProtoAdapter.BOOL) }
+    assertEquals(bools, boolBuilder.build())
+  }
+
+  @Test fun unexpectedAdapter() {
+    @Suppress("UNCHECKED_CAST")
+    val adapter = ProtoAdapter.INT32_VALUE as ProtoAdapter<Int>
+    assertFailsWith<IllegalArgumentException> {
+      IntList.of(1).encodedSizeWithTag(adapter, 1, packed = false)
+    }
+  }
+
+  private fun encode(block: (ProtoWriter) -> Unit): ByteString {
+    val buffer = Buffer()
+    block(ProtoWriter(buffer))
+    return buffer.readByteString()
+  }
+
+  private fun reverseEncode(block: (ReverseProtoWriter) -> Unit): ByteString {
+    val writer = ReverseProtoWriter()
+    block(writer)
+    val buffer = Buffer()
+    writer.writeTo(buffer)
+    return buffer.readByteString()
+  }
+
+  private fun decode(bytes: ByteString, block: (ProtoReader) -> Unit) {
+    val reader = ProtoReader(Buffer().write(bytes))
+    val token = reader.beginMessage()
+    while (reader.nextTag() != -1) {
+      block(reader)
+    }
+    reader.endMessageAndGetUnknownFields(token)
+  }
+}
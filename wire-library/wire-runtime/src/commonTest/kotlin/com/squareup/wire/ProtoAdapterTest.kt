@@ -15,8 +15,17 @@
  */
 package com.squareup.wire
 
+import okio.Buffer
+import okio.BufferedSource
+import okio.ByteString.Companion.toByteString
+import okio.Source
+import okio.Timeout
+import okio.buffer
 import kotlin.test.Test
+import kotlin.test.assertEquals
 import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
 
 class ProtoAdapterTest {
   @Test fun repeatedRepeatedProtoAdapterForbidden() {
@@ -43,4 +52,92 @@ class ProtoAdapterTest {
       ProtoAdapter.BOOL.asPacked().asRepeated()
     }
   }
+
+  @Test fun encodeIntoArray() {
+    val value = listOf(0L, 1L, -1L, Long.MAX_VALUE, 300L)
+    val expected = ProtoAdapter.INT64.asPacked().encodeByteString(value)
+    val destination = ByteArray(expected.size + 4)
+    val byteCount = ProtoAdapter.INT64.asPacked().encode(value, destination, 2)
+    assertEquals(expected.size, byteCount)
+    assertEquals(expected, destination.toByteString(2, byteCount))
+    assertEquals(0, destination[0])
+    assertEquals(0, destination[destination.size - 1])
+  }
+
+  @Test fun encodeIntoArrayLargerThanSegment() {
+    val value = "\u00e9" + "x".repeat(20_000)
+    val destination = ByteArray(ProtoAdapter.STRING.encodedSize(value))
+    ProtoAdapter.STRING.encode(value, destination, 0)
+    assertEquals(ProtoAdapter.STRING.encodeByteString(value), destination.toByteString())
+  }
+
+  @Test fun encodeIntoArrayTooSmall() {
+    assertFailsWith(IndexOutOfBoundsException::class) {
+      ProtoAdapter.STRING.encode("abc", ByteArray(4), 2)
+    }
+    // The pooled writer is still usable afterwards.
+    assertEquals("abc", ProtoAdapter.STRING.encodeByteString("abc").utf8())
+  }
+
+  @Test fun encodeAllAndDecodeAll() {
+    // Sizes vary so the reused reader sees both larger and smaller messages than before.
+    val values = listOf("a", "x".repeat(20_000), "", "\u00e9t\u00e9", "y".repeat(300))
+    val encoded = ProtoAdapter.STRING.encodeAll(values)
+    assertEquals(values.map { ProtoAdapter.STRING.encodeByteString(it) }, encoded)
+    assertEquals(values, ProtoAdapter.STRING.decodeAll(encoded))
+  }
+
+  @Test fun decodeRepeatedField() {
+    val buffer = Buffer()
+    val writer = ProtoWriter(buffer)
+    ProtoAdapter.STRING.encodeWithTag(writer, 1, "skipped")
+    ProtoAdapter.DURATION.encodeWithTag(writer, 2, durationOfSeconds(1L, 0L))
+    ProtoAdapter.INT32.asPacked().encodeWithTag(writer, 3, listOf(5, 6, 7))
+    ProtoAdapter.DURATION.encodeWithTag(writer, 2, durationOfSeconds(2L, 0L))
+    ProtoAdapter.INT32.asPacked().encodeWithTag(writer, 3, listOf(8))
+
+    val durations = ProtoAdapter.DURATION.decodeRepeatedField(buffer.copy(), 2)
+    assertEquals(listOf(1L, 2L), durations.map { it.getSeconds() }.toList())
+
+    val ints = ProtoAdapter.INT32.decodeRepeatedField(buffer.copy(), 3)
+    assertEquals(listOf(5, 6, 7, 8), ints.toList())
+  }
+
+  @Test fun decodeRepeatedFieldIsLazy() {
+    val buffer = Buffer()
+    val writer = ProtoWriter(buffer)
+    for (i in 1..3) {
+      ProtoAdapter.STRING.encodeWithTag(writer, 1, "value $i")
+    }
+
+    val iterator = ProtoAdapter.STRING.decodeRepeatedField(buffer, 1).iterator()
+    assertEquals("value 1", iterator.next())
+    assertTrue(buffer.size > 0L) // Later values haven't been read yet.
+    assertEquals("value 2", iterator.next())
+    assertEquals("value 3", iterator.next())
+    assertFalse(iterator.hasNext())
+  }
+
+  @Test fun decodeRepeatedFieldSkipsLargeFieldsWithoutBufferingThem() {
+    val data = Buffer()
+    val writer = ProtoWriter(data)
+    ProtoAdapter.INT32.encodeWithTag(writer, 1, 1)
+    ProtoAdapter.BYTES.encodeWithTag(writer, 2, ByteArray(100_000).toByteString())
+    ProtoAdapter.INT32.encodeWithTag(writer, 1, 2)
+
+    // Produces one segment per read, and fails if more than a segment is buffered.
+    lateinit var source: BufferedSource
+    source = object : Source {
+      override fun read(sink: Buffer, byteCount: Long): Long {
+        assertTrue(source.buffer.size <= 8192L)
+        return data.read(sink, minOf(byteCount, 8192L))
+      }
+
+      override fun timeout() = Timeout.NONE
+
+      override fun close() = Unit
+    }.buffer()
+
+    assertEquals(listOf(1, 2), ProtoAdapter.INT32.decodeRepeatedField(source, 1).toList())
+  }
 }
@@ -16,9 +16,13 @@
 package com.squareup.wire
 
 import okio.Buffer
+import okio.ByteString
 import okio.ByteString.Companion.decodeHex
+import okio.ByteString.Companion.encodeUtf8
+import okio.EOFException
 import kotlin.test.Test
 import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
 
 class ProtoReaderTest {
   @Test fun packedExposedAsRepeated() {
@@ -32,4 +36,183 @@ class ProtoReaderTest {
     assertEquals(-1, reader.nextTag())
     reader.endMessageAndGetUnknownFields(token)
   }
+
+  @Test fun decodeRepeatedReadsEntirePackedRun() {
+    val packedEncoded = "d20504d904bd055801".decodeHex()
+    val reader = ProtoReader(Buffer().write(packedEncoded))
+    val values = mutableListOf<Int>()
+    val token = reader.beginMessage()
+    assertEquals(90, reader.nextTag())
+    ProtoAdapter.INT32.decodeRepeated(reader, values)
+    assertEquals(listOf(601, 701), values)
+    assertEquals(11, reader.nextTag())
+    assertEquals(1, ProtoAdapter.INT32.decode(reader))
+    assertEquals(-1, reader.nextTag())
+    reader.endMessageAndGetUnknownFields(token)
+  }
+
+  @Test fun decodeRepeatedReadsUnpackedValues() {
+    val unpackedEncoded = "d005d904d005bd05".decodeHex()
+    val reader = ProtoReader(Buffer().write(unpackedEncoded))
+    val values = mutableListOf<Int>()
+    val token = reader.beginMessage()
+    assertEquals(90, reader.nextTag())
+    ProtoAdapter.INT32.decodeRepeated(reader, values)
+    assertEquals(90, reader.nextTag())
+    ProtoAdapter.INT32.decodeRepeated(reader, values)
+    assertEquals(listOf(601, 701), values)
+    assertEquals(-1, reader.nextTag())
+    reader.endMessageAndGetUnknownFields(token)
+  }
+
+  @Test fun decodeRepeatedEmptyPackedRun() {
+    val packedEncoded = "d205005801".decodeHex()
+    val reader = ProtoReader(Buffer().write(packedEncoded))
+    val values = mutableListOf<Long>()
+    val token = reader.beginMessage()
+    assertEquals(90, reader.nextTag())
+    ProtoAdapter.FIXED64.decodeRepeated(reader, values)
+    assertEquals(listOf<Long>(), values)
+    assertEquals(11, reader.nextTag())
+    assertEquals(1, ProtoAdapter.INT32.decode(reader))
+    assertEquals(-1, reader.nextTag())
+    reader.endMessageAndGetUnknownFields(token)
+  }
+
+  @Test fun packedExposedAsRepeatedFromByteArray() {
+    val packedEncoded = "d20504d904bd05".decodeHex().toByteArray()
+    val reader = ProtoReader(packedEncoded)
+    val token = reader.beginMessage()
+    assertEquals(90, reader.nextTag())
+    assertEquals(601, ProtoAdapter.INT32.decode(reader))
+    assertEquals(90, reader.nextTag())
+    assertEquals(701, ProtoAdapter.INT32.decode(reader))
+    assertEquals(-1, reader.nextTag())
+    reader.endMessageAndGetUnknownFields(token)
+  }
+
+  @Test fun byteArrayReaderHonorsOffsetAndByteCount() {
+    // A fixed64 and a string, surrounded by bytes that aren't part of the message.
+    val encoded = "ffff0901020304050607081203616263ffff".decodeHex().toByteArray()
+    val reader = ProtoReader(encoded, offset = 2, byteCount = encoded.size - 4)
+    val token = reader.beginMessage()
+    assertEquals(1, reader.nextTag())
+    assertEquals(0x0807060504030201L, ProtoAdapter.FIXED64.decode(reader))
+    assertEquals(2, reader.nextTag())
+    assertEquals("abc", ProtoAdapter.STRING.decode(reader))
+    assertEquals(-1, reader.nextTag())
+    reader.endMessageAndGetUnknownFields(token)
+  }
+
+  @Test fun byteArrayReaderTruncatedVarint() {
+    val reader = ProtoReader("08ff".decodeHex().toByteArray())
+    reader.beginMessage()
+    assertEquals(1, reader.nextTag())
+    assertFailsWith<EOFException> {
+      ProtoAdapter.INT64.decode(reader)
+    }
+  }
+
+  @Test fun sharingReaderReturnsEqualBytes() {
+    val large = "x".repeat(5000).encodeUtf8()
+    val small = "abc".encodeUtf8()
+    val buffer = Buffer()
+    val writer = ProtoWriter(buffer)
+    ProtoAdapter.BYTES.encodeWithTag(writer, 1, large)
+    ProtoAdapter.BYTES.encodeWithTag(writer, 2, small)
+    ProtoAdapter.BYTES.encodeWithTag(writer, 3, large)
+    val encoded = buffer.readByteString()
+
+    val reader = ProtoReader.sharing(Buffer().write(encoded))
+    val token = reader.beginMessage()
+    assertEquals(1, reader.nextTag())
+    assertEquals(large, ProtoAdapter.BYTES.decode(reader))
+    assertEquals(2, reader.nextTag())
+    assertEquals(small, ProtoAdapter.BYTES.decode(reader))
+    assertEquals(3, reader.nextTag())
+    reader.readUnknownField(3)
+    assertEquals(-1, reader.nextTag())
+    val unknownFields = reader.endMessageAndGetUnknownFields(token)
+    assertEquals(encoded.substring(encoded.size - unknownFields.size), unknownFields)
+  }
+
+  @Test fun maskSkipsExcludedFields() {
+    // 1: 150, 2: "abc", 3: { 1: "def", 2: 7 }, 4: fixed32 1.
+    val encoded = "08960112036162631a070a0364656610072501000000".decodeHex()
+    val mask = TagMask.Builder()
+      .add(1)
+      .add(3, 2)
+      .build()
+    assertEquals("[1, 3[2]]", mask.toString())
+
+    val reader = ProtoReader(encoded.toByteArray())
+    reader.applyMaskToNextMessage(mask)
+    val token = reader.beginMessage()
+    assertEquals(1, reader.nextTag())
+    assertEquals(150, ProtoAdapter.INT32.decode(reader))
+    assertEquals(3, reader.nextTag())
+    val nestedToken = reader.beginMessage()
+    assertEquals(2, reader.nextTag())
+    assertEquals(7, ProtoAdapter.INT32.decode(reader))
+    assertEquals(-1, reader.nextTag())
+    reader.endMessageAndGetUnknownFields(nestedToken)
+    assertEquals(-1, reader.nextTag())
+    reader.endMessageAndGetUnknownFields(token)
+  }
+
+  @Test fun maskIncludesEnclosingFieldEntirely() {
+    val mask = TagMask.Builder()
+      .add(3, 2)
+      .add(3)
+      .add(3, 1)
+      .build()
+    assertEquals("[3]", mask.toString())
+  }
+
+  @Test fun unknownFieldsNotRetained() {
+    // 1: 150, 2: "abc", 3: fixed32 1.
+    val encoded = "0896011203616263" + "1d01000000"
+    val reader = ProtoReader(Buffer().write(encoded.decodeHex()))
+    reader.retainUnknownFields = false
+    val token = reader.beginMessage()
+    assertEquals(1, reader.nextTag())
+    assertEquals(150, ProtoAdapter.INT32.decode(reader))
+    assertEquals(2, reader.nextTag())
+    reader.readUnknownField(2)
+    assertEquals(3, reader.nextTag())
+    reader.addUnknownField(3, FieldEncoding.FIXED32, ProtoAdapter.FIXED32.decode(reader))
+    assertEquals(-1, reader.nextTag())
+    assertEquals(ByteString.EMPTY, reader.endMessageAndGetUnknownFields(token))
+  }
+
+  @Test fun retainUnknownFieldsCannotChangeWithinMessage() {
+    val reader = ProtoReader(Buffer().write("0896".decodeHex()))
+    reader.beginMessage()
+    assertFailsWith<IllegalStateException> {
+      reader.retainUnknownFields = false
+    }
+  }
+
+  @Test fun varintsWithinAndAcrossSegments() {
+    // Field 1 fills the first segment so that field 2's value straddles the segment boundary.
+    val buffer = Buffer()
+    val writer = ProtoWriter(buffer)
+    ProtoAdapter.BYTES.encodeWithTag(writer, 1, ByteString.of(*ByteArray(8187)))
+    ProtoAdapter.INT32.encodeWithTag(writer, 2, 300)
+    ProtoAdapter.INT64.encodeWithTag(writer, 3, -1L)
+    ProtoAdapter.UINT64.encodeWithTag(writer, 4, Long.MAX_VALUE)
+
+    val reader = ProtoReader(buffer)
+    val token = reader.beginMessage()
+    assertEquals(1, reader.nextTag())
+    assertEquals(8187, ProtoAdapter.BYTES.decode(reader).size)
+    assertEquals(2, reader.nextTag())
+    assertEquals(300, ProtoAdapter.INT32.decode(reader))
+    assertEquals(3, reader.nextTag())
+    assertEquals(-1L, ProtoAdapter.INT64.decode(reader))
+    assertEquals(4, reader.nextTag())
+    assertEquals(Long.MAX_VALUE, ProtoAdapter.UINT64.decode(reader))
+    assertEquals(-1, reader.nextTag())
+    reader.endMessageAndGetUnknownFields(token)
+  }
 }
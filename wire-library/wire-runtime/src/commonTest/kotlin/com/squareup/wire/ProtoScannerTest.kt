@@ -0,0 +1,114 @@
+/*
+ * Copyright 2021 Square Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.wire
+
+import okio.Buffer
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class ProtoScannerTest {
+  private val bytes: ByteArray = Buffer().also { buffer ->
+    val writer = ProtoWriter(buffer)
+    ProtoAdapter.INT64.encodeWithTag(writer, 1, -2L)
+    ProtoAdapter.STRING.encodeWithTag(writer, 2, "hello")
+    ProtoAdapter.DURATION.encodeWithTag(writer, 3, durationOfSeconds(300L, 7L))
+    ProtoAdapter.FIXED32.encodeWithTag(writer, 4, 0x12345678)
+    ProtoAdapter.SFIXED64.encodeWithTag(writer, 5, -3L)
+  }.readByteArray()
+
+  @Test fun scanFields() {
+    val scanner = ProtoScanner(bytes)
+
+    assertTrue(scanner.next())
+    assertEquals(1, scanner.tag)
+    assertEquals(FieldEncoding.VARINT, scanner.fieldEncoding)
+    assertEquals(-2L, scanner.varintValue())
+
+    assertTrue(scanner.next())
+    assertEquals(2, scanner.tag)
+    assertEquals(FieldEncoding.LENGTH_DELIMITED, scanner.fieldEncoding)
+    val hello = bytes.decodeToString(
+      scanner.valueOffset,
+      scanner.valueOffset + scanner.valueByteCount
+    )
+    assertEquals("hello", hello)
+
+    assertTrue(scanner.next())
+    assertEquals(3, scanner.tag)
+    val duration = scanner.enter()
+    assertTrue(duration.next())
+    assertEquals(1, duration.tag)
+    assertEquals(300L, duration.varintValue())
+    assertTrue(duration.next())
+    assertEquals(2, duration.tag)
+    assertEquals(7L, duration.varintValue())
+    assertFalse(duration.next())
+
+    assertTrue(scanner.next())
+    assertEquals(4, scanner.tag)
+    assertEquals(0x12345678, scanner.fixed32Value())
+
+    assertTrue(scanner.next())
+    assertEquals(5, scanner.tag)
+    assertEquals(-3L, scanner.fixed64Value())
+
+    assertFalse(scanner.next())
+    assertEquals(-1, scanner.tag)
+  }
+
+  @Test fun scanSubrange() {
+    val padded = ByteArray(bytes.size + 4)
+    bytes.copyInto(padded, destinationOffset = 2)
+    val scanner = ProtoScanner(padded, 2, bytes.size)
+    val tags = mutableListOf<Int>()
+    while (scanner.next()) tags += scanner.tag
+    assertEquals(listOf(1, 2, 3, 4, 5), tags)
+  }
+
+  @Test fun visitor() {
+    val visited = mutableListOf<String>()
+    ProtoScanner(bytes).accept(object : ProtoScanner.Visitor {
+      override fun visitField(scanner: ProtoScanner): Boolean {
+        visited += "${scanner.tag}:${scanner.fieldEncoding}"
+        return scanner.tag == 3
+      }
+
+      override fun enterMessage(scanner: ProtoScanner) {
+        visited += "enter ${scanner.tag}"
+      }
+
+      override fun exitMessage(scanner: ProtoScanner) {
+        visited += "exit ${scanner.tag}"
+      }
+    })
+    assertEquals(
+      listOf(
+        "1:VARINT",
+        "2:LENGTH_DELIMITED",
+        "3:LENGTH_DELIMITED",
+        "enter 3",
+        "1:VARINT",
+        "2:VARINT",
+        "exit 3",
+        "4:FIXED32",
+        "5:FIXED64"
+      ),
+      visited
+    )
+  }
+}
@@ -285,4 +285,45 @@ class ReverseProtoWriterTest {
   companion object {
     const val SEGMENT_SIZE = 8192
   }
+
+  @Test fun reusedAfterWriteTo() {
+    val writer = ReverseProtoWriter()
+    for (value in listOf("abc", "", "x".repeat(10_000))) {
+      ProtoAdapter.STRING.encodeWithTag(writer, 1, value)
+      val buffer = Buffer()
+      writer.writeTo(buffer)
+      assertEquals(0, writer.byteCount)
+      assertEquals(ProtoAdapter.STRING.encodedSizeWithTag(1, value).toLong(), buffer.size)
+    }
+  }
+
+  @Test fun resetDiscardsPartialMessage() {
+    val writer = ReverseProtoWriter()
+    writer.writeString("x".repeat(10_000))
+    writer.reset()
+    assertEquals(0, writer.byteCount)
+
+    writer.writeString("abc")
+    val buffer = Buffer()
+    writer.writeTo(buffer)
+    assertEquals("abc".encodeUtf8(), buffer.readByteString())
+  }
+
+  @Test fun forwardEncodedMessagesCopiedOrMoved() {
+    val before = ReverseProtoWriter.forwardEncodedCount
+    for (nameLength in listOf(0, 10, 2_000, 3_000, 10_000, 20_000)) {
+      val task = Task("t".repeat(nameLength % 300), Person("p".repeat(nameLength), 1984))
+      val forward = Buffer().writeUtf8("x")
+      Task.ADAPTER.encode(ProtoWriter(forward), task)
+
+      val writer = ReverseProtoWriter()
+      Task.ADAPTER.encode(writer, task)
+      writer.writeString("x") // Forward-encoded data lands behind a partially-filled segment.
+      val reverse = Buffer()
+      writer.writeTo(reverse)
+
+      assertEquals(forward.readByteString(), reverse.readByteString())
+    }
+    assertEquals(before + 6, ReverseProtoWriter.forwardEncodedCount)
+  }
 }
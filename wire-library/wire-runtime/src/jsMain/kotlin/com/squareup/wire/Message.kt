@@ -32,6 +32,9 @@ protected actual constructor(
   /** If non-zero, the hash code of this message. Accessed by generated code. */
   @JsName("cachedHashCode") protected actual var hashCode = 0
 
+  /** If non-zero, the encoded size of this message. */
+  internal actual var cachedSerializedSize = 0
+
   /**
    * Returns a new builder initialized with the data in this message.
    */
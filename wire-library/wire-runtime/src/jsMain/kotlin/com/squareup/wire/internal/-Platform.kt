@@ -15,6 +15,7 @@
  */
 package com.squareup.wire.internal
 
+import com.squareup.wire.ReverseProtoWriter
 import okio.IOException
 
 actual interface Serializable
@@ -29,6 +30,27 @@ actual inline fun <T> MutableList<T>.toUnmodifiableList(): List<T> = this
 @Suppress("NOTHING_TO_INLINE") // Syntactic sugar.
 actual inline fun <K, V> MutableMap<K, V>.toUnmodifiableMap(): Map<K, V> = this
 
+private var pooledReverseProtoWriter: ReverseProtoWriter? = null
+
+internal actual fun takePooledReverseProtoWriter(): ReverseProtoWriter? {
+  val result = pooledReverseProtoWriter
+  pooledReverseProtoWriter = null
+  return result
+}
+
+internal actual fun releasePooledReverseProtoWriter(writer: ReverseProtoWriter) {
+  writer.reset()
+  pooledReverseProtoWriter = writer
+}
+
+private var forwardEncodedCounter = 0L
+
+internal actual fun incrementForwardEncodedCount() {
+  forwardEncodedCounter++
+}
+
+internal actual fun getForwardEncodedCount(): Long = forwardEncodedCounter
+
 // TODO: Use code points to process each char.
 actual fun camelCase(string: String, upperCamel: Boolean): String {
   return buildString(string.length) {
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2021 Square Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.wire
+
+import com.squareup.wire.internal.ProtocolException
+import com.squareup.wire.internal.readDelimitedLength
+import okio.EOFException
+import java.io.Closeable
+import java.io.File
+import java.io.IOException
+import java.io.RandomAccessFile
+import java.nio.Buffer
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+import java.util.Spliterator
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.RecursiveAction
+import java.util.function.Consumer
+
+/**
+ * A memory-mapped file of varint length-prefixed messages, as written by [DelimitedMessageSink].
+ *
+ * Opening the file reads each length prefix to divide the file into splits of about 1 MiB of
+ * consecutive messages. Splits are independent, so they can be decoded concurrently with
+ * [readAll], or with a parallel stream over [spliterator]:
+ *
+ * ```
+ * DelimitedMessageFile.open(file, Event.ADAPTER).use { events ->
+ *   StreamSupport.stream(events.spliterator(), true).forEach { ... }
+ * }
+ * ```
+ *
+ * Each split is copied from the mapping into an array with one bulk read, and decoded from that
+ * array. Instances of this class are safe for concurrent use.
+ */
+class DelimitedMessageFile<T : Any> private constructor(
+  private val channel: FileChannel,
+  private val adapter: ProtoAdapter<T>,
+  private val maxMessageSize: Int,
+  /** Mappings of the file. Each contains whole splits, and they may overlap. */
+  private val regions: Array<MappedByteBuffer>,
+  /** The index in [regions] of each split's mapping. */
+  private val splitRegions: IntArray,
+  /** The position in its mapping of each split's first byte. */
+  private val splitStarts: IntArray,
+  /** The size in bytes of each split. */
+  private val splitSizes: IntArray,
+  /** The index of each split's first message, plus the total message count at the end. */
+  private val splitFirstMessages: LongArray
+) : Closeable {
+  /** The number of independently-decodable ranges of messages in this file. */
+  val splitCount: Int
+    get() = splitSizes.size
+
+  /** The number of messages in this file. */
+  val messageCount: Long
+    get() = splitFirstMessages[splitCount]
+
+  /** Decodes and returns the messages of the split at [index]. */
+  @Throws(IOException::class)
+  fun readSplit(index: Int): List<T> {
+    val result = ArrayList<T>(
+      (splitFirstMessages[index + 1] - splitFirstMessages[index]).toInt()
+    )
+    forEachInSplit(index) { result += it }
+    return result
+  }
+
+  /** Decodes every split on [pool] and returns all messages in file order. */
+  @JvmOverloads
+  @Throws(IOException::class)
+  fun readAll(pool: ForkJoinPool = ForkJoinPool.commonPool()): List<T> {
+    val splits = arrayOfNulls<List<T>>(splitCount)
+    if (splits.isNotEmpty()) pool.invoke(ReadSplits(0, splits.size, splits))
+    val result = ArrayList<T>(Math.toIntExact(messageCount))
+    for (split in splits) result += split!!
+    return result
+  }
+
+  /**
+   * Returns a spliterator over this file's messages, for use with
+   * [java.util.stream.StreamSupport.stream]. It splits at split boundaries and decodes one split
+   * at a time.
+   */
+  fun spliterator(): Spliterator<T> = MessageSpliterator(0, splitCount)
+
+  /**
+   * Closes the file. Mappings are released when they're garbage collected, so messages must not
+   * be read after closing.
+   */
+  @Throws(IOException::class)
+  override fun close() {
+    channel.close()
+  }
+
+  private inline fun forEachInSplit(index: Int, action: (T) -> Unit) {
+    val array = ByteArray(splitSizes[index])
+    // Bulk reads are relative in Java 8, so position a view of the shared mapping.
+    val region = regions[splitRegions[index]].duplicate()
+    val regionView: Buffer = region
+    regionView.position(splitStarts[index])
+    region.get(array)
+
+    val reader = ProtoReader(array)
+    while (reader.nextDelimitedMessage(maxMessageSize) != -1L) {
+      action(adapter.decode(reader))
+    }
+  }
+
+  private inner class ReadSplits(
+    private val from: Int,
+    private val to: Int,
+    private val results: Array<List<T>?>
+  ) : RecursiveAction() {
+    override fun compute() {
+      if (to - from == 1) {
+        results[from] = readSplit(from)
+      } else {
+        val middle = (from + to) ushr 1
+        invokeAll(ReadSplits(from, middle, results), ReadSplits(middle, to, results))
+      }
+    }
+  }
+
+  private inner class MessageSpliterator(
+    private var nextSplit: Int,
+    private val endSplit: Int
+  ) : Spliterator<T> {
+    /** The decoded messages of the split before [nextSplit], or null if none has been decoded. */
+    private var current: List<T>? = null
+    private var currentIndex = 0
+
+    override fun tryAdvance(action: Consumer<in T>): Boolean {
+      var current = current
+      while (current == null || currentIndex == current.size) {
+        if (nextSplit == endSplit) return false
+        current = readSplit(nextSplit++)
+        this.current = current
+        currentIndex = 0
+      }
+      action.accept(current[currentIndex++])
+      return true
+    }
+
+    override fun forEachRemaining(action: Consumer<in T>) {
+      val current = current
+      if (current != null) {
+        while (currentIndex < current.size) action.accept(current[currentIndex++])
+      }
+      while (nextSplit < endSplit) {
+        forEachInSplit(nextSplit++) { action.accept(it) }
+      }
+    }
+
+    override fun trySplit(): Spliterator<T>? {
+      if (current != null || endSplit - nextSplit < 2) return null
+      val middle = (nextSplit + endSplit) ushr 1
+      val prefix = MessageSpliterator(nextSplit, middle)
+      nextSplit = middle
+      return prefix
+    }
+
+    override fun estimateSize(): Long {
+      val remainingInCurrent = current?.let { it.size - currentIndex } ?: 0
+      return splitFirstMessages[endSplit] - splitFirstMessages[nextSplit] + remainingInCurrent
+    }
+
+    override fun characteristics(): Int {
+      return Spliterator.ORDERED or Spliterator.SIZED or Spliterator.SUBSIZED or
+        Spliterator.NONNULL or Spliterator.IMMUTABLE
+    }
+  }
+
+  companion object {
+    /** Splits end after the first message that reaches this many bytes. */
+    private const val SPLIT_SIZE = 1 shl 20
+
+    /** Mappings are limited to 2 GiB, so large files are mapped in regions of this size. */
+    private const val REGION_SIZE = 1L shl 30
+
+    /**
+     * Maps [file] and indexes its messages. This reads the length prefix of every message, but
+     * doesn't decode any messages.
+     *
+     * @throws EOFException if the file ends partway through a message.
+     * @throws ProtocolException if a message is larger than [maxMessageSize] or 1 GiB.
+     */
+    @JvmStatic
+    @JvmOverloads
+    @Throws(IOException::class)
+    fun <T : Any> open(
+      file: File,
+      adapter: ProtoAdapter<T>,
+      maxMessageSize: Int = Int.MAX_VALUE
+    ): DelimitedMessageFile<T> {
+      val channel = RandomAccessFile(file, "r").channel
+      try {
+        return index(channel, adapter, maxMessageSize)
+      } catch (e: Throwable) {
+        channel.close()
+        throw e
+      }
+    }
+
+    private fun <T : Any> index(
+      channel: FileChannel,
+      adapter: ProtoAdapter<T>,
+      maxMessageSize: Int
+    ): DelimitedMessageFile<T> {
+      val fileSize = channel.size()
+      val regions = mutableListOf<MappedByteBuffer>()
+      val splitRegions = IntArrayList()
+      val splitStarts = IntArrayList()
+      val splitSizes = IntArrayList()
+      val splitFirstMessages = mutableListOf(0L)
+      var messageCount = 0L
+
+      var regionStart = 0L
+      while (regionStart < fileSize) {
+        val regionSize = minOf(fileSize - regionStart, REGION_SIZE).toInt()
+        val region = channel.map(FileChannel.MapMode.READ_ONLY, regionStart, regionSize.toLong())
+        val isLastRegion = regionStart + regionSize == fileSize
+
+        // Index the messages that are entirely within this region.
+        var pos = 0
+        var splitStart = 0
+        while (pos < regionSize) {
+          val messageEnd = region.delimitedMessageEnd(pos, maxMessageSize)
+          if (messageEnd > regionSize || messageEnd == -1L) {
+            if (isLastRegion) throw EOFException("file ended partway through a message")
+            if (pos == 0) throw ProtocolException("message exceeds $REGION_SIZE bytes")
+            break // Index this message in the next region.
+          }
+          pos = messageEnd.toInt()
+          messageCount++
+          if (pos - splitStart >= SPLIT_SIZE) {
+            splitRegions += regions.size
+            splitStarts += splitStart
+            splitSizes += pos - splitStart
+            splitFirstMessages += messageCount
+            splitStart = pos
+          }
+        }
+        if (splitStart < pos) {
+          splitRegions += regions.size
+          splitStarts += splitStart
+          splitSizes += pos - splitStart
+          splitFirstMessages += messageCount
+        }
+        regions += region
+        regionStart += pos
+      }
+
+      return DelimitedMessageFile(
+        channel,
+        adapter,
+        maxMessageSize,
+        regions.toTypedArray(),
+        splitRegions.toIntArray(),
+        splitStarts.toIntArray(),
+        splitSizes.toIntArray(),
+        splitFirstMessages.toLongArray()
+      )
+    }
+
+    /**
+     * Returns the position after the message whose length prefix starts at [pos], or -1 if the
+     * prefix runs past the end of this buffer.
+     */
+    private fun MappedByteBuffer.delimitedMessageEnd(pos: Int, maxMessageSize: Int): Long {
+      var i = pos
+      val length = readDelimitedLength(maxMessageSize) {
+        if (i < limit()) get(i++).toInt() and 0xff else -1
+      }
+      if (length == -1) return -1L
+      return i.toLong() + length
+    }
+  }
+
+  /** A growable list of ints that doesn't box them. */
+  private class IntArrayList {
+    private var values = IntArray(16)
+    private var size = 0
+
+    operator fun plusAssign(value: Int) {
+      if (size == values.size) values = values.copyOf(size * 2)
+      values[size++] = value
+    }
+
+    fun toIntArray(): IntArray = values.copyOf(size)
+  }
+}
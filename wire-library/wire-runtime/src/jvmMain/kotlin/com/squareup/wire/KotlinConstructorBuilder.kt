@@ -15,63 +15,88 @@
  */
 package com.squareup.wire
 
+import com.squareup.wire.internal.coercePrimitiveList
+import java.lang.reflect.Constructor
+
 internal class KotlinConstructorBuilder<M : Message<M, B>, B : Message.Builder<M, B>>(
-  private val messageType: Class<M>,
+  private val metadata: Metadata<M>,
 ) : Message.Builder<M, B>() {
-  private val fieldValueMap: MutableMap<Int, Pair<WireField, Any?>>
-  private val repeatedFieldValueMap: MutableMap<Int, Pair<WireField, MutableList<*>>>
-
-  init {
-    val fieldCount = messageType.declaredFields.size
-    fieldValueMap = LinkedHashMap(fieldCount)
-    repeatedFieldValueMap = LinkedHashMap(fieldCount)
-  }
+  /** Field values in constructor parameter order. Null for fields that haven't been set. */
+  private val values = arrayOfNulls<Any?>(metadata.fields.size)
 
   fun set(
     field: WireField,
     value: Any?
   ) {
-    if (field.label.isRepeated) {
-      repeatedFieldValueMap[field.tag] = field to (value as MutableList<*>)
-    } else {
-      fieldValueMap[field.tag] = field to value
-      if (value != null && field.label.isOneOf) {
-        clobberOtherIsOneOfs(field)
+    val index = metadata.indexOf(field.tag)
+    values[index] = value
+    if (value != null && field.label.isOneOf) {
+      // Setting a oneof field clears the other fields of its oneof.
+      for (other in metadata.oneOfSiblings[index]!!) {
+        values[other] = null
       }
     }
   }
 
-  private fun clobberOtherIsOneOfs(field: WireField) {
-    fieldValueMap.values
-        .map { it.first }
-        .filter { it.oneofName == field.oneofName && it.tag != field.tag }
-        .forEach {
-          fieldValueMap.remove(it.tag)
-        }
-  }
-
   fun get(field: WireField): Any? {
-    return if (field.label.isRepeated) {
-      repeatedFieldValueMap[field.tag]?.second ?: emptyList<Any>()
-    } else {
-      fieldValueMap[field.tag]?.second
-    }
+    val value = values[metadata.indexOf(field.tag)]
+    return if (value == null && field.label.isRepeated) emptyList<Any>() else value
   }
 
   @Suppress("UNCHECKED_CAST")
   override fun build(): M {
-    val args = messageType.declaredWireFields()
-        .map(::get)
-        .plus(buildUnknownFields())
+    val fields = metadata.fields
+    val parameterTypes = metadata.parameterTypes
+    val args = arrayOfNulls<Any?>(fields.size + 1)
+    for (i in fields.indices) {
+      val value = values[i] ?: if (fields[i].label.isRepeated) emptyList<Any>() else null
+      args[i] = coercePrimitiveList(parameterTypes[i], value)
+    }
+    args[fields.size] = buildUnknownFields()
+    return metadata.constructor.newInstance(*args) as M
+  }
+
+  /**
+   * The reflective view of a message class that builders need. This is computed once per message
+   * type and shared by all of its builders.
+   */
+  class Metadata<M>(messageType: Class<M>) {
+    @Suppress("UNCHECKED_CAST")
+    val constructor = messageType.declaredConstructors.first() as Constructor<M>
+    val parameterTypes: Array<Class<*>> = constructor.parameterTypes
+
+    /** The message's fields in constructor parameter order. */
+    val fields: Array<WireField> = messageType.declaredFields
+        .mapNotNull {
+          it.declaredAnnotations.filterIsInstance(WireField::class.java).firstOrNull()
+        }
         .toTypedArray()
 
-    val constructor = messageType.declaredConstructors.first()
+    /** The sorted tags of [fields], and the index in [fields] of each. */
+    private val sortedTags: IntArray
+    private val sortedIndexes: IntArray
 
-    return constructor.newInstance(*args) as M
-  }
+    /** For each oneof field, the indexes of the other fields in its oneof. Null for other fields. */
+    val oneOfSiblings: Array<IntArray?>
+
+    init {
+      val byTag = fields.indices.sortedBy { fields[it].tag }
+      sortedTags = IntArray(byTag.size) { fields[byTag[it]].tag }
+      sortedIndexes = byTag.toIntArray()
 
-  private fun Class<M>.declaredWireFields() = declaredFields
-      .mapNotNull {
-        it.declaredAnnotations.filterIsInstance(WireField::class.java).firstOrNull()
+      oneOfSiblings = Array(fields.size) { index ->
+        val field = fields[index]
+        if (!field.label.isOneOf) return@Array null
+        fields.indices
+            .filter { it != index && fields[it].oneofName == field.oneofName }
+            .toIntArray()
       }
+    }
+
+    fun indexOf(tag: Int): Int {
+      val position = sortedTags.binarySearch(tag)
+      require(position >= 0) { "unexpected tag: $tag" }
+      return sortedIndexes[position]
+    }
+  }
 }
@@ -45,7 +45,7 @@ protected actual constructor(
     }
 
   /** If not `0` then the serialized size of this message. */
-  @Transient internal var cachedSerializedSize = 0
+  @Transient internal actual var cachedSerializedSize = 0
 
   /** If non-zero, the hash code of this message. Accessed by generated code. */
   @Transient @JvmField protected actual var hashCode = 0
@@ -25,6 +25,12 @@ import okio.source
 import java.io.IOException
 import java.io.InputStream
 import java.io.OutputStream
+import java.nio.BufferOverflowException
+import java.nio.ByteBuffer
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executor
 import kotlin.reflect.KClass
 
 actual abstract class ProtoAdapter<E> actual constructor(
@@ -130,6 +136,50 @@ actual abstract class ProtoAdapter<E> actual constructor(
     return commonEncodeByteString(value)
   }
 
+  actual fun encode(value: E, destination: ByteArray, offset: Int): Int {
+    return commonEncode(value, destination, offset)
+  }
+
+  actual fun encodeAll(values: List<E>): List<ByteString> {
+    return commonEncodeAll(values)
+  }
+
+  /**
+   * Encode each of `values` as a [ByteString], in up to `parallelism + 1` batches that run
+   * concurrently. The first batch runs on the calling thread and the others on `executor`, which
+   * should be able to run `parallelism` tasks at once. Each batch reuses one writer. Lists too
+   * short to fill two batches are encoded entirely on the calling thread.
+   */
+  fun encodeAll(values: List<E>, executor: Executor, parallelism: Int): List<ByteString> {
+    return runInBatches(values.size, executor, parallelism) { fromIndex, toIndex ->
+      commonEncodeAll(values, fromIndex, toIndex)
+    }
+  }
+
+  /**
+   * Encode `value` into `destination` at its position, advance the position past it, and return
+   * the number of bytes written. Heap buffers are encoded into directly. The encoder writes
+   * backwards into byte arrays, so direct buffers are encoded into an array of exactly the encoded
+   * size which is then copied with one bulk put.
+   *
+   * @throws BufferOverflowException if the encoded value doesn't fit in the buffer's remaining
+   *     bytes. The buffer is unchanged in that case.
+   */
+  fun encode(value: E, destination: ByteBuffer): Int {
+    val byteCount = encodedSize(value)
+    if (byteCount > destination.remaining()) throw BufferOverflowException()
+    if (destination.hasArray()) {
+      val offset = destination.arrayOffset() + destination.position()
+      commonEncode(value, destination.array(), offset, byteCount)
+      destination.position(destination.position() + byteCount)
+    } else {
+      val array = ByteArray(byteCount)
+      commonEncode(value, array, 0, byteCount)
+      destination.put(array)
+    }
+    return byteCount
+  }
+
   @Throws(IOException::class)
   fun encode(stream: OutputStream, value: E) {
     val buffer = stream.sink().buffer()
@@ -155,9 +205,56 @@ actual abstract class ProtoAdapter<E> actual constructor(
     return commonDecode(source)
   }
 
+  @Throws(IOException::class)
+  actual fun decode(reader: ProtoReader, mask: TagMask): E {
+    return commonDecode(reader, mask)
+  }
+
+  @Throws(IOException::class)
+  actual fun decode(bytes: ByteArray, mask: TagMask): E {
+    return commonDecode(ProtoReader(bytes), mask)
+  }
+
+  @Throws(IOException::class)
+  actual fun decodeSharing(bytes: ByteString): E {
+    return commonDecodeSharing(bytes)
+  }
+
+  @Throws(IOException::class)
+  actual fun decodeSharing(source: BufferedSource): E {
+    return commonDecodeSharing(source)
+  }
+
+  @Throws(IOException::class)
+  actual fun decodeAll(encoded: List<ByteString>): List<E> {
+    return commonDecodeAll(encoded)
+  }
+
+  /**
+   * Read each of `encoded` as a message, in up to `parallelism + 1` batches that run concurrently.
+   * The first batch runs on the calling thread and the others on `executor`, which should be able
+   * to run `parallelism` tasks at once. Each batch reuses one reader. Lists too short to fill two
+   * batches are decoded entirely on the calling thread.
+   */
+  @Throws(IOException::class)
+  fun decodeAll(encoded: List<ByteString>, executor: Executor, parallelism: Int): List<E> {
+    return runInBatches(encoded.size, executor, parallelism) { fromIndex, toIndex ->
+      commonDecodeAll(encoded, fromIndex, toIndex)
+    }
+  }
+
   @Throws(IOException::class)
   fun decode(stream: InputStream): E = decode(stream.source().buffer())
 
+  @Throws(IOException::class)
+  actual fun decodeRepeated(reader: ProtoReader, destination: MutableList<E>) {
+    commonDecodeRepeated(reader, destination)
+  }
+
+  actual fun decodeRepeatedField(source: BufferedSource, tag: Int): Sequence<E> {
+    return commonDecodeRepeatedField(source, tag)
+  }
+
   actual open fun toString(value: E): String {
     return commonToString(value)
   }
@@ -233,13 +330,8 @@ actual abstract class ProtoAdapter<E> actual constructor(
 
     /** Returns the adapter for `type`. */
     @JvmStatic fun <M> get(type: Class<M>): ProtoAdapter<M> {
-      try {
-        return type.getField("ADAPTER").get(null) as ProtoAdapter<M>
-      } catch (e: IllegalAccessException) {
-        throw IllegalArgumentException("failed to access ${type.name}#ADAPTER", e)
-      } catch (e: NoSuchFieldException) {
-        throw IllegalArgumentException("failed to access ${type.name}#ADAPTER", e)
-      }
+      val adapter = adaptersByClass?.get(type) ?: readAdapterField(type)
+      return adapter as ProtoAdapter<M>
     }
 
     /**
@@ -248,6 +340,39 @@ actual abstract class ProtoAdapter<E> actual constructor(
      * `com.squareup.wire.protos.person.Person#ADAPTER`.
      */
     @JvmStatic fun get(adapterString: String): ProtoAdapter<*> {
+      return adaptersByString.getOrPut(adapterString) { readAdapterField(adapterString) }
+    }
+
+    /**
+     * Adapters by message type. A [ClassValue] doesn't prevent the types' class loaders from being
+     * unloaded. It is null on Android versions that don't have ClassValue, which don't unload
+     * classes either; lookups there aren't cached.
+     */
+    private val adaptersByClass: ClassValue<ProtoAdapter<*>>? = try {
+      object : ClassValue<ProtoAdapter<*>>() {
+        override fun computeValue(type: Class<*>) = readAdapterField(type)
+      }
+    } catch (_: NoClassDefFoundError) {
+      null
+    }
+
+    /**
+     * Adapters by adapter string. These are always loaded by Wire's own class loader or one of its
+     * parents, so holding them strongly can't keep any other class loader alive.
+     */
+    private val adaptersByString = ConcurrentHashMap<String, ProtoAdapter<*>>()
+
+    private fun readAdapterField(type: Class<*>): ProtoAdapter<*> {
+      try {
+        return type.getField("ADAPTER").get(null) as ProtoAdapter<*>
+      } catch (e: IllegalAccessException) {
+        throw IllegalArgumentException("failed to access ${type.name}#ADAPTER", e)
+      } catch (e: NoSuchFieldException) {
+        throw IllegalArgumentException("failed to access ${type.name}#ADAPTER", e)
+      }
+    }
+
+    private fun readAdapterField(adapterString: String): ProtoAdapter<*> {
       try {
         val hash = adapterString.indexOf('#')
         val className = adapterString.substring(0, hash)
@@ -322,3 +447,41 @@ actual abstract class ProtoAdapter<E> actual constructor(
     }
   }
 }
+
+/** The fewest values worth handing to another thread. Smaller batches cost more than they save. */
+private const val MIN_BATCH_SIZE = 256
+
+/**
+ * Splits `[0..size)` into at most `parallelism + 1` consecutive batches, calls [block] for each
+ * batch, and returns the concatenated results. The first batch runs on the calling thread and the
+ * others on [executor].
+ */
+private inline fun <T> runInBatches(
+  size: Int,
+  executor: Executor,
+  parallelism: Int,
+  crossinline block: (fromIndex: Int, toIndex: Int) -> List<T>
+): List<T> {
+  require(parallelism >= 1) { "parallelism < 1: $parallelism" }
+  if (size < MIN_BATCH_SIZE * 2) return block(0, size)
+
+  val threads = parallelism + 1
+  val batchSize = maxOf(MIN_BATCH_SIZE, (size + threads - 1) / threads)
+  val batchCount = (size + batchSize - 1) / batchSize
+  val futures = List(batchCount - 1) { i ->
+    val fromIndex = (i + 1) * batchSize
+    val toIndex = minOf(fromIndex + batchSize, size)
+    CompletableFuture.supplyAsync({ block(fromIndex, toIndex) }, executor)
+  }
+
+  val result = ArrayList<T>(size)
+  result += block(0, batchSize)
+  for (future in futures) {
+    try {
+      result += future.join()
+    } catch (e: CompletionException) {
+      throw e.cause ?: e
+    }
+  }
+  return result
+}
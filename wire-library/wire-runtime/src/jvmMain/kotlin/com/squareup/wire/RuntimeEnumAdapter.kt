@@ -17,6 +17,7 @@ package com.squareup.wire
 
 import com.squareup.wire.internal.identityOrNull
 import java.lang.reflect.Method
+import kotlin.LazyThreadSafetyMode.PUBLICATION
 
 /**
  * Converts values of an enum to and from integers using reflection.
@@ -36,12 +37,56 @@ class RuntimeEnumAdapter<E : WireEnum> internal constructor(
     }
   }
 
-  override fun fromValue(value: Int): E? = getFromValueMethod().invoke(null, value) as E
+  /** Constants by value, or null if [javaType] isn't a Java enum. Built on first decode. */
+  private val constantTable: ConstantTable<E>? by lazy(PUBLICATION) {
+    val constants = javaType.enumConstants ?: return@lazy null
+    // Ask fromValue() once per value so aliased values resolve exactly as it resolves them.
+    val values = constants.map { it.value }.distinct().sorted().toIntArray()
+    ConstantTable.create(values) { getFromValueMethod().invoke(null, it) as E? }
+  }
+
+  override fun fromValue(value: Int): E? {
+    val table = constantTable ?: return getFromValueMethod().invoke(null, value) as E?
+    return table[value]
+  }
 
   override fun equals(other: Any?) = other is RuntimeEnumAdapter<*> && other.type == type
 
   override fun hashCode() = type.hashCode()
 
+  /**
+   * Maps enum values to constants without reflection or boxing. Dense values are looked up by
+   * array index, and sparse ones by binary search over a sorted array.
+   */
+  private class ConstantTable<E>(
+    /** The sorted values, or null if [constants] is indexed by `value - minValue`. */
+    private val values: IntArray?,
+    private val minValue: Int,
+    private val constants: Array<Any?>
+  ) {
+    @Suppress("UNCHECKED_CAST")
+    operator fun get(value: Int): E? {
+      val index = if (values == null) value - minValue else values.binarySearch(value)
+      return if (index >= 0 && index < constants.size) constants[index] as E? else null
+    }
+
+    companion object {
+      fun <E> create(values: IntArray, constant: (Int) -> E?): ConstantTable<E> {
+        if (values.isEmpty()) return ConstantTable(null, 0, arrayOfNulls(0))
+
+        val minValue = values.first()
+        val range = values.last().toLong() - minValue + 1
+        if (range <= values.size * 2L + 16L) {
+          val constants = arrayOfNulls<Any?>(range.toInt())
+          for (value in values) constants[value - minValue] = constant(value)
+          return ConstantTable(null, minValue, constants)
+        }
+
+        return ConstantTable(values, 0, Array(values.size) { constant(values[it]) })
+      }
+    }
+  }
+
   companion object {
     @JvmStatic fun <E : WireEnum> create(
       enumType: Class<E>
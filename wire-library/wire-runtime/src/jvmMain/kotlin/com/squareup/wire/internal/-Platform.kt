@@ -15,7 +15,9 @@
  */
 package com.squareup.wire.internal
 
+import com.squareup.wire.ReverseProtoWriter
 import java.util.Collections
+import java.util.concurrent.atomic.LongAdder
 
 actual typealias Serializable = java.io.Serializable
 
@@ -33,6 +35,28 @@ actual inline fun <T> MutableList<T>.toUnmodifiableList(): List<T> =
 actual inline fun <K, V> MutableMap<K, V>.toUnmodifiableMap(): Map<K, V> =
     Collections.unmodifiableMap(this)
 
+private val pooledReverseProtoWriter = ThreadLocal<ReverseProtoWriter?>()
+
+internal actual fun takePooledReverseProtoWriter(): ReverseProtoWriter? {
+  val result = pooledReverseProtoWriter.get() ?: return null
+  pooledReverseProtoWriter.set(null)
+  return result
+}
+
+internal actual fun releasePooledReverseProtoWriter(writer: ReverseProtoWriter) {
+  writer.reset()
+  pooledReverseProtoWriter.set(writer)
+}
+
+// A LongAdder spreads concurrent increments across cells, so encoding threads don't contend on it.
+private val forwardEncodedCounter = LongAdder()
+
+internal actual fun incrementForwardEncodedCount() {
+  forwardEncodedCounter.increment()
+}
+
+internal actual fun getForwardEncodedCount(): Long = forwardEncodedCounter.sum()
+
 actual fun camelCase(string: String, upperCamel: Boolean): String {
   return buildString(string.length) {
     var index = 0
@@ -16,6 +16,7 @@
 package com.squareup.wire.internal
 
 import com.squareup.wire.KotlinConstructorBuilder
+import com.squareup.wire.LazyMessage
 import com.squareup.wire.Message
 import com.squareup.wire.ProtoAdapter
 import com.squareup.wire.WireField
@@ -44,6 +45,7 @@ class FieldBinding<M : Message<M, B>, B : Message.Builder<M, B>> internal constr
   private val builderSetter = getBuilderSetter(builderType, wireField)
   private val builderGetter = getBuilderGetter(builderType, wireField)
   private val instanceGetter = getInstanceGetter(messageType)
+  private val isLazy = messageField.type == LazyMessage::class.java
 
   override val keyAdapter: ProtoAdapter<*>
     get() = ProtoAdapter.get(keyAdapterString)
@@ -79,7 +81,7 @@ class FieldBinding<M : Message<M, B>, B : Message.Builder<M, B>> internal constr
           throw AssertionError("No builder field ${builderType.name}.$name")
         }
         { builder, value ->
-          field.set(builder, value)
+          field.set(builder, coercePrimitiveList(field.type, value))
         }
       }
     }
@@ -129,28 +131,42 @@ class FieldBinding<M : Message<M, B>, B : Message.Builder<M, B>> internal constr
           }
         }
       }
-      keyAdapterString.isNotEmpty() -> {
-        when (val map = getFromBuilder(builder)) {
-          is MutableMap<*, *> -> map.putAll(value as Map<Nothing, Nothing>)
-          is Map<*, *> -> {
-            val mutableMap = map.toMutableMap()
-            mutableMap.putAll(value as Map<out Any?, Any?>)
-            set(builder, mutableMap)
-          }
-          else -> {
-            val type = map?.let { it::class.java }
-            throw ClassCastException("Expected a map type, got $type.")
-          }
-        }
-      }
+      keyAdapterString.isNotEmpty() -> mutableMapFromBuilder(builder).putAll(value as Map<Any, Any>)
       else -> set(builder, value)
     }
   }
 
+  @Suppress("UNCHECKED_CAST")
+  override fun mutableMapFromBuilder(builder: B): MutableMap<Any, Any> {
+    return when (val map = getFromBuilder(builder)) {
+      is MutableMap<*, *> -> map as MutableMap<Any, Any>
+      is Map<*, *> -> {
+        val mutableMap = (map as Map<Any, Any>).toMutableMap()
+        set(builder, mutableMap)
+        mutableMap
+      }
+      else -> {
+        val type = map?.let { it::class.java }
+        throw ClassCastException("Expected a map type, got $type.")
+      }
+    }
+  }
+
   /** Assign a single value for required/optional fields, or a list for repeated/packed fields. */
-  override fun set(builder: B, value: Any?) = builderSetter(builder, value)
+  override fun set(builder: B, value: Any?) = builderSetter(builder, wrapLazy(value))
+
+  override operator fun get(message: M): Any? = unwrapLazy(instanceGetter(message))
 
-  override operator fun get(message: M): Any? = instanceGetter(message)
+  override fun getFromBuilder(builder: B): Any? = unwrapLazy(builderGetter(builder))
 
-  override fun getFromBuilder(builder: B): Any? = builderGetter(builder)
+  /** Lazy fields hold a [LazyMessage]; callers of this binding only ever see the message. */
+  @Suppress("UNCHECKED_CAST")
+  private fun wrapLazy(value: Any?): Any? {
+    if (!isLazy || value == null || value is LazyMessage<*>) return value
+    return LazyMessage.of(singleAdapter as ProtoAdapter<Any>, value)
+  }
+
+  private fun unwrapLazy(value: Any?): Any? {
+    return if (isLazy) (value as LazyMessage<*>?)?.value else value
+  }
 }
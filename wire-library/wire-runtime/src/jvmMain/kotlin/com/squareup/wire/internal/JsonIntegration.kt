@@ -56,8 +56,7 @@ abstract class JsonIntegration<F, A> {
     adapter: RuntimeMessageAdapter<M, B>,
     framework: F
   ): List<A> {
-    val fieldBindings = adapter.fields.values.toTypedArray()
-    return fieldBindings.map { jsonAdapter(framework, adapter.syntax, it) }
+    return adapter.fieldBindingsArray.map { jsonAdapter(framework, adapter.syntax, it) }
   }
 
   /** Returns a JSON adapter for [field]. */
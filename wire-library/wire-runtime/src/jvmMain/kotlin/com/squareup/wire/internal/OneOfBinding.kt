@@ -62,6 +62,8 @@ internal class OneOfBinding<M : Message<M, B>, B : Message.Builder<M, B>> intern
     set(builder, value)
   }
 
+  override fun mutableMapFromBuilder(builder: B): MutableMap<Any, Any> = error("not a map")
+
   override fun set(builder: B, value: Any?) {
     builderField.set(builder, OneOf(key as OneOf.Key<Any>, value!!))
   }
@@ -15,15 +15,26 @@
  */
 package com.squareup.wire.internal
 
+import com.squareup.wire.BooleanList
+import com.squareup.wire.DoubleList
 import com.squareup.wire.FieldEncoding
+import com.squareup.wire.FloatList
+import com.squareup.wire.IntList
 import com.squareup.wire.KotlinConstructorBuilder
+import com.squareup.wire.LongList
 import com.squareup.wire.Message
 import com.squareup.wire.OneOf
 import com.squareup.wire.ProtoAdapter
 import com.squareup.wire.Syntax
 import com.squareup.wire.WireField
+import com.squareup.wire.toBooleanList
+import com.squareup.wire.toDoubleList
+import com.squareup.wire.toFloatList
+import com.squareup.wire.toIntList
+import com.squareup.wire.toLongList
 import java.lang.reflect.Field
 import java.util.Collections
+import kotlin.LazyThreadSafetyMode.PUBLICATION
 import kotlin.reflect.KClass
 
 fun <M : Message<M, B>, B : Message.Builder<M, B>> createRuntimeMessageAdapter(
@@ -32,24 +43,25 @@ fun <M : Message<M, B>, B : Message.Builder<M, B>> createRuntimeMessageAdapter(
   syntax: Syntax
 ): RuntimeMessageAdapter<M, B> {
   val builderType = getBuilderType(messageType)
-  val newBuilderInstance: () -> B = {
+  val newBuilderInstance: () -> B =
     if (builderType.isAssignableFrom(KotlinConstructorBuilder::class.java)) {
-      KotlinConstructorBuilder(messageType) as B
+      KotlinConstructorBuilder.Metadata(messageType).let { metadata ->
+        { KotlinConstructorBuilder(metadata) as B }
+      }
     } else {
-      builderType.newInstance()
+      { builderType.newInstance() }
     }
-  }
 
-  val fields = LinkedHashMap<Int, FieldOrOneOfBinding<M, B>>()
+  val fields = ArrayList<FieldOrOneOfBinding<M, B>>()
 
   // Create tag bindings for fields annotated with '@WireField'.
   for (messageField in messageType.declaredFields) {
     val wireField = messageField.getAnnotation(WireField::class.java)
     if (wireField != null) {
-      fields[wireField.tag] = FieldBinding(wireField, messageType, messageField, builderType)
+      fields += FieldBinding(wireField, messageType, messageField, builderType)
     } else if (messageField.type == OneOf::class.java) {
       for (key in getKeys<M, B>(messageField)) {
-        fields[key.tag] = OneOfBinding(messageField, builderType, key)
+        fields += OneOfBinding(messageField, builderType, key)
       }
     }
   }
@@ -59,10 +71,11 @@ fun <M : Message<M, B>, B : Message.Builder<M, B>> createRuntimeMessageAdapter(
       messageType.kotlin,
       builderType,
       newBuilderInstance,
-      Collections.unmodifiableMap(fields),
+      fields,
       typeUrl,
       syntax
-    )
+    ),
+    fields.toTypedArray()
   )
 }
 
@@ -99,10 +112,14 @@ private class RuntimeMessageBinding<M : Message<M, B>, B : Message.Builder<M, B>
   override val messageType: KClass<M>,
   private val builderType: Class<B>,
   private val createBuilder: () -> B,
-  override val fields: Map<Int, FieldOrOneOfBinding<M, B>>,
+  private val fieldBindings: List<FieldOrOneOfBinding<M, B>>,
   override val typeUrl: String?,
   override val syntax: Syntax
 )  : MessageBinding<M, B> {
+  // The adapter decodes with its own tag table, so this map is only built if it's asked for.
+  override val fields: Map<Int, FieldOrOneOfBinding<M, B>> by lazy(PUBLICATION) {
+    Collections.unmodifiableMap(fieldBindings.associateByTo(LinkedHashMap()) { it.tag })
+  }
 
   override fun unknownFields(message: M) = message.unknownFields
 
@@ -126,3 +143,21 @@ private class RuntimeMessageBinding<M : Message<M, B>, B : Message.Builder<M, B>
     builder.clearUnknownFields()
   }
 }
+
+/**
+ * Returns [value] as a [type] if that is a primitive-backed list like [IntList] and [value] is some
+ * other list. Generated code declares these types for repeated scalars when the
+ * `primitiveRepeatedFields` option is enabled, but reflection builds those fields as plain lists.
+ */
+@Suppress("UNCHECKED_CAST")
+internal fun coercePrimitiveList(type: Class<*>, value: Any?): Any? {
+  if (value !is List<*> || type.isInstance(value)) return value
+  return when (type) {
+    IntList::class.java -> (value as List<Int>).toIntList()
+    LongList::class.java -> (value as List<Long>).toLongList()
+    FloatList::class.java -> (value as List<Float>).toFloatList()
+    DoubleList::class.java -> (value as List<Double>).toDoubleList()
+    BooleanList::class.java -> (value as List<Boolean>).toBooleanList()
+    else -> value
+  }
+}
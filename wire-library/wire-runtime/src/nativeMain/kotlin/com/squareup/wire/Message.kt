@@ -36,6 +36,13 @@ protected actual constructor(
       // Do nothing to avoid IllegalImmutabilityException.
     }
 
+  /** If non-zero, the encoded size of this message. */
+  @Suppress("SetterBackingFieldAssignment")
+  internal actual var cachedSerializedSize = 0
+    set(value) {
+      // Do nothing to avoid IllegalImmutabilityException.
+    }
+
   /**
    * Returns a new builder initialized with the data in this message.
    */
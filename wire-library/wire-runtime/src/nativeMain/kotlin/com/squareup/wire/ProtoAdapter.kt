@@ -89,6 +89,16 @@ actual abstract class ProtoAdapter<E> actual constructor(
     return commonEncodeByteString(value)
   }
 
+  /** Encode `value` into `destination` at `offset`, returning the number of bytes written. */
+  actual fun encode(value: E, destination: ByteArray, offset: Int): Int {
+    return commonEncode(value, destination, offset)
+  }
+
+  /** Encode each of `values` as a [ByteString], reusing one writer. */
+  actual fun encodeAll(values: List<E>): List<ByteString> {
+    return commonEncodeAll(values)
+  }
+
   /** Read a non-null value from `reader`. */
   actual abstract fun decode(reader: ProtoReader): E
 
@@ -107,6 +117,45 @@ actual abstract class ProtoAdapter<E> actual constructor(
     return commonDecode(source)
   }
 
+  /** Read a message from `reader`, decoding only the fields included in `mask`. */
+  actual fun decode(reader: ProtoReader, mask: TagMask): E {
+    return commonDecode(reader, mask)
+  }
+
+  /** Read an encoded message from `bytes`, decoding only the fields included in `mask`. */
+  actual fun decode(bytes: ByteArray, mask: TagMask): E {
+    return commonDecode(ProtoReader(bytes), mask)
+  }
+
+  /** Read an encoded message from `bytes`, sharing its memory with large `bytes` fields. */
+  actual fun decodeSharing(bytes: ByteString): E {
+    return commonDecodeSharing(bytes)
+  }
+
+  /** Read an encoded message from `source`, sharing its memory with large `bytes` fields. */
+  actual fun decodeSharing(source: BufferedSource): E {
+    return commonDecodeSharing(source)
+  }
+
+  /** Read each of `encoded` as a message, reusing one reader. */
+  actual fun decodeAll(encoded: List<ByteString>): List<E> {
+    return commonDecodeAll(encoded)
+  }
+
+  /**
+   * Read one or more values of a repeated field from `reader` and add them to `destination`. If the
+   * value is packed this reads the entire packed run in a single call; otherwise this reads a
+   * single value.
+   */
+  actual fun decodeRepeated(reader: ProtoReader, destination: MutableList<E>) {
+    commonDecodeRepeated(reader, destination)
+  }
+
+  /** Returns the values of repeated field `tag` of the message in `source`, decoding lazily. */
+  actual fun decodeRepeatedField(source: BufferedSource, tag: Int): Sequence<E> {
+    return commonDecodeRepeatedField(source, tag)
+  }
+
   /** Returns a human-readable version of the given `value`. */
   actual open fun toString(value: E): String {
     return commonToString(value)
@@ -15,7 +15,11 @@
  */
 package com.squareup.wire.internal
 
+import com.squareup.wire.ReverseProtoWriter
 import okio.IOException
+import kotlin.native.concurrent.AtomicLong
+import kotlin.native.concurrent.SharedImmutable
+import kotlin.native.concurrent.ThreadLocal
 
 actual interface Serializable
 
@@ -29,6 +33,29 @@ actual inline fun <T> MutableList<T>.toUnmodifiableList(): List<T> = this
 @Suppress("NOTHING_TO_INLINE") // Syntactic sugar.
 actual inline fun <K, V> MutableMap<K, V>.toUnmodifiableMap(): Map<K, V> = this
 
+@ThreadLocal
+private var pooledReverseProtoWriter: ReverseProtoWriter? = null
+
+internal actual fun takePooledReverseProtoWriter(): ReverseProtoWriter? {
+  val result = pooledReverseProtoWriter
+  pooledReverseProtoWriter = null
+  return result
+}
+
+internal actual fun releasePooledReverseProtoWriter(writer: ReverseProtoWriter) {
+  writer.reset()
+  pooledReverseProtoWriter = writer
+}
+
+@SharedImmutable
+private val forwardEncodedCounter = AtomicLong()
+
+internal actual fun incrementForwardEncodedCount() {
+  forwardEncodedCounter.increment()
+}
+
+internal actual fun getForwardEncodedCount(): Long = forwardEncodedCounter.value
+
 // TODO: Use code points to process each char.
 actual fun camelCase(string: String, upperCamel: Boolean): String {
   return buildString(string.length) {
@@ -58,6 +58,13 @@ data class Field(
   var isRedacted: Boolean = false
     private set
 
+  /**
+   * True if this message field is annotated `[(wire.lazy) = true]`. Generated code retains such a
+   * field's encoded bytes and decodes them on first access. False until this field is linked.
+   */
+  var isLazy: Boolean = false
+    private set
+
   val isRepeated: Boolean
     get() = label == Label.REPEATED
 
@@ -111,6 +118,7 @@ data class Field(
         ?: if (syntaxRules.isPackedByDefault(type!!, label)) PACKED_OPTION_ELEMENT.value else null
     // We allow any package name to be used as long as it ends with '.redacted'.
     isRedacted = options.optionMatches(".*\\.redacted", "true")
+    isLazy = options.get(LAZY) == "true"
 
     encodeMode =
         syntaxRules.getEncodeMode(type!!, label, isPacked = packed == "true", isOneOf = isOneOf)
@@ -122,6 +130,9 @@ data class Field(
     if (isPacked && !isPackable(linker, type!!)) {
       linker.errors += "packed=true not permitted on $type"
     }
+    if (isLazy && (isRepeated || type!!.isMap || linker.get(type!!) !is MessageType)) {
+      linker.errors += "(wire.lazy) = true not permitted on ${if (isRepeated) "repeated " else ""}$type"
+    }
     if (isExtension) {
       if (isRequired) {
         linker.errors += "extension fields cannot be required"
@@ -178,6 +189,7 @@ data class Field(
     result.deprecated = deprecated
     result.encodeMode = encodeMode
     result.isRedacted = isRedacted
+    result.isLazy = isLazy
     result.jsonName = jsonName
     return result
   }
@@ -216,6 +228,7 @@ data class Field(
   companion object {
     internal val DEPRECATED = ProtoMember.get(FIELD_OPTIONS, "deprecated")
     internal val PACKED = ProtoMember.get(FIELD_OPTIONS, "packed")
+    internal val LAZY = ProtoMember.get(FIELD_OPTIONS, "wire.lazy")
 
     @JvmStatic
     fun fromElements(
@@ -221,14 +221,13 @@ internal class SchemaProtoAdapterFactory(
     override val keyAdapter: ProtoAdapter<*>
       get() = get(this.field.type!!.keyType!!)
 
+    /** For map fields this is the value adapter, as it is for generated code. */
     override val singleAdapter: ProtoAdapter<*>
-      get() = get(this.field.type!!)
+      get() = get(if (isMap) this.field.type!!.valueType!! else this.field.type!!)
 
     override fun value(builder: MutableMap<String, Any>, value: Any) {
       if (isMap) {
-        val map = builder.getOrPut(field.name) { mutableMapOf<String, Any>() }
-            as MutableMap<String, Any>
-        map.putAll(value as Map<String, Any>)
+        mutableMapFromBuilder(builder).putAll(value as Map<Any, Any>)
       } else if (field.isRepeated) {
         val list = builder.getOrPut(field.name) { mutableListOf<Any>() }
             as MutableList<Any>
@@ -238,6 +237,10 @@ internal class SchemaProtoAdapterFactory(
       }
     }
 
+    override fun mutableMapFromBuilder(builder: MutableMap<String, Any>): MutableMap<Any, Any> {
+      return builder.getOrPut(field.name) { mutableMapOf<Any, Any>() } as MutableMap<Any, Any>
+    }
+
     override fun set(builder: MutableMap<String, Any>, value: Any?) {
       builder[field.name] = value!!
     }
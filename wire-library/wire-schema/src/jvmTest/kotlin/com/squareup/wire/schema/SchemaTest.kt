@@ -261,6 +261,85 @@ class SchemaTest {
     }
   }
 
+  @Test
+  fun lazyNotPermittedOnNonMessageFields() {
+    try {
+      RepoBuilder()
+          .add("message.proto", """
+               |import "wire/extensions.proto";
+               |
+               |message Message {
+               |  optional string a = 1 [(wire.lazy) = true];
+               |  optional Enum b = 2 [(wire.lazy) = true];
+               |  enum Enum {
+               |    ZERO = 0;
+               |  }
+               |}
+               """.trimMargin()
+          )
+          .schema()
+      fail()
+    } catch (expected: SchemaException) {
+      assertThat(expected).hasMessage("""
+            |(wire.lazy) = true not permitted on string
+            |  for field a (/source/message.proto:4:3)
+            |  in message Message (/source/message.proto:3:1)
+            |(wire.lazy) = true not permitted on Message.Enum
+            |  for field b (/source/message.proto:5:3)
+            |  in message Message (/source/message.proto:3:1)
+            """.trimMargin()
+      )
+    }
+  }
+
+  @Test
+  fun lazyNotPermittedOnRepeatedFields() {
+    try {
+      RepoBuilder()
+          .add("message.proto", """
+               |import "wire/extensions.proto";
+               |
+               |message Message {
+               |  repeated Message a = 1 [(wire.lazy) = true];
+               |}
+               """.trimMargin()
+          )
+          .schema()
+      fail()
+    } catch (expected: SchemaException) {
+      assertThat(expected).hasMessage("""
+            |(wire.lazy) = true not permitted on repeated Message
+            |  for field a (/source/message.proto:4:3)
+            |  in message Message (/source/message.proto:3:1)
+            """.trimMargin()
+      )
+    }
+  }
+
+  @Test
+  fun lazyNotPermittedOnMapFields() {
+    try {
+      RepoBuilder()
+          .add("message.proto", """
+               |import "wire/extensions.proto";
+               |
+               |message Message {
+               |  map<string, Message> a = 1 [(wire.lazy) = true];
+               |}
+               """.trimMargin()
+          )
+          .schema()
+      fail()
+    } catch (expected: SchemaException) {
+      assertThat(expected).hasMessage("""
+            |(wire.lazy) = true not permitted on map<string, Message>
+            |  for field a (/source/message.proto:4:3)
+            |  in message Message (/source/message.proto:3:1)
+            """.trimMargin()
+      )
+    }
+  }
+
   @Test
   fun fieldIsDeprecated() {
     val schema = RepoBuilder()
@@ -119,12 +119,14 @@ class RepoBuilder {
     typeName: String,
     profileName: String? = null,
     boxOneOfsMinSize: Int = 5_000,
+    primitiveRepeatedFields: Boolean = false,
   ): String {
     val schema = schema()
     val kotlinGenerator = KotlinGenerator(
       schema,
       profile = profile(profileName),
-      boxOneOfsMinSize = boxOneOfsMinSize
+      boxOneOfsMinSize = boxOneOfsMinSize,
+      primitiveRepeatedFields = primitiveRepeatedFields,
     )
     val type = schema.getType(typeName)!!
     val typeSpec = kotlinGenerator.generateType(type)
@@ -16,7 +16,10 @@ import com.squareup.wire.Syntax
 import com.squareup.wire.Syntax.PROTO_3
 import com.squareup.wire.WireEnum
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.countNonNull
+import com.squareup.wire.`internal`.decodeMapEntry
 import com.squareup.wire.`internal`.immutableCopyOf
 import com.squareup.wire.`internal`.immutableCopyOfMapWithStructValues
 import com.squareup.wire.`internal`.immutableCopyOfStruct
@@ -1375,7 +1378,9 @@ public class AllTypes(
           ProtoAdapter.newMapAdapter(ProtoAdapter.INT32, ProtoAdapter.INSTANT) }
 
       public override fun encodedSize(`value`: AllTypes): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         if (value.proto3_kotlin_int32 != 0) size += ProtoAdapter.INT32.encodedSizeWithTag(1,
             value.proto3_kotlin_int32)
         if (value.proto3_kotlin_uint32 != 0) size += ProtoAdapter.UINT32.encodedSizeWithTag(2,
@@ -1500,7 +1505,7 @@ public class AllTypes(
         size += ProtoAdapter.STRUCT_LIST.encodedSizeWithTag(621, value.oneof_list_value)
         size += ProtoAdapter.EMPTY.encodedSizeWithTag(624, value.oneof_empty)
         size += ProtoAdapter.INSTANT.encodedSizeWithTag(625, value.oneof_timestamp)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: AllTypes): Unit {
@@ -1936,19 +1941,19 @@ public class AllTypes(
             }
             224 -> rep_empty.add(ProtoAdapter.EMPTY.decode(reader))
             225 -> rep_timestamp.add(ProtoAdapter.INSTANT.decode(reader))
-            301 -> pack_int32.add(ProtoAdapter.INT32.decode(reader))
-            302 -> pack_uint32.add(ProtoAdapter.UINT32.decode(reader))
-            303 -> pack_sint32.add(ProtoAdapter.SINT32.decode(reader))
-            304 -> pack_fixed32.add(ProtoAdapter.FIXED32.decode(reader))
-            305 -> pack_sfixed32.add(ProtoAdapter.SFIXED32.decode(reader))
-            306 -> pack_int64.add(ProtoAdapter.INT64.decode(reader))
-            307 -> pack_uint64.add(ProtoAdapter.UINT64.decode(reader))
-            308 -> pack_sint64.add(ProtoAdapter.SINT64.decode(reader))
-            309 -> pack_fixed64.add(ProtoAdapter.FIXED64.decode(reader))
-            310 -> pack_sfixed64.add(ProtoAdapter.SFIXED64.decode(reader))
-            311 -> pack_bool.add(ProtoAdapter.BOOL.decode(reader))
-            312 -> pack_float.add(ProtoAdapter.FLOAT.decode(reader))
-            313 -> pack_double.add(ProtoAdapter.DOUBLE.decode(reader))
+            301 -> ProtoAdapter.INT32.decodeRepeated(reader, pack_int32)
+            302 -> ProtoAdapter.UINT32.decodeRepeated(reader, pack_uint32)
+            303 -> ProtoAdapter.SINT32.decodeRepeated(reader, pack_sint32)
+            304 -> ProtoAdapter.FIXED32.decodeRepeated(reader, pack_fixed32)
+            305 -> ProtoAdapter.SFIXED32.decodeRepeated(reader, pack_sfixed32)
+            306 -> ProtoAdapter.INT64.decodeRepeated(reader, pack_int64)
+            307 -> ProtoAdapter.UINT64.decodeRepeated(reader, pack_uint64)
+            308 -> ProtoAdapter.SINT64.decodeRepeated(reader, pack_sint64)
+            309 -> ProtoAdapter.FIXED64.decodeRepeated(reader, pack_fixed64)
+            310 -> ProtoAdapter.SFIXED64.decodeRepeated(reader, pack_sfixed64)
+            311 -> ProtoAdapter.BOOL.decodeRepeated(reader, pack_bool)
+            312 -> ProtoAdapter.FLOAT.decodeRepeated(reader, pack_float)
+            313 -> ProtoAdapter.DOUBLE.decodeRepeated(reader, pack_double)
             316 -> try {
               pack_nested_enum.add(NestedEnum.ADAPTER.decode(reader))
             } catch (e: ProtoAdapter.EnumConstantNotFoundException) {
@@ -1959,18 +1964,18 @@ public class AllTypes(
             } catch (e: ProtoAdapter.EnumConstantNotFoundException) {
               reader.addUnknownField(tag, FieldEncoding.VARINT, e.value.toLong())
             }
-            501 -> map_int32_int32.putAll(map_int32_int32Adapter.decode(reader))
-            502 -> map_string_string.putAll(map_string_stringAdapter.decode(reader))
-            503 -> map_string_message.putAll(map_string_messageAdapter.decode(reader))
-            504 -> map_string_enum.putAll(map_string_enumAdapter.decode(reader))
-            518 -> map_int32_any.putAll(map_int32_anyAdapter.decode(reader))
-            519 -> map_int32_duration.putAll(map_int32_durationAdapter.decode(reader))
-            520 -> map_int32_struct.putAll(map_int32_structAdapter.decode(reader))
-            521 -> map_int32_list_value.putAll(map_int32_list_valueAdapter.decode(reader))
-            522 -> map_int32_value.putAll(map_int32_valueAdapter.decode(reader))
-            523 -> map_int32_null_value.putAll(map_int32_null_valueAdapter.decode(reader))
-            524 -> map_int32_empty.putAll(map_int32_emptyAdapter.decode(reader))
-            525 -> map_int32_timestamp.putAll(map_int32_timestampAdapter.decode(reader))
+            501 -> decodeMapEntry(map_int32_int32Adapter, reader, map_int32_int32)
+            502 -> decodeMapEntry(map_string_stringAdapter, reader, map_string_string)
+            503 -> decodeMapEntry(map_string_messageAdapter, reader, map_string_message)
+            504 -> decodeMapEntry(map_string_enumAdapter, reader, map_string_enum)
+            518 -> decodeMapEntry(map_int32_anyAdapter, reader, map_int32_any)
+            519 -> decodeMapEntry(map_int32_durationAdapter, reader, map_int32_duration)
+            520 -> decodeMapEntry(map_int32_structAdapter, reader, map_int32_struct)
+            521 -> decodeMapEntry(map_int32_list_valueAdapter, reader, map_int32_list_value)
+            522 -> decodeMapEntry(map_int32_valueAdapter, reader, map_int32_value)
+            523 -> decodeMapEntry(map_int32_null_valueAdapter, reader, map_int32_null_value)
+            524 -> decodeMapEntry(map_int32_emptyAdapter, reader, map_int32_empty)
+            525 -> decodeMapEntry(map_int32_timestampAdapter, reader, map_int32_timestamp)
             601 -> oneof_string = ProtoAdapter.STRING.decode(reader)
             602 -> oneof_int32 = ProtoAdapter.INT32.decode(reader)
             603 -> oneof_nested_message = NestedMessage.ADAPTER.decode(reader)
@@ -2208,9 +2213,11 @@ public class AllTypes(
         "all_types.proto"
       ) {
         public override fun encodedSize(`value`: NestedMessage): Int {
-          var size = value.unknownFields.size
+          var size = cachedEncodedSize(value)
+          if (size != 0) return size
+          size = value.unknownFields.size
           if (value.a != 0) size += ProtoAdapter.INT32.encodedSizeWithTag(1, value.a)
-          return size
+          return cacheEncodedSize(value, size)
         }
 
         public override fun encode(writer: ProtoWriter, `value`: NestedMessage): Unit {
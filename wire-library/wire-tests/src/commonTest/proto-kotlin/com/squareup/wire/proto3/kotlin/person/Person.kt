@@ -13,6 +13,8 @@ import com.squareup.wire.Syntax
 import com.squareup.wire.Syntax.PROTO_3
 import com.squareup.wire.WireEnum
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.countNonNull
 import com.squareup.wire.`internal`.immutableCopyOf
 import com.squareup.wire.`internal`.redactElements
@@ -173,7 +175,9 @@ public class Person(
       "person.proto"
     ) {
       public override fun encodedSize(`value`: Person): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         if (value.name != "") size += ProtoAdapter.STRING.encodedSizeWithTag(1, value.name)
         if (value.id != 0) size += ProtoAdapter.INT32.encodedSizeWithTag(2, value.id)
         if (value.email != "") size += ProtoAdapter.STRING.encodedSizeWithTag(3, value.email)
@@ -181,7 +185,7 @@ public class Person(
         size += ProtoAdapter.STRING.asRepeated().encodedSizeWithTag(5, value.aliases)
         size += ProtoAdapter.INT32.encodedSizeWithTag(6, value.foo)
         size += ProtoAdapter.STRING.encodedSizeWithTag(7, value.bar)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: Person): Unit {
@@ -353,11 +357,13 @@ public class Person(
         "person.proto"
       ) {
         public override fun encodedSize(`value`: PhoneNumber): Int {
-          var size = value.unknownFields.size
+          var size = cachedEncodedSize(value)
+          if (size != 0) return size
+          size = value.unknownFields.size
           if (value.number != "") size += ProtoAdapter.STRING.encodedSizeWithTag(1, value.number)
           if (value.type != PhoneType.MOBILE) size += PhoneType.ADAPTER.encodedSizeWithTag(2,
               value.type)
-          return size
+          return cacheEncodedSize(value, size)
         }
 
         public override fun encode(writer: ProtoWriter, `value`: PhoneNumber): Unit {
@@ -9,6 +9,8 @@ import com.squareup.wire.ProtoReader
 import com.squareup.wire.ProtoWriter
 import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax.PROTO_2
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import kotlin.Any
 import kotlin.AssertionError
 import kotlin.Boolean
@@ -60,8 +62,10 @@ public class MessageWithOptions(
       "custom_options.proto"
     ) {
       public override fun encodedSize(`value`: MessageWithOptions): Int {
-        var size = value.unknownFields.size
-        return size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: MessageWithOptions): Unit {
@@ -12,6 +12,8 @@ import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax
 import com.squareup.wire.Syntax.PROTO_2
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.sanitize
 import kotlin.Any
 import kotlin.AssertionError
@@ -104,10 +106,12 @@ public class Form(
       "form.proto"
     ) {
       public override fun encodedSize(`value`: Form): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         if (value.choice != null) size += value.choice.encodedSizeWithTag()
         if (value.decision != null) size += value.decision.encodedSizeWithTag()
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: Form): Unit {
@@ -127,21 +131,27 @@ public class Form(
         var decision: OneOf<Decision<*>, *>? = null
         val unknownFields = reader.forEachTag { tag ->
           when (tag) {
-            else -> {
-              for (choiceKey in CHOICE_KEYS) {
-                if (tag == choiceKey.tag) {
-                  choice = choiceKey.decode(reader)
-                  return@forEachTag Unit
-                }
-              }
-              for (choiceKey in DECISION_KEYS) {
-                if (tag == choiceKey.tag) {
-                  decision = choiceKey.decode(reader)
-                  return@forEachTag Unit
-                }
-              }
-              reader.readUnknownField(tag)
-            }
+            1 -> choice = CHOICE_BUTTON_ELEMENT.decode(reader)
+            2 -> choice = CHOICE_LOCAL_IMAGE_ELEMENT.decode(reader)
+            3 -> choice = CHOICE_REMOTE_IMAGE_ELEMENT.decode(reader)
+            4 -> choice = CHOICE_MONEY_ELEMENT.decode(reader)
+            5 -> choice = CHOICE_SPACER_ELEMENT.decode(reader)
+            6 -> choice = CHOICE_TEXT_ELEMENT.decode(reader)
+            7 -> choice = CHOICE_CUSTOMIZED_CARD_ELEMENT.decode(reader)
+            8 -> choice = CHOICE_ADDRESS_ELEMENT.decode(reader)
+            9 -> choice = CHOICE_TEXT_INPUT_ELEMENT.decode(reader)
+            10 -> choice = CHOICE_OPTION_PICKER_ELEMENT.decode(reader)
+            11 -> choice = CHOICE_DETAIL_ROW_ELEMENT.decode(reader)
+            12 -> choice = CHOICE_CURRENCY_CONVERSION_FLAGS_ELEMENT.decode(reader)
+            101 -> decision = DECISION_A.decode(reader)
+            102 -> decision = DECISION_B.decode(reader)
+            103 -> decision = DECISION_C.decode(reader)
+            104 -> decision = DECISION_D.decode(reader)
+            105 -> decision = DECISION_E.decode(reader)
+            106 -> decision = DECISION_F.decode(reader)
+            107 -> decision = DECISION_G.decode(reader)
+            108 -> decision = DECISION_H.decode(reader)
+            else -> reader.readUnknownField(tag)
           }
         }
         return Form(
@@ -271,8 +281,10 @@ public class Form(
         "form.proto"
       ) {
         public override fun encodedSize(`value`: ButtonElement): Int {
-          var size = value.unknownFields.size
-          return size
+          var size = cachedEncodedSize(value)
+          if (size != 0) return size
+          size = value.unknownFields.size
+          return cacheEncodedSize(value, size)
         }
 
         public override fun encode(writer: ProtoWriter, `value`: ButtonElement): Unit {
@@ -335,8 +347,10 @@ public class Form(
         "form.proto"
       ) {
         public override fun encodedSize(`value`: LocalImageElement): Int {
-          var size = value.unknownFields.size
-          return size
+          var size = cachedEncodedSize(value)
+          if (size != 0) return size
+          size = value.unknownFields.size
+          return cacheEncodedSize(value, size)
         }
 
         public override fun encode(writer: ProtoWriter, `value`: LocalImageElement): Unit {
@@ -399,8 +413,10 @@ public class Form(
         "form.proto"
       ) {
         public override fun encodedSize(`value`: RemoteImageElement): Int {
-          var size = value.unknownFields.size
-          return size
+          var size = cachedEncodedSize(value)
+          if (size != 0) return size
+          size = value.unknownFields.size
+          return cacheEncodedSize(value, size)
         }
 
         public override fun encode(writer: ProtoWriter, `value`: RemoteImageElement): Unit {
@@ -462,8 +478,10 @@ public class Form(
         "form.proto"
       ) {
         public override fun encodedSize(`value`: MoneyElement): Int {
-          var size = value.unknownFields.size
-          return size
+          var size = cachedEncodedSize(value)
+          if (size != 0) return size
+          size = value.unknownFields.size
+          return cacheEncodedSize(value, size)
         }
 
         public override fun encode(writer: ProtoWriter, `value`: MoneyElement): Unit {
@@ -525,8 +543,10 @@ public class Form(
         "form.proto"
       ) {
         public override fun encodedSize(`value`: SpacerElement): Int {
-          var size = value.unknownFields.size
-          return size
+          var size = cachedEncodedSize(value)
+          if (size != 0) return size
+          size = value.unknownFields.size
+          return cacheEncodedSize(value, size)
         }
 
         public override fun encode(writer: ProtoWriter, `value`: SpacerElement): Unit {
@@ -606,9 +626,11 @@ public class Form(
         "form.proto"
       ) {
         public override fun encodedSize(`value`: TextElement): Int {
-          var size = value.unknownFields.size
+          var size = cachedEncodedSize(value)
+          if (size != 0) return size
+          size = value.unknownFields.size
           size += ProtoAdapter.STRING.encodedSizeWithTag(1, value.text)
-          return size
+          return cacheEncodedSize(value, size)
         }
 
         public override fun encode(writer: ProtoWriter, `value`: TextElement): Unit {
@@ -680,8 +702,10 @@ public class Form(
         "form.proto"
       ) {
         public override fun encodedSize(`value`: CustomizedCardElement): Int {
-          var size = value.unknownFields.size
-          return size
+          var size = cachedEncodedSize(value)
+          if (size != 0) return size
+          size = value.unknownFields.size
+          return cacheEncodedSize(value, size)
         }
 
         public override fun encode(writer: ProtoWriter, `value`: CustomizedCardElement): Unit {
@@ -745,8 +769,10 @@ public class Form(
         "form.proto"
       ) {
         public override fun encodedSize(`value`: AddressElement): Int {
-          var size = value.unknownFields.size
-          return size
+          var size = cachedEncodedSize(value)
+          if (size != 0) return size
+          size = value.unknownFields.size
+          return cacheEncodedSize(value, size)
         }
 
         public override fun encode(writer: ProtoWriter, `value`: AddressElement): Unit {
@@ -808,8 +834,10 @@ public class Form(
         "form.proto"
       ) {
         public override fun encodedSize(`value`: TextInputElement): Int {
-          var size = value.unknownFields.size
-          return size
+          var size = cachedEncodedSize(value)
+          if (size != 0) return size
+          size = value.unknownFields.size
+          return cacheEncodedSize(value, size)
         }
 
         public override fun encode(writer: ProtoWriter, `value`: TextInputElement): Unit {
@@ -872,8 +900,10 @@ public class Form(
         "form.proto"
       ) {
         public override fun encodedSize(`value`: OptionPickerElement): Int {
-          var size = value.unknownFields.size
-          return size
+          var size = cachedEncodedSize(value)
+          if (size != 0) return size
+          size = value.unknownFields.size
+          return cacheEncodedSize(value, size)
         }
 
         public override fun encode(writer: ProtoWriter, `value`: OptionPickerElement): Unit {
@@ -935,8 +965,10 @@ public class Form(
         "form.proto"
       ) {
         public override fun encodedSize(`value`: DetailRowElement): Int {
-          var size = value.unknownFields.size
-          return size
+          var size = cachedEncodedSize(value)
+          if (size != 0) return size
+          size = value.unknownFields.size
+          return cacheEncodedSize(value, size)
         }
 
         public override fun encode(writer: ProtoWriter, `value`: DetailRowElement): Unit {
@@ -999,8 +1031,10 @@ public class Form(
         "form.proto"
       ) {
         public override fun encodedSize(`value`: CurrencyConversionFlagsElement): Int {
-          var size = value.unknownFields.size
-          return size
+          var size = cachedEncodedSize(value)
+          if (size != 0) return size
+          size = value.unknownFields.size
+          return cacheEncodedSize(value, size)
         }
 
         public override fun encode(writer: ProtoWriter, `value`: CurrencyConversionFlagsElement):
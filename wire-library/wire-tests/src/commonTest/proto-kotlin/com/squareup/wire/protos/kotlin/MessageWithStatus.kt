@@ -12,6 +12,8 @@ import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax
 import com.squareup.wire.Syntax.PROTO_2
 import com.squareup.wire.WireEnum
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import kotlin.Any
 import kotlin.AssertionError
 import kotlin.Boolean
@@ -61,8 +63,10 @@ public class MessageWithStatus(
       "same_name_enum.proto"
     ) {
       public override fun encodedSize(`value`: MessageWithStatus): Int {
-        var size = value.unknownFields.size
-        return size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: MessageWithStatus): Unit {
@@ -10,6 +10,9 @@ import com.squareup.wire.ProtoWriter
 import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax.PROTO_2
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
+import com.squareup.wire.`internal`.decodeMapEntry
 import com.squareup.wire.`internal`.immutableCopyOf
 import com.squareup.wire.`internal`.redactElements
 import kotlin.Any
@@ -86,9 +89,11 @@ public class Mappy(
           ProtoAdapter.newMapAdapter(ProtoAdapter.STRING, Thing.ADAPTER) }
 
       public override fun encodedSize(`value`: Mappy): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         size += thingsAdapter.encodedSizeWithTag(1, value.things)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: Mappy): Unit {
@@ -105,7 +110,7 @@ public class Mappy(
         val things = mutableMapOf<String, Thing>()
         val unknownFields = reader.forEachTag { tag ->
           when (tag) {
-            1 -> things.putAll(thingsAdapter.decode(reader))
+            1 -> decodeMapEntry(thingsAdapter, reader, things)
             else -> reader.readUnknownField(tag)
           }
         }
@@ -10,6 +10,8 @@ import com.squareup.wire.ProtoWriter
 import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax.PROTO_2
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.immutableCopyOf
 import com.squareup.wire.`internal`.sanitize
 import kotlin.Any
@@ -147,7 +149,9 @@ public class VersionTwo(
       "unknown_fields.proto"
     ) {
       public override fun encodedSize(`value`: VersionTwo): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         size += ProtoAdapter.INT32.encodedSizeWithTag(1, value.i)
         size += ProtoAdapter.INT32.encodedSizeWithTag(2, value.v2_i)
         size += ProtoAdapter.STRING.encodedSizeWithTag(3, value.v2_s)
@@ -156,7 +160,7 @@ public class VersionTwo(
         size += ProtoAdapter.STRING.asRepeated().encodedSizeWithTag(6, value.v2_rs)
         size += NestedVersionTwo.ADAPTER.encodedSizeWithTag(7, value.obj)
         size += EnumVersionTwo.ADAPTER.encodedSizeWithTag(8, value.en)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: VersionTwo): Unit {
@@ -11,6 +11,8 @@ import com.squareup.wire.ProtoWriter
 import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax.PROTO_2
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.immutableCopyOf
 import com.squareup.wire.`internal`.redactElements
 import kotlin.Any
@@ -94,10 +96,12 @@ public class UsesAny(
       "uses_any.proto"
     ) {
       public override fun encodedSize(`value`: UsesAny): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         size += AnyMessage.ADAPTER.encodedSizeWithTag(1, value.just_one)
         size += AnyMessage.ADAPTER.asRepeated().encodedSizeWithTag(2, value.many_anys)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: UsesAny): Unit {
@@ -10,6 +10,8 @@ import com.squareup.wire.ProtoWriter
 import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax.PROTO_2
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.immutableCopyOf
 import kotlin.Any
 import kotlin.AssertionError
@@ -94,10 +96,12 @@ public class EmbeddedMessage(
       "packed_encoding.proto"
     ) {
       public override fun encodedSize(`value`: EmbeddedMessage): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         size += ProtoAdapter.INT32.asPacked().encodedSizeWithTag(1, value.inner_repeated_number)
         size += ProtoAdapter.INT32.encodedSizeWithTag(2, value.inner_number_after)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: EmbeddedMessage): Unit {
@@ -117,7 +121,7 @@ public class EmbeddedMessage(
         var inner_number_after: Int? = null
         val unknownFields = reader.forEachTag { tag ->
           when (tag) {
-            1 -> inner_repeated_number.add(ProtoAdapter.INT32.decode(reader))
+            1 -> ProtoAdapter.INT32.decodeRepeated(reader, inner_repeated_number)
             2 -> inner_number_after = ProtoAdapter.INT32.decode(reader)
             else -> reader.readUnknownField(tag)
           }
@@ -413,7 +413,7 @@ public final class Person extends AndroidMessage<Person, Person.Builder> {
               try {
                 builder.type(PhoneType.ADAPTER.decode(reader));
               } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-                builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+                reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
               }
               break;
             }
@@ -180,8 +180,8 @@ public final class RepeatedPackedAndMap extends Message<RepeatedPackedAndMap, Re
       for (int tag; (tag = reader.nextTag()) != -1;) {
         switch (tag) {
           case 201: builder.rep_int32.add(ProtoAdapter.INT32.decode(reader)); break;
-          case 301: builder.pack_int32.add(ProtoAdapter.INT32.decode(reader)); break;
-          case 401: builder.map_int32_int32.putAll(map_int32_int32Adapter().decode(reader)); break;
+          case 301: ProtoAdapter.INT32.decodeRepeated(reader, builder.pack_int32); break;
+          case 401: Internal.decodeMapEntry(map_int32_int32Adapter(), reader, builder.map_int32_int32); break;
           default: {
             reader.readUnknownField(tag);
           }
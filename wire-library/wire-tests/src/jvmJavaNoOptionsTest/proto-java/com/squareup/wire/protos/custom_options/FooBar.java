@@ -379,7 +379,7 @@ public final class FooBar extends Message<FooBar, FooBar.Builder> {
               try {
                 builder.value(FooBarBazEnum.ADAPTER.decode(reader));
               } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-                builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+                reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
               }
               break;
             }
@@ -636,7 +636,7 @@ public final class FooBar extends Message<FooBar, FooBar.Builder> {
             try {
               builder.ext(FooBarBazEnum.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
@@ -644,7 +644,7 @@ public final class FooBar extends Message<FooBar, FooBar.Builder> {
             try {
               builder.rep.add(FooBarBazEnum.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
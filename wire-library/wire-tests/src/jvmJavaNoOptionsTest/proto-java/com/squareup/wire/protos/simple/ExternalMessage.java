@@ -267,7 +267,7 @@ public final class ExternalMessage extends Message<ExternalMessage, ExternalMess
             try {
               builder.nested_enum_ext(SimpleMessage.NestedEnum.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
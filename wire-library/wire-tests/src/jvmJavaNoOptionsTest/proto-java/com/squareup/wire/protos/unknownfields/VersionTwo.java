@@ -299,7 +299,7 @@ public final class VersionTwo extends Message<VersionTwo, VersionTwo.Builder> {
             try {
               builder.en(EnumVersionTwo.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
@@ -24,6 +24,7 @@ import squareup.protos.packed_encoding.OuterMessage;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 public final class ProtoAdapterTest {
   @Test public void getFromClass() throws Exception {
@@ -68,4 +69,70 @@ public final class ProtoAdapterTest {
         OuterMessage.ADAPTER.encode(outerMessage));
     assertEquals(outerMessagesAfterSerialisation, outerMessage);
   }
+
+  @Test public void runtimeEnumAdapterDenseValues() throws IOException {
+    RuntimeEnumAdapter<Person.PhoneType> adapter =
+        RuntimeEnumAdapter.create(Person.PhoneType.class);
+    for (Person.PhoneType phoneType : Person.PhoneType.values()) {
+      assertThat(adapter.decode(adapter.encode(phoneType))).isSameAs(phoneType);
+    }
+    assertEnumConstantNotFound(adapter, 4);
+    assertEnumConstantNotFound(adapter, -1);
+  }
+
+  @Test public void runtimeEnumAdapterSparseValues() throws IOException {
+    RuntimeEnumAdapter<Sparse> adapter = RuntimeEnumAdapter.create(Sparse.class);
+    for (Sparse sparse : Sparse.values()) {
+      assertThat(adapter.decode(adapter.encode(sparse))).isSameAs(sparse);
+    }
+    assertEnumConstantNotFound(adapter, 0);
+    assertEnumConstantNotFound(adapter, 1_000_001);
+  }
+
+  private static void assertEnumConstantNotFound(ProtoAdapter<?> adapter, int value)
+      throws IOException {
+    try {
+      adapter.decode(ProtoAdapter.INT32.encode(value));
+      fail();
+    } catch (ProtoAdapter.EnumConstantNotFoundException expected) {
+      assertThat(expected.value).isEqualTo(value);
+    }
+  }
+
+  public enum Sparse implements WireEnum {
+    NEGATIVE(-5),
+    ONE(1),
+    MILLION(1_000_000);
+
+    public static final ProtoAdapter<Sparse> ADAPTER = new ProtoAdapter_Sparse();
+
+    private final int value;
+
+    Sparse(int value) {
+      this.value = value;
+    }
+
+    public static Sparse fromValue(int value) {
+      switch (value) {
+        case -5: return NEGATIVE;
+        case 1: return ONE;
+        case 1_000_000: return MILLION;
+        default: return null;
+      }
+    }
+
+    @Override public int getValue() {
+      return value;
+    }
+
+    private static final class ProtoAdapter_Sparse extends EnumAdapter<Sparse> {
+      ProtoAdapter_Sparse() {
+        super(Sparse.class, Syntax.PROTO_2, null);
+      }
+
+      @Override protected Sparse fromValue(int value) {
+        return Sparse.fromValue(value);
+      }
+    }
+  }
 }
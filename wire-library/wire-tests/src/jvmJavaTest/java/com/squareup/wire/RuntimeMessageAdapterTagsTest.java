@@ -0,0 +1,139 @@
+/*
+ * Copyright 2021 Square Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.wire;
+
+import java.io.IOException;
+import okio.Buffer;
+import okio.ByteString;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Decodes with the runtime adapter, whose tag lookup is different for dense and sparse tags. */
+public final class RuntimeMessageAdapterTagsTest {
+  @Test public void denseTags() throws IOException {
+    Dense dense = Dense.ADAPTER.decode(encodeInt32s(2, 3, 5));
+    assertThat(dense.two).isEqualTo(2);
+    assertThat(dense.three).isEqualTo(3);
+    assertThat(dense.five).isEqualTo(5);
+    assertThat(dense.unknownFields()).isEqualTo(ByteString.EMPTY);
+  }
+
+  @Test public void denseUnknownTags() throws IOException {
+    Dense dense = Dense.ADAPTER.decode(encodeInt32s(1, 2, 3, 4, 5, 6, 100_000));
+    assertThat(dense.two).isEqualTo(2);
+    assertThat(dense.three).isEqualTo(3);
+    assertThat(dense.five).isEqualTo(5);
+    assertThat(dense.unknownFields()).isEqualTo(encodeInt32s(1, 4, 6, 100_000));
+  }
+
+  @Test public void sparseTags() throws IOException {
+    Sparse sparse = Sparse.ADAPTER.decode(encodeInt32s(2, 500, 100_000));
+    assertThat(sparse.two).isEqualTo(2);
+    assertThat(sparse.five_hundred).isEqualTo(500);
+    assertThat(sparse.one_hundred_thousand).isEqualTo(100_000);
+    assertThat(sparse.unknownFields()).isEqualTo(ByteString.EMPTY);
+  }
+
+  @Test public void sparseUnknownTags() throws IOException {
+    Sparse sparse = Sparse.ADAPTER.decode(
+        encodeInt32s(1, 2, 3, 499, 500, 501, 99_999, 100_000, 100_001, 1_000_000));
+    assertThat(sparse.two).isEqualTo(2);
+    assertThat(sparse.five_hundred).isEqualTo(500);
+    assertThat(sparse.one_hundred_thousand).isEqualTo(100_000);
+    assertThat(sparse.unknownFields())
+        .isEqualTo(encodeInt32s(1, 3, 499, 501, 99_999, 100_001, 1_000_000));
+  }
+
+  /** Returns an encoded message with an int32 field for each tag, whose value is its tag. */
+  private static ByteString encodeInt32s(int... tags) throws IOException {
+    Buffer buffer = new Buffer();
+    ProtoWriter writer = new ProtoWriter(buffer);
+    for (int tag : tags) {
+      ProtoAdapter.INT32.encodeWithTag(writer, tag, tag);
+    }
+    return buffer.readByteString();
+  }
+
+  public static final class Dense extends Message<Dense, Dense.Builder> {
+    public static final ProtoAdapter<Dense> ADAPTER = ProtoAdapter.newMessageAdapter(Dense.class);
+
+    @WireField(tag = 2, adapter = "com.squareup.wire.ProtoAdapter#INT32")
+    public final Integer two;
+
+    @WireField(tag = 3, adapter = "com.squareup.wire.ProtoAdapter#INT32")
+    public final Integer three;
+
+    @WireField(tag = 5, adapter = "com.squareup.wire.ProtoAdapter#INT32")
+    public final Integer five;
+
+    Dense(Integer two, Integer three, Integer five, ByteString unknownFields) {
+      super(ADAPTER, unknownFields);
+      this.two = two;
+      this.three = three;
+      this.five = five;
+    }
+
+    @Override public Builder newBuilder() {
+      throw new UnsupportedOperationException();
+    }
+
+    public static final class Builder extends Message.Builder<Dense, Builder> {
+      public Integer two;
+      public Integer three;
+      public Integer five;
+
+      @Override public Dense build() {
+        return new Dense(two, three, five, buildUnknownFields());
+      }
+    }
+  }
+
+  public static final class Sparse extends Message<Sparse, Sparse.Builder> {
+    public static final ProtoAdapter<Sparse> ADAPTER = ProtoAdapter.newMessageAdapter(Sparse.class);
+
+    @WireField(tag = 2, adapter = "com.squareup.wire.ProtoAdapter#INT32")
+    public final Integer two;
+
+    @WireField(tag = 500, adapter = "com.squareup.wire.ProtoAdapter#INT32")
+    public final Integer five_hundred;
+
+    @WireField(tag = 100_000, adapter = "com.squareup.wire.ProtoAdapter#INT32")
+    public final Integer one_hundred_thousand;
+
+    Sparse(Integer two, Integer five_hundred, Integer one_hundred_thousand,
+        ByteString unknownFields) {
+      super(ADAPTER, unknownFields);
+      this.two = two;
+      this.five_hundred = five_hundred;
+      this.one_hundred_thousand = one_hundred_thousand;
+    }
+
+    @Override public Builder newBuilder() {
+      throw new UnsupportedOperationException();
+    }
+
+    public static final class Builder extends Message.Builder<Sparse, Builder> {
+      public Integer two;
+      public Integer five_hundred;
+      public Integer one_hundred_thousand;
+
+      @Override public Sparse build() {
+        return new Sparse(two, five_hundred, one_hundred_thousand, buildUnknownFields());
+      }
+    }
+  }
+}
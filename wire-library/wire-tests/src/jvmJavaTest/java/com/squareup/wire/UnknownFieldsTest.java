@@ -22,6 +22,7 @@ import com.squareup.wire.protos.unknownfields.VersionOne;
 import com.squareup.wire.protos.unknownfields.VersionTwo;
 import java.io.IOException;
 import java.util.Arrays;
+import okio.Buffer;
 import okio.ByteString;
 import org.junit.Test;
 
@@ -266,4 +267,18 @@ public class UnknownFieldsTest {
     // 04 = PUSS_IN_BOOTS(4)
     assertThat(v1.unknownFields()).isEqualTo(ByteString.decodeHex("4004"));
   }
+
+  @Test
+  public void unknownEnumFieldsNotRetained() throws IOException {
+    VersionTwo v2 = new VersionTwo.Builder()
+        .en(EnumVersionTwo.PUSS_IN_BOOTS_V2)
+        .i(100)
+        .build();
+    ProtoReader reader = new ProtoReader(new Buffer().write(VersionTwo.ADAPTER.encode(v2)));
+    reader.setRetainUnknownFields(false);
+    VersionOne v1 = VersionOne.ADAPTER.decode(reader);
+    assertThat(v1.i).isEqualTo(100);
+    assertThat(v1.en).isNull();
+    assertThat(v1.unknownFields()).isEqualTo(ByteString.EMPTY);
+  }
 }
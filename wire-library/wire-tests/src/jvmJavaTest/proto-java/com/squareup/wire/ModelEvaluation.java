@@ -169,7 +169,7 @@ public final class ModelEvaluation extends Message<ModelEvaluation, ModelEvaluat
         switch (tag) {
           case 1: builder.name(ProtoAdapter.STRING.decode(reader)); break;
           case 2: builder.score(ProtoAdapter.DOUBLE.decode(reader)); break;
-          case 3: builder.models.putAll(modelsAdapter().decode(reader)); break;
+          case 3: Internal.decodeMapEntry(modelsAdapter(), reader, builder.models); break;
           default: {
             reader.readUnknownField(tag);
           }
@@ -127,7 +127,7 @@ public final class Mappy extends Message<Mappy, Mappy.Builder> {
       long token = reader.beginMessage();
       for (int tag; (tag = reader.nextTag()) != -1;) {
         switch (tag) {
-          case 1: builder.things.putAll(thingsAdapter().decode(reader)); break;
+          case 1: Internal.decodeMapEntry(thingsAdapter(), reader, builder.things); break;
           default: {
             reader.readUnknownField(tag);
           }
@@ -2906,7 +2906,7 @@ public final class AllTypes extends Message<AllTypes, AllTypes.Builder> {
             try {
               builder.nested_enum(NestedEnum.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
@@ -2953,7 +2953,7 @@ public final class AllTypes extends Message<AllTypes, AllTypes.Builder> {
             try {
               builder.rep_nested_enum.add(NestedEnum.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
@@ -2966,40 +2966,40 @@ public final class AllTypes extends Message<AllTypes, AllTypes.Builder> {
           case 223: builder.rep_null_value.add((Void) ProtoAdapter.STRUCT_NULL.decode(reader)); break;
           case 224: builder.rep_empty.add(ProtoAdapter.EMPTY.decode(reader)); break;
           case 225: builder.rep_timestamp.add(ProtoAdapter.INSTANT.decode(reader)); break;
-          case 301: builder.pack_int32.add(ProtoAdapter.INT32.decode(reader)); break;
-          case 302: builder.pack_uint32.add(ProtoAdapter.UINT32.decode(reader)); break;
-          case 303: builder.pack_sint32.add(ProtoAdapter.SINT32.decode(reader)); break;
-          case 304: builder.pack_fixed32.add(ProtoAdapter.FIXED32.decode(reader)); break;
-          case 305: builder.pack_sfixed32.add(ProtoAdapter.SFIXED32.decode(reader)); break;
-          case 306: builder.pack_int64.add(ProtoAdapter.INT64.decode(reader)); break;
-          case 307: builder.pack_uint64.add(ProtoAdapter.UINT64.decode(reader)); break;
-          case 308: builder.pack_sint64.add(ProtoAdapter.SINT64.decode(reader)); break;
-          case 309: builder.pack_fixed64.add(ProtoAdapter.FIXED64.decode(reader)); break;
-          case 310: builder.pack_sfixed64.add(ProtoAdapter.SFIXED64.decode(reader)); break;
-          case 311: builder.pack_bool.add(ProtoAdapter.BOOL.decode(reader)); break;
-          case 312: builder.pack_float.add(ProtoAdapter.FLOAT.decode(reader)); break;
-          case 313: builder.pack_double.add(ProtoAdapter.DOUBLE.decode(reader)); break;
+          case 301: ProtoAdapter.INT32.decodeRepeated(reader, builder.pack_int32); break;
+          case 302: ProtoAdapter.UINT32.decodeRepeated(reader, builder.pack_uint32); break;
+          case 303: ProtoAdapter.SINT32.decodeRepeated(reader, builder.pack_sint32); break;
+          case 304: ProtoAdapter.FIXED32.decodeRepeated(reader, builder.pack_fixed32); break;
+          case 305: ProtoAdapter.SFIXED32.decodeRepeated(reader, builder.pack_sfixed32); break;
+          case 306: ProtoAdapter.INT64.decodeRepeated(reader, builder.pack_int64); break;
+          case 307: ProtoAdapter.UINT64.decodeRepeated(reader, builder.pack_uint64); break;
+          case 308: ProtoAdapter.SINT64.decodeRepeated(reader, builder.pack_sint64); break;
+          case 309: ProtoAdapter.FIXED64.decodeRepeated(reader, builder.pack_fixed64); break;
+          case 310: ProtoAdapter.SFIXED64.decodeRepeated(reader, builder.pack_sfixed64); break;
+          case 311: ProtoAdapter.BOOL.decodeRepeated(reader, builder.pack_bool); break;
+          case 312: ProtoAdapter.FLOAT.decodeRepeated(reader, builder.pack_float); break;
+          case 313: ProtoAdapter.DOUBLE.decodeRepeated(reader, builder.pack_double); break;
           case 316: {
             try {
               builder.pack_nested_enum.add(NestedEnum.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
           case 323: builder.pack_null_value.add((Void) ProtoAdapter.STRUCT_NULL.decode(reader)); break;
-          case 501: builder.map_int32_int32.putAll(map_int32_int32Adapter().decode(reader)); break;
-          case 502: builder.map_string_string.putAll(map_string_stringAdapter().decode(reader)); break;
-          case 503: builder.map_string_message.putAll(map_string_messageAdapter().decode(reader)); break;
-          case 504: builder.map_string_enum.putAll(map_string_enumAdapter().decode(reader)); break;
-          case 518: builder.map_int32_any.putAll(map_int32_anyAdapter().decode(reader)); break;
-          case 519: builder.map_int32_duration.putAll(map_int32_durationAdapter().decode(reader)); break;
-          case 520: builder.map_int32_struct.putAll(map_int32_structAdapter().decode(reader)); break;
-          case 521: builder.map_int32_list_value.putAll(map_int32_list_valueAdapter().decode(reader)); break;
-          case 522: builder.map_int32_value.putAll(map_int32_valueAdapter().decode(reader)); break;
-          case 523: builder.map_int32_null_value.putAll(map_int32_null_valueAdapter().decode(reader)); break;
-          case 524: builder.map_int32_empty.putAll(map_int32_emptyAdapter().decode(reader)); break;
-          case 525: builder.map_int32_timestamp.putAll(map_int32_timestampAdapter().decode(reader)); break;
+          case 501: Internal.decodeMapEntry(map_int32_int32Adapter(), reader, builder.map_int32_int32); break;
+          case 502: Internal.decodeMapEntry(map_string_stringAdapter(), reader, builder.map_string_string); break;
+          case 503: Internal.decodeMapEntry(map_string_messageAdapter(), reader, builder.map_string_message); break;
+          case 504: Internal.decodeMapEntry(map_string_enumAdapter(), reader, builder.map_string_enum); break;
+          case 518: Internal.decodeMapEntry(map_int32_anyAdapter(), reader, builder.map_int32_any); break;
+          case 519: Internal.decodeMapEntry(map_int32_durationAdapter(), reader, builder.map_int32_duration); break;
+          case 520: Internal.decodeMapEntry(map_int32_structAdapter(), reader, builder.map_int32_struct); break;
+          case 521: Internal.decodeMapEntry(map_int32_list_valueAdapter(), reader, builder.map_int32_list_value); break;
+          case 522: Internal.decodeMapEntry(map_int32_valueAdapter(), reader, builder.map_int32_value); break;
+          case 523: Internal.decodeMapEntry(map_int32_null_valueAdapter(), reader, builder.map_int32_null_value); break;
+          case 524: Internal.decodeMapEntry(map_int32_emptyAdapter(), reader, builder.map_int32_empty); break;
+          case 525: Internal.decodeMapEntry(map_int32_timestampAdapter(), reader, builder.map_int32_timestamp); break;
           case 601: builder.oneof_string(ProtoAdapter.STRING.decode(reader)); break;
           case 602: builder.oneof_int32(ProtoAdapter.INT32.decode(reader)); break;
           case 603: builder.oneof_nested_message(NestedMessage.ADAPTER.decode(reader)); break;
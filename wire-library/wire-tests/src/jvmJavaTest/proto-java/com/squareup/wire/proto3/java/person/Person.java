@@ -466,7 +466,7 @@ public final class Person extends Message<Person, Person.Builder> {
               try {
                 builder.type(PhoneType.ADAPTER.decode(reader));
               } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-                builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+                reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
               }
               break;
             }
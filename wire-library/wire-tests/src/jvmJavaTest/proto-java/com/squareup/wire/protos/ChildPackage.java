@@ -128,7 +128,7 @@ public final class ChildPackage extends Message<ChildPackage, ChildPackage.Build
             try {
               builder.inner_foreign_enum(ForeignEnum.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
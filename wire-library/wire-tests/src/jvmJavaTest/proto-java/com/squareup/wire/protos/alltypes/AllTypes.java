@@ -3619,7 +3619,7 @@ public final class AllTypes extends Message<AllTypes, AllTypes.Builder> {
             try {
               builder.opt_nested_enum(NestedEnum.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
@@ -3643,7 +3643,7 @@ public final class AllTypes extends Message<AllTypes, AllTypes.Builder> {
             try {
               builder.req_nested_enum(NestedEnum.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
@@ -3667,29 +3667,29 @@ public final class AllTypes extends Message<AllTypes, AllTypes.Builder> {
             try {
               builder.rep_nested_enum.add(NestedEnum.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
           case 217: builder.rep_nested_message.add(NestedMessage.ADAPTER.decode(reader)); break;
-          case 301: builder.pack_int32.add(ProtoAdapter.INT32.decode(reader)); break;
-          case 302: builder.pack_uint32.add(ProtoAdapter.UINT32.decode(reader)); break;
-          case 303: builder.pack_sint32.add(ProtoAdapter.SINT32.decode(reader)); break;
-          case 304: builder.pack_fixed32.add(ProtoAdapter.FIXED32.decode(reader)); break;
-          case 305: builder.pack_sfixed32.add(ProtoAdapter.SFIXED32.decode(reader)); break;
-          case 306: builder.pack_int64.add(ProtoAdapter.INT64.decode(reader)); break;
-          case 307: builder.pack_uint64.add(ProtoAdapter.UINT64.decode(reader)); break;
-          case 308: builder.pack_sint64.add(ProtoAdapter.SINT64.decode(reader)); break;
-          case 309: builder.pack_fixed64.add(ProtoAdapter.FIXED64.decode(reader)); break;
-          case 310: builder.pack_sfixed64.add(ProtoAdapter.SFIXED64.decode(reader)); break;
-          case 311: builder.pack_bool.add(ProtoAdapter.BOOL.decode(reader)); break;
-          case 312: builder.pack_float.add(ProtoAdapter.FLOAT.decode(reader)); break;
-          case 313: builder.pack_double.add(ProtoAdapter.DOUBLE.decode(reader)); break;
+          case 301: ProtoAdapter.INT32.decodeRepeated(reader, builder.pack_int32); break;
+          case 302: ProtoAdapter.UINT32.decodeRepeated(reader, builder.pack_uint32); break;
+          case 303: ProtoAdapter.SINT32.decodeRepeated(reader, builder.pack_sint32); break;
+          case 304: ProtoAdapter.FIXED32.decodeRepeated(reader, builder.pack_fixed32); break;
+          case 305: ProtoAdapter.SFIXED32.decodeRepeated(reader, builder.pack_sfixed32); break;
+          case 306: ProtoAdapter.INT64.decodeRepeated(reader, builder.pack_int64); break;
+          case 307: ProtoAdapter.UINT64.decodeRepeated(reader, builder.pack_uint64); break;
+          case 308: ProtoAdapter.SINT64.decodeRepeated(reader, builder.pack_sint64); break;
+          case 309: ProtoAdapter.FIXED64.decodeRepeated(reader, builder.pack_fixed64); break;
+          case 310: ProtoAdapter.SFIXED64.decodeRepeated(reader, builder.pack_sfixed64); break;
+          case 311: ProtoAdapter.BOOL.decodeRepeated(reader, builder.pack_bool); break;
+          case 312: ProtoAdapter.FLOAT.decodeRepeated(reader, builder.pack_float); break;
+          case 313: ProtoAdapter.DOUBLE.decodeRepeated(reader, builder.pack_double); break;
           case 316: {
             try {
               builder.pack_nested_enum.add(NestedEnum.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
@@ -3712,14 +3712,14 @@ public final class AllTypes extends Message<AllTypes, AllTypes.Builder> {
             try {
               builder.default_nested_enum(NestedEnum.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
-          case 501: builder.map_int32_int32.putAll(map_int32_int32Adapter().decode(reader)); break;
-          case 502: builder.map_string_string.putAll(map_string_stringAdapter().decode(reader)); break;
-          case 503: builder.map_string_message.putAll(map_string_messageAdapter().decode(reader)); break;
-          case 504: builder.map_string_enum.putAll(map_string_enumAdapter().decode(reader)); break;
+          case 501: Internal.decodeMapEntry(map_int32_int32Adapter(), reader, builder.map_int32_int32); break;
+          case 502: Internal.decodeMapEntry(map_string_stringAdapter(), reader, builder.map_string_string); break;
+          case 503: Internal.decodeMapEntry(map_string_messageAdapter(), reader, builder.map_string_message); break;
+          case 504: Internal.decodeMapEntry(map_string_enumAdapter(), reader, builder.map_string_enum); break;
           case 1001: builder.ext_opt_int32(ProtoAdapter.INT32.decode(reader)); break;
           case 1002: builder.ext_opt_uint32(ProtoAdapter.UINT32.decode(reader)); break;
           case 1003: builder.ext_opt_sint32(ProtoAdapter.SINT32.decode(reader)); break;
@@ -3739,7 +3739,7 @@ public final class AllTypes extends Message<AllTypes, AllTypes.Builder> {
             try {
               builder.ext_opt_nested_enum(NestedEnum.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
@@ -3763,29 +3763,29 @@ public final class AllTypes extends Message<AllTypes, AllTypes.Builder> {
             try {
               builder.ext_rep_nested_enum.add(NestedEnum.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
           case 1117: builder.ext_rep_nested_message.add(NestedMessage.ADAPTER.decode(reader)); break;
-          case 1201: builder.ext_pack_int32.add(ProtoAdapter.INT32.decode(reader)); break;
-          case 1202: builder.ext_pack_uint32.add(ProtoAdapter.UINT32.decode(reader)); break;
-          case 1203: builder.ext_pack_sint32.add(ProtoAdapter.SINT32.decode(reader)); break;
-          case 1204: builder.ext_pack_fixed32.add(ProtoAdapter.FIXED32.decode(reader)); break;
-          case 1205: builder.ext_pack_sfixed32.add(ProtoAdapter.SFIXED32.decode(reader)); break;
-          case 1206: builder.ext_pack_int64.add(ProtoAdapter.INT64.decode(reader)); break;
-          case 1207: builder.ext_pack_uint64.add(ProtoAdapter.UINT64.decode(reader)); break;
-          case 1208: builder.ext_pack_sint64.add(ProtoAdapter.SINT64.decode(reader)); break;
-          case 1209: builder.ext_pack_fixed64.add(ProtoAdapter.FIXED64.decode(reader)); break;
-          case 1210: builder.ext_pack_sfixed64.add(ProtoAdapter.SFIXED64.decode(reader)); break;
-          case 1211: builder.ext_pack_bool.add(ProtoAdapter.BOOL.decode(reader)); break;
-          case 1212: builder.ext_pack_float.add(ProtoAdapter.FLOAT.decode(reader)); break;
-          case 1213: builder.ext_pack_double.add(ProtoAdapter.DOUBLE.decode(reader)); break;
+          case 1201: ProtoAdapter.INT32.decodeRepeated(reader, builder.ext_pack_int32); break;
+          case 1202: ProtoAdapter.UINT32.decodeRepeated(reader, builder.ext_pack_uint32); break;
+          case 1203: ProtoAdapter.SINT32.decodeRepeated(reader, builder.ext_pack_sint32); break;
+          case 1204: ProtoAdapter.FIXED32.decodeRepeated(reader, builder.ext_pack_fixed32); break;
+          case 1205: ProtoAdapter.SFIXED32.decodeRepeated(reader, builder.ext_pack_sfixed32); break;
+          case 1206: ProtoAdapter.INT64.decodeRepeated(reader, builder.ext_pack_int64); break;
+          case 1207: ProtoAdapter.UINT64.decodeRepeated(reader, builder.ext_pack_uint64); break;
+          case 1208: ProtoAdapter.SINT64.decodeRepeated(reader, builder.ext_pack_sint64); break;
+          case 1209: ProtoAdapter.FIXED64.decodeRepeated(reader, builder.ext_pack_fixed64); break;
+          case 1210: ProtoAdapter.SFIXED64.decodeRepeated(reader, builder.ext_pack_sfixed64); break;
+          case 1211: ProtoAdapter.BOOL.decodeRepeated(reader, builder.ext_pack_bool); break;
+          case 1212: ProtoAdapter.FLOAT.decodeRepeated(reader, builder.ext_pack_float); break;
+          case 1213: ProtoAdapter.DOUBLE.decodeRepeated(reader, builder.ext_pack_double); break;
           case 1216: {
             try {
               builder.ext_pack_nested_enum.add(NestedEnum.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
@@ -386,7 +386,7 @@ public final class FooBar extends Message<FooBar, FooBar.Builder> {
               try {
                 builder.value(FooBarBazEnum.ADAPTER.decode(reader));
               } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-                builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+                reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
               }
               break;
             }
@@ -648,7 +648,7 @@ public final class FooBar extends Message<FooBar, FooBar.Builder> {
             try {
               builder.ext(FooBarBazEnum.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
@@ -656,7 +656,7 @@ public final class FooBar extends Message<FooBar, FooBar.Builder> {
             try {
               builder.rep.add(FooBarBazEnum.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
@@ -649,7 +649,7 @@ public final class SimpleMessage extends Message<SimpleMessage, SimpleMessage.Bu
             try {
               builder.default_nested_enum(NestedEnum.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
@@ -659,7 +659,7 @@ public final class SimpleMessage extends Message<SimpleMessage, SimpleMessage.Bu
             try {
               builder.default_foreign_enum(ForeignEnum.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
@@ -667,7 +667,7 @@ public final class SimpleMessage extends Message<SimpleMessage, SimpleMessage.Bu
             try {
               builder.no_default_foreign_enum(ForeignEnum.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
@@ -174,7 +174,7 @@ public final class VersionOne extends Message<VersionOne, VersionOne.Builder> {
             try {
               builder.en(EnumVersionOne.ADAPTER.decode(reader));
             } catch (ProtoAdapter.EnumConstantNotFoundException e) {
-              builder.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
+              reader.addUnknownField(tag, FieldEncoding.VARINT, (long) e.value);
             }
             break;
           }
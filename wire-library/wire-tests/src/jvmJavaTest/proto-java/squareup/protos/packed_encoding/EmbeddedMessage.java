@@ -150,7 +150,7 @@ public final class EmbeddedMessage extends Message<EmbeddedMessage, EmbeddedMess
       long token = reader.beginMessage();
       for (int tag; (tag = reader.nextTag()) != -1;) {
         switch (tag) {
-          case 1: builder.inner_repeated_number.add(ProtoAdapter.INT32.decode(reader)); break;
+          case 1: ProtoAdapter.INT32.decodeRepeated(reader, builder.inner_repeated_number); break;
           case 2: builder.inner_number_after(ProtoAdapter.INT32.decode(reader)); break;
           default: {
             reader.readUnknownField(tag);
@@ -13,8 +13,11 @@ import com.squareup.wire.Syntax
 import com.squareup.wire.Syntax.PROTO_2
 import com.squareup.wire.WireEnum
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.checkElementsNotNull
 import com.squareup.wire.`internal`.countNonNull
+import com.squareup.wire.`internal`.decodeMapEntry
 import com.squareup.wire.`internal`.immutableCopyOf
 import com.squareup.wire.`internal`.missingRequiredFields
 import com.squareup.wire.`internal`.redactElements
@@ -3326,7 +3329,9 @@ public class AllTypes(
           ProtoAdapter.newMapAdapter(ProtoAdapter.STRING, NestedEnum.ADAPTER) }
 
       public override fun encodedSize(`value`: AllTypes): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         size += ProtoAdapter.INT32.encodedSizeWithTag(1, value.opt_int32)
         size += ProtoAdapter.UINT32.encodedSizeWithTag(2, value.opt_uint32)
         size += ProtoAdapter.SINT32.encodedSizeWithTag(3, value.opt_sint32)
@@ -3464,7 +3469,7 @@ public class AllTypes(
         size += ProtoAdapter.FLOAT.asPacked().encodedSizeWithTag(1212, value.ext_pack_float)
         size += ProtoAdapter.DOUBLE.asPacked().encodedSizeWithTag(1213, value.ext_pack_double)
         size += NestedEnum.ADAPTER.asPacked().encodedSizeWithTag(1216, value.ext_pack_nested_enum)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: AllTypes): Unit {
@@ -3949,19 +3954,19 @@ public class AllTypes(
               reader.addUnknownField(tag, FieldEncoding.VARINT, e.value.toLong())
             }
             217 -> rep_nested_message.add(NestedMessage.ADAPTER.decode(reader))
-            301 -> pack_int32.add(ProtoAdapter.INT32.decode(reader))
-            302 -> pack_uint32.add(ProtoAdapter.UINT32.decode(reader))
-            303 -> pack_sint32.add(ProtoAdapter.SINT32.decode(reader))
-            304 -> pack_fixed32.add(ProtoAdapter.FIXED32.decode(reader))
-            305 -> pack_sfixed32.add(ProtoAdapter.SFIXED32.decode(reader))
-            306 -> pack_int64.add(ProtoAdapter.INT64.decode(reader))
-            307 -> pack_uint64.add(ProtoAdapter.UINT64.decode(reader))
-            308 -> pack_sint64.add(ProtoAdapter.SINT64.decode(reader))
-            309 -> pack_fixed64.add(ProtoAdapter.FIXED64.decode(reader))
-            310 -> pack_sfixed64.add(ProtoAdapter.SFIXED64.decode(reader))
-            311 -> pack_bool.add(ProtoAdapter.BOOL.decode(reader))
-            312 -> pack_float.add(ProtoAdapter.FLOAT.decode(reader))
-            313 -> pack_double.add(ProtoAdapter.DOUBLE.decode(reader))
+            301 -> ProtoAdapter.INT32.decodeRepeated(reader, pack_int32)
+            302 -> ProtoAdapter.UINT32.decodeRepeated(reader, pack_uint32)
+            303 -> ProtoAdapter.SINT32.decodeRepeated(reader, pack_sint32)
+            304 -> ProtoAdapter.FIXED32.decodeRepeated(reader, pack_fixed32)
+            305 -> ProtoAdapter.SFIXED32.decodeRepeated(reader, pack_sfixed32)
+            306 -> ProtoAdapter.INT64.decodeRepeated(reader, pack_int64)
+            307 -> ProtoAdapter.UINT64.decodeRepeated(reader, pack_uint64)
+            308 -> ProtoAdapter.SINT64.decodeRepeated(reader, pack_sint64)
+            309 -> ProtoAdapter.FIXED64.decodeRepeated(reader, pack_fixed64)
+            310 -> ProtoAdapter.SFIXED64.decodeRepeated(reader, pack_sfixed64)
+            311 -> ProtoAdapter.BOOL.decodeRepeated(reader, pack_bool)
+            312 -> ProtoAdapter.FLOAT.decodeRepeated(reader, pack_float)
+            313 -> ProtoAdapter.DOUBLE.decodeRepeated(reader, pack_double)
             316 -> try {
               pack_nested_enum.add(NestedEnum.ADAPTER.decode(reader))
             } catch (e: ProtoAdapter.EnumConstantNotFoundException) {
@@ -3987,10 +3992,10 @@ public class AllTypes(
             } catch (e: ProtoAdapter.EnumConstantNotFoundException) {
               reader.addUnknownField(tag, FieldEncoding.VARINT, e.value.toLong())
             }
-            501 -> map_int32_int32.putAll(map_int32_int32Adapter.decode(reader))
-            502 -> map_string_string.putAll(map_string_stringAdapter.decode(reader))
-            503 -> map_string_message.putAll(map_string_messageAdapter.decode(reader))
-            504 -> map_string_enum.putAll(map_string_enumAdapter.decode(reader))
+            501 -> decodeMapEntry(map_int32_int32Adapter, reader, map_int32_int32)
+            502 -> decodeMapEntry(map_string_stringAdapter, reader, map_string_string)
+            503 -> decodeMapEntry(map_string_messageAdapter, reader, map_string_message)
+            504 -> decodeMapEntry(map_string_enumAdapter, reader, map_string_enum)
             601 -> oneof_string = ProtoAdapter.STRING.decode(reader)
             602 -> oneof_int32 = ProtoAdapter.INT32.decode(reader)
             603 -> oneof_nested_message = NestedMessage.ADAPTER.decode(reader)
@@ -4036,19 +4041,19 @@ public class AllTypes(
               reader.addUnknownField(tag, FieldEncoding.VARINT, e.value.toLong())
             }
             1117 -> ext_rep_nested_message.add(NestedMessage.ADAPTER.decode(reader))
-            1201 -> ext_pack_int32.add(ProtoAdapter.INT32.decode(reader))
-            1202 -> ext_pack_uint32.add(ProtoAdapter.UINT32.decode(reader))
-            1203 -> ext_pack_sint32.add(ProtoAdapter.SINT32.decode(reader))
-            1204 -> ext_pack_fixed32.add(ProtoAdapter.FIXED32.decode(reader))
-            1205 -> ext_pack_sfixed32.add(ProtoAdapter.SFIXED32.decode(reader))
-            1206 -> ext_pack_int64.add(ProtoAdapter.INT64.decode(reader))
-            1207 -> ext_pack_uint64.add(ProtoAdapter.UINT64.decode(reader))
-            1208 -> ext_pack_sint64.add(ProtoAdapter.SINT64.decode(reader))
-            1209 -> ext_pack_fixed64.add(ProtoAdapter.FIXED64.decode(reader))
-            1210 -> ext_pack_sfixed64.add(ProtoAdapter.SFIXED64.decode(reader))
-            1211 -> ext_pack_bool.add(ProtoAdapter.BOOL.decode(reader))
-            1212 -> ext_pack_float.add(ProtoAdapter.FLOAT.decode(reader))
-            1213 -> ext_pack_double.add(ProtoAdapter.DOUBLE.decode(reader))
+            1201 -> ProtoAdapter.INT32.decodeRepeated(reader, ext_pack_int32)
+            1202 -> ProtoAdapter.UINT32.decodeRepeated(reader, ext_pack_uint32)
+            1203 -> ProtoAdapter.SINT32.decodeRepeated(reader, ext_pack_sint32)
+            1204 -> ProtoAdapter.FIXED32.decodeRepeated(reader, ext_pack_fixed32)
+            1205 -> ProtoAdapter.SFIXED32.decodeRepeated(reader, ext_pack_sfixed32)
+            1206 -> ProtoAdapter.INT64.decodeRepeated(reader, ext_pack_int64)
+            1207 -> ProtoAdapter.UINT64.decodeRepeated(reader, ext_pack_uint64)
+            1208 -> ProtoAdapter.SINT64.decodeRepeated(reader, ext_pack_sint64)
+            1209 -> ProtoAdapter.FIXED64.decodeRepeated(reader, ext_pack_fixed64)
+            1210 -> ProtoAdapter.SFIXED64.decodeRepeated(reader, ext_pack_sfixed64)
+            1211 -> ProtoAdapter.BOOL.decodeRepeated(reader, ext_pack_bool)
+            1212 -> ProtoAdapter.FLOAT.decodeRepeated(reader, ext_pack_float)
+            1213 -> ProtoAdapter.DOUBLE.decodeRepeated(reader, ext_pack_double)
             1216 -> try {
               ext_pack_nested_enum.add(NestedEnum.ADAPTER.decode(reader))
             } catch (e: ProtoAdapter.EnumConstantNotFoundException) {
@@ -4310,9 +4315,11 @@ public class AllTypes(
         "all_types_proto2.proto"
       ) {
         public override fun encodedSize(`value`: NestedMessage): Int {
-          var size = value.unknownFields.size
+          var size = cachedEncodedSize(value)
+          if (size != 0) return size
+          size = value.unknownFields.size
           size += ProtoAdapter.INT32.encodedSizeWithTag(1, value.a)
-          return size
+          return cacheEncodedSize(value, size)
         }
 
         public override fun encode(writer: ProtoWriter, `value`: NestedMessage): Unit {
@@ -10,8 +10,11 @@ import com.squareup.wire.ProtoWriter
 import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax.PROTO_3
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.checkElementsNotNull
 import com.squareup.wire.`internal`.countNonNull
+import com.squareup.wire.`internal`.decodeMapEntry
 import com.squareup.wire.`internal`.immutableCopyOf
 import kotlin.Any
 import kotlin.Boolean
@@ -634,7 +637,9 @@ public class All32(
           ProtoAdapter.newMapAdapter(ProtoAdapter.INT32, ProtoAdapter.SFIXED32) }
 
       public override fun encodedSize(`value`: All32): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         if (value.my_int32 != 0) size += ProtoAdapter.INT32.encodedSizeWithTag(1, value.my_int32)
         if (value.my_uint32 != 0) size += ProtoAdapter.UINT32.encodedSizeWithTag(2, value.my_uint32)
         if (value.my_sint32 != 0) size += ProtoAdapter.SINT32.encodedSizeWithTag(3, value.my_sint32)
@@ -659,7 +664,7 @@ public class All32(
         size += map_int32_sint32Adapter.encodedSizeWithTag(503, value.map_int32_sint32)
         size += map_int32_fixed32Adapter.encodedSizeWithTag(504, value.map_int32_fixed32)
         size += map_int32_sfixed32Adapter.encodedSizeWithTag(505, value.map_int32_sfixed32)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: All32): Unit {
@@ -751,18 +756,18 @@ public class All32(
             203 -> rep_sint32.add(ProtoAdapter.SINT32.decode(reader))
             204 -> rep_fixed32.add(ProtoAdapter.FIXED32.decode(reader))
             205 -> rep_sfixed32.add(ProtoAdapter.SFIXED32.decode(reader))
-            301 -> pack_int32.add(ProtoAdapter.INT32.decode(reader))
-            302 -> pack_uint32.add(ProtoAdapter.UINT32.decode(reader))
-            303 -> pack_sint32.add(ProtoAdapter.SINT32.decode(reader))
-            304 -> pack_fixed32.add(ProtoAdapter.FIXED32.decode(reader))
-            305 -> pack_sfixed32.add(ProtoAdapter.SFIXED32.decode(reader))
+            301 -> ProtoAdapter.INT32.decodeRepeated(reader, pack_int32)
+            302 -> ProtoAdapter.UINT32.decodeRepeated(reader, pack_uint32)
+            303 -> ProtoAdapter.SINT32.decodeRepeated(reader, pack_sint32)
+            304 -> ProtoAdapter.FIXED32.decodeRepeated(reader, pack_fixed32)
+            305 -> ProtoAdapter.SFIXED32.decodeRepeated(reader, pack_sfixed32)
             401 -> oneof_int32 = ProtoAdapter.INT32.decode(reader)
             402 -> oneof_sfixed32 = ProtoAdapter.SFIXED32.decode(reader)
-            501 -> map_int32_int32.putAll(map_int32_int32Adapter.decode(reader))
-            502 -> map_int32_uint32.putAll(map_int32_uint32Adapter.decode(reader))
-            503 -> map_int32_sint32.putAll(map_int32_sint32Adapter.decode(reader))
-            504 -> map_int32_fixed32.putAll(map_int32_fixed32Adapter.decode(reader))
-            505 -> map_int32_sfixed32.putAll(map_int32_sfixed32Adapter.decode(reader))
+            501 -> decodeMapEntry(map_int32_int32Adapter, reader, map_int32_int32)
+            502 -> decodeMapEntry(map_int32_uint32Adapter, reader, map_int32_uint32)
+            503 -> decodeMapEntry(map_int32_sint32Adapter, reader, map_int32_sint32)
+            504 -> decodeMapEntry(map_int32_fixed32Adapter, reader, map_int32_fixed32)
+            505 -> decodeMapEntry(map_int32_sfixed32Adapter, reader, map_int32_sfixed32)
             else -> reader.readUnknownField(tag)
           }
         }
@@ -10,8 +10,11 @@ import com.squareup.wire.ProtoWriter
 import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax.PROTO_3
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.checkElementsNotNull
 import com.squareup.wire.`internal`.countNonNull
+import com.squareup.wire.`internal`.decodeMapEntry
 import com.squareup.wire.`internal`.immutableCopyOf
 import kotlin.Any
 import kotlin.Boolean
@@ -636,7 +639,9 @@ public class All64(
           ProtoAdapter.newMapAdapter(ProtoAdapter.INT64, ProtoAdapter.SFIXED64) }
 
       public override fun encodedSize(`value`: All64): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         if (value.my_int64 != 0L) size += ProtoAdapter.INT64.encodedSizeWithTag(1, value.my_int64)
         if (value.my_uint64 != 0L) size += ProtoAdapter.UINT64.encodedSizeWithTag(2,
             value.my_uint64)
@@ -663,7 +668,7 @@ public class All64(
         size += map_int64_sint64Adapter.encodedSizeWithTag(503, value.map_int64_sint64)
         size += map_int64_fixed64Adapter.encodedSizeWithTag(504, value.map_int64_fixed64)
         size += map_int64_sfixed64Adapter.encodedSizeWithTag(505, value.map_int64_sfixed64)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: All64): Unit {
@@ -755,18 +760,18 @@ public class All64(
             203 -> rep_sint64.add(ProtoAdapter.SINT64.decode(reader))
             204 -> rep_fixed64.add(ProtoAdapter.FIXED64.decode(reader))
             205 -> rep_sfixed64.add(ProtoAdapter.SFIXED64.decode(reader))
-            301 -> pack_int64.add(ProtoAdapter.INT64.decode(reader))
-            302 -> pack_uint64.add(ProtoAdapter.UINT64.decode(reader))
-            303 -> pack_sint64.add(ProtoAdapter.SINT64.decode(reader))
-            304 -> pack_fixed64.add(ProtoAdapter.FIXED64.decode(reader))
-            305 -> pack_sfixed64.add(ProtoAdapter.SFIXED64.decode(reader))
+            301 -> ProtoAdapter.INT64.decodeRepeated(reader, pack_int64)
+            302 -> ProtoAdapter.UINT64.decodeRepeated(reader, pack_uint64)
+            303 -> ProtoAdapter.SINT64.decodeRepeated(reader, pack_sint64)
+            304 -> ProtoAdapter.FIXED64.decodeRepeated(reader, pack_fixed64)
+            305 -> ProtoAdapter.SFIXED64.decodeRepeated(reader, pack_sfixed64)
             401 -> oneof_int64 = ProtoAdapter.INT64.decode(reader)
             402 -> oneof_sfixed64 = ProtoAdapter.SFIXED64.decode(reader)
-            501 -> map_int64_int64.putAll(map_int64_int64Adapter.decode(reader))
-            502 -> map_int64_uint64.putAll(map_int64_uint64Adapter.decode(reader))
-            503 -> map_int64_sint64.putAll(map_int64_sint64Adapter.decode(reader))
-            504 -> map_int64_fixed64.putAll(map_int64_fixed64Adapter.decode(reader))
-            505 -> map_int64_sfixed64.putAll(map_int64_sfixed64Adapter.decode(reader))
+            501 -> decodeMapEntry(map_int64_int64Adapter, reader, map_int64_int64)
+            502 -> decodeMapEntry(map_int64_uint64Adapter, reader, map_int64_uint64)
+            503 -> decodeMapEntry(map_int64_sint64Adapter, reader, map_int64_sint64)
+            504 -> decodeMapEntry(map_int64_fixed64Adapter, reader, map_int64_fixed64)
+            505 -> decodeMapEntry(map_int64_sfixed64Adapter, reader, map_int64_sfixed64)
             else -> reader.readUnknownField(tag)
           }
         }
@@ -10,8 +10,11 @@ import com.squareup.wire.ProtoWriter
 import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax.PROTO_3
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.checkElementsNotNull
 import com.squareup.wire.`internal`.countNonNull
+import com.squareup.wire.`internal`.decodeMapEntry
 import com.squareup.wire.`internal`.immutableCopyOfMapWithStructValues
 import com.squareup.wire.`internal`.immutableCopyOfStruct
 import com.squareup.wire.`internal`.redactElements
@@ -565,7 +568,9 @@ public class AllStructs(
           ProtoAdapter.newMapAdapter(ProtoAdapter.INT32, ProtoAdapter.STRUCT_NULL) }
 
       public override fun encodedSize(`value`: AllStructs): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         if (value.struct != null) size += ProtoAdapter.STRUCT_MAP.encodedSizeWithTag(1,
             value.struct)
         if (value.list != null) size += ProtoAdapter.STRUCT_LIST.encodedSizeWithTag(2, value.list)
@@ -593,7 +598,7 @@ public class AllStructs(
         size += map_int32_listAdapter.encodedSizeWithTag(302, value.map_int32_list)
         size += map_int32_value_aAdapter.encodedSizeWithTag(303, value.map_int32_value_a)
         size += map_int32_null_valueAdapter.encodedSizeWithTag(304, value.map_int32_null_value)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: AllStructs): Unit {
@@ -689,10 +694,10 @@ public class AllStructs(
             }
             201 -> oneof_struct = ProtoAdapter.STRUCT_MAP.decode(reader)
             202 -> oneof_list = ProtoAdapter.STRUCT_LIST.decode(reader)
-            301 -> map_int32_struct.putAll(map_int32_structAdapter.decode(reader))
-            302 -> map_int32_list.putAll(map_int32_listAdapter.decode(reader))
-            303 -> map_int32_value_a.putAll(map_int32_value_aAdapter.decode(reader))
-            304 -> map_int32_null_value.putAll(map_int32_null_valueAdapter.decode(reader))
+            301 -> decodeMapEntry(map_int32_structAdapter, reader, map_int32_struct)
+            302 -> decodeMapEntry(map_int32_listAdapter, reader, map_int32_list)
+            303 -> decodeMapEntry(map_int32_value_aAdapter, reader, map_int32_value_a)
+            304 -> decodeMapEntry(map_int32_null_valueAdapter, reader, map_int32_null_value)
             else -> reader.readUnknownField(tag)
           }
         }
@@ -10,7 +10,10 @@ import com.squareup.wire.ProtoWriter
 import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax.PROTO_3
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.checkElementsNotNull
+import com.squareup.wire.`internal`.decodeMapEntry
 import com.squareup.wire.`internal`.immutableCopyOf
 import com.squareup.wire.`internal`.redactElements
 import kotlin.Any
@@ -768,7 +771,9 @@ public class AllWrappers(
           ProtoAdapter.newMapAdapter(ProtoAdapter.INT32, ProtoAdapter.BYTES_VALUE) }
 
       public override fun encodedSize(`value`: AllWrappers): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         if (value.double_value != null) size += ProtoAdapter.DOUBLE_VALUE.encodedSizeWithTag(1,
             value.double_value)
         if (value.float_value != null) size += ProtoAdapter.FLOAT_VALUE.encodedSizeWithTag(2,
@@ -809,7 +814,7 @@ public class AllWrappers(
         size += map_int32_bool_valueAdapter.encodedSizeWithTag(307, value.map_int32_bool_value)
         size += map_int32_string_valueAdapter.encodedSizeWithTag(308, value.map_int32_string_value)
         size += map_int32_bytes_valueAdapter.encodedSizeWithTag(309, value.map_int32_bytes_value)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: AllWrappers): Unit {
@@ -940,15 +945,15 @@ public class AllWrappers(
             107 -> rep_bool_value.add(ProtoAdapter.BOOL_VALUE.decode(reader))
             108 -> rep_string_value.add(ProtoAdapter.STRING_VALUE.decode(reader))
             109 -> rep_bytes_value.add(ProtoAdapter.BYTES_VALUE.decode(reader))
-            301 -> map_int32_double_value.putAll(map_int32_double_valueAdapter.decode(reader))
-            302 -> map_int32_float_value.putAll(map_int32_float_valueAdapter.decode(reader))
-            303 -> map_int32_int64_value.putAll(map_int32_int64_valueAdapter.decode(reader))
-            304 -> map_int32_uint64_value.putAll(map_int32_uint64_valueAdapter.decode(reader))
-            305 -> map_int32_int32_value.putAll(map_int32_int32_valueAdapter.decode(reader))
-            306 -> map_int32_uint32_value.putAll(map_int32_uint32_valueAdapter.decode(reader))
-            307 -> map_int32_bool_value.putAll(map_int32_bool_valueAdapter.decode(reader))
-            308 -> map_int32_string_value.putAll(map_int32_string_valueAdapter.decode(reader))
-            309 -> map_int32_bytes_value.putAll(map_int32_bytes_valueAdapter.decode(reader))
+            301 -> decodeMapEntry(map_int32_double_valueAdapter, reader, map_int32_double_value)
+            302 -> decodeMapEntry(map_int32_float_valueAdapter, reader, map_int32_float_value)
+            303 -> decodeMapEntry(map_int32_int64_valueAdapter, reader, map_int32_int64_value)
+            304 -> decodeMapEntry(map_int32_uint64_valueAdapter, reader, map_int32_uint64_value)
+            305 -> decodeMapEntry(map_int32_int32_valueAdapter, reader, map_int32_int32_value)
+            306 -> decodeMapEntry(map_int32_uint32_valueAdapter, reader, map_int32_uint32_value)
+            307 -> decodeMapEntry(map_int32_bool_valueAdapter, reader, map_int32_bool_value)
+            308 -> decodeMapEntry(map_int32_string_valueAdapter, reader, map_int32_string_value)
+            309 -> decodeMapEntry(map_int32_bytes_valueAdapter, reader, map_int32_bytes_value)
             else -> reader.readUnknownField(tag)
           }
         }
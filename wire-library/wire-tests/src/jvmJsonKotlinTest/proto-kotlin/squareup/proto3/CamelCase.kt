@@ -11,7 +11,10 @@ import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax
 import com.squareup.wire.Syntax.PROTO_3
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.checkElementsNotNull
+import com.squareup.wire.`internal`.decodeMapEntry
 import com.squareup.wire.`internal`.immutableCopyOf
 import com.squareup.wire.`internal`.sanitize
 import kotlin.Any
@@ -174,14 +177,16 @@ public class CamelCase(
           ProtoAdapter.newMapAdapter(ProtoAdapter.INT32, ProtoAdapter.INT32) }
 
       public override fun encodedSize(`value`: CamelCase): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         if (value.nested__message != null) size += NestedCamelCase.ADAPTER.encodedSizeWithTag(1,
             value.nested__message)
         size += ProtoAdapter.INT32.asPacked().encodedSizeWithTag(2, value._Rep_int32)
         if (value.IDitIt_my_wAy != "") size += ProtoAdapter.STRING.encodedSizeWithTag(3,
             value.IDitIt_my_wAy)
         size += map_int32_Int32Adapter.encodedSizeWithTag(4, value.map_int32_Int32)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: CamelCase): Unit {
@@ -212,9 +217,9 @@ public class CamelCase(
         val unknownFields = reader.forEachTag { tag ->
           when (tag) {
             1 -> nested__message = NestedCamelCase.ADAPTER.decode(reader)
-            2 -> _Rep_int32.add(ProtoAdapter.INT32.decode(reader))
+            2 -> ProtoAdapter.INT32.decodeRepeated(reader, _Rep_int32)
             3 -> IDitIt_my_wAy = ProtoAdapter.STRING.decode(reader)
-            4 -> map_int32_Int32.putAll(map_int32_Int32Adapter.decode(reader))
+            4 -> decodeMapEntry(map_int32_Int32Adapter, reader, map_int32_Int32)
             else -> reader.readUnknownField(tag)
           }
         }
@@ -307,10 +312,12 @@ public class CamelCase(
         "camel_case.proto"
       ) {
         public override fun encodedSize(`value`: NestedCamelCase): Int {
-          var size = value.unknownFields.size
+          var size = cachedEncodedSize(value)
+          if (size != 0) return size
+          size = value.unknownFields.size
           if (value.one_int32 != 0) size += ProtoAdapter.INT32.encodedSizeWithTag(1,
               value.one_int32)
-          return size
+          return cacheEncodedSize(value, size)
         }
 
         public override fun encode(writer: ProtoWriter, `value`: NestedCamelCase): Unit {
@@ -10,6 +10,9 @@ import com.squareup.wire.ProtoWriter
 import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax.PROTO_3
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
+import com.squareup.wire.`internal`.decodeMapEntry
 import com.squareup.wire.`internal`.immutableCopyOf
 import kotlin.Any
 import kotlin.Boolean
@@ -384,7 +387,9 @@ public class MapTypes(
           ProtoAdapter.newMapAdapter(ProtoAdapter.UINT64, ProtoAdapter.UINT64) }
 
       public override fun encodedSize(`value`: MapTypes): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         size += map_string_stringAdapter.encodedSizeWithTag(1, value.map_string_string)
         size += map_int32_int32Adapter.encodedSizeWithTag(2, value.map_int32_int32)
         size += map_sint32_sint32Adapter.encodedSizeWithTag(3, value.map_sint32_sint32)
@@ -396,7 +401,7 @@ public class MapTypes(
         size += map_sint64_sint64Adapter.encodedSizeWithTag(9, value.map_sint64_sint64)
         size += map_fixed64_fixed64Adapter.encodedSizeWithTag(10, value.map_fixed64_fixed64)
         size += map_uint64_uint64Adapter.encodedSizeWithTag(11, value.map_uint64_uint64)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: MapTypes): Unit {
@@ -443,17 +448,17 @@ public class MapTypes(
         val map_uint64_uint64 = mutableMapOf<Long, Long>()
         val unknownFields = reader.forEachTag { tag ->
           when (tag) {
-            1 -> map_string_string.putAll(map_string_stringAdapter.decode(reader))
-            2 -> map_int32_int32.putAll(map_int32_int32Adapter.decode(reader))
-            3 -> map_sint32_sint32.putAll(map_sint32_sint32Adapter.decode(reader))
-            4 -> map_sfixed32_sfixed32.putAll(map_sfixed32_sfixed32Adapter.decode(reader))
-            5 -> map_fixed32_fixed32.putAll(map_fixed32_fixed32Adapter.decode(reader))
-            6 -> map_uint32_uint32.putAll(map_uint32_uint32Adapter.decode(reader))
-            7 -> map_int64_int64.putAll(map_int64_int64Adapter.decode(reader))
-            8 -> map_sfixed64_sfixed64.putAll(map_sfixed64_sfixed64Adapter.decode(reader))
-            9 -> map_sint64_sint64.putAll(map_sint64_sint64Adapter.decode(reader))
-            10 -> map_fixed64_fixed64.putAll(map_fixed64_fixed64Adapter.decode(reader))
-            11 -> map_uint64_uint64.putAll(map_uint64_uint64Adapter.decode(reader))
+            1 -> decodeMapEntry(map_string_stringAdapter, reader, map_string_string)
+            2 -> decodeMapEntry(map_int32_int32Adapter, reader, map_int32_int32)
+            3 -> decodeMapEntry(map_sint32_sint32Adapter, reader, map_sint32_sint32)
+            4 -> decodeMapEntry(map_sfixed32_sfixed32Adapter, reader, map_sfixed32_sfixed32)
+            5 -> decodeMapEntry(map_fixed32_fixed32Adapter, reader, map_fixed32_fixed32)
+            6 -> decodeMapEntry(map_uint32_uint32Adapter, reader, map_uint32_uint32)
+            7 -> decodeMapEntry(map_int64_int64Adapter, reader, map_int64_int64)
+            8 -> decodeMapEntry(map_sfixed64_sfixed64Adapter, reader, map_sfixed64_sfixed64)
+            9 -> decodeMapEntry(map_sint64_sint64Adapter, reader, map_sint64_sint64)
+            10 -> decodeMapEntry(map_fixed64_fixed64Adapter, reader, map_fixed64_fixed64)
+            11 -> decodeMapEntry(map_uint64_uint64Adapter, reader, map_uint64_uint64)
             else -> reader.readUnknownField(tag)
           }
         }
@@ -13,6 +13,8 @@ import com.squareup.wire.ProtoWriter
 import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax.PROTO_3
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.checkElementsNotNull
 import com.squareup.wire.`internal`.immutableCopyOf
 import com.squareup.wire.`internal`.immutableCopyOfStruct
@@ -237,7 +239,9 @@ public class PizzaDelivery(
       "pizza.proto"
     ) {
       public override fun encodedSize(`value`: PizzaDelivery): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         if (value.phone_number != "") size += ProtoAdapter.STRING.encodedSizeWithTag(1,
             value.phone_number)
         if (value.address != "") size += ProtoAdapter.STRING.encodedSizeWithTag(2, value.address)
@@ -250,7 +254,7 @@ public class PizzaDelivery(
             value.loyalty)
         if (value.ordered_at != null) size += ProtoAdapter.INSTANT.encodedSizeWithTag(7,
             value.ordered_at)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: PizzaDelivery): Unit {
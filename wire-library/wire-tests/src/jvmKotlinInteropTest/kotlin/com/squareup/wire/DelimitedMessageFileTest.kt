@@ -0,0 +1,87 @@
+/*
+ * Copyright 2021 Square Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.wire
+
+import com.squareup.wire.protos.kotlin.person.Person
+import okio.buffer
+import okio.sink
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import java.io.EOFException
+import java.io.File
+import java.util.stream.Collectors
+import java.util.stream.StreamSupport
+import kotlin.test.Test
+import kotlin.test.assertFailsWith
+
+class DelimitedMessageFileTest {
+  @Rule @JvmField val temp = TemporaryFolder()
+
+  @Test fun readAllInParallel() {
+    val file = writePeople(count = 100_000)
+    DelimitedMessageFile.open(file, Person.ADAPTER).use { people ->
+      assertThat(people.messageCount).isEqualTo(100_000L)
+      assertThat(people.splitCount).isGreaterThan(1)
+      assertThat(people.readAll().map { it.id }).isEqualTo((0 until 100_000).toList())
+    }
+  }
+
+  @Test fun parallelStream() {
+    val file = writePeople(count = 100_000)
+    DelimitedMessageFile.open(file, Person.ADAPTER).use { people ->
+      val ids = StreamSupport.stream(people.spliterator(), true)
+        .map { it.id }
+        .collect(Collectors.toList())
+      assertThat(ids).isEqualTo((0 until 100_000).toList())
+    }
+  }
+
+  @Test fun splitsCoverAllMessages() {
+    val file = writePeople(count = 100_000)
+    DelimitedMessageFile.open(file, Person.ADAPTER).use { people ->
+      val ids = (0 until people.splitCount).flatMap { split -> people.readSplit(split) }
+        .map { it.id }
+      assertThat(ids).isEqualTo((0 until 100_000).toList())
+    }
+  }
+
+  @Test fun emptyFile() {
+    val file = temp.newFile()
+    DelimitedMessageFile.open(file, Person.ADAPTER).use { people ->
+      assertThat(people.messageCount).isEqualTo(0L)
+      assertThat(people.readAll()).isEmpty()
+    }
+  }
+
+  @Test fun truncatedFile() {
+    val file = writePeople(count = 2)
+    file.writeBytes(file.readBytes().copyOf(file.length().toInt() - 1))
+    assertFailsWith<EOFException> {
+      DelimitedMessageFile.open(file, Person.ADAPTER)
+    }
+  }
+
+  private fun writePeople(count: Int): File {
+    val file = temp.newFile()
+    DelimitedMessageSink(file.sink().buffer(), Person.ADAPTER).use { sink ->
+      for (id in 0 until count) {
+        sink.write(Person(id = id, name = "Person $id"))
+      }
+    }
+    return file
+  }
+}
@@ -19,7 +19,13 @@ import com.squareup.wire.protos.kotlin.person.Person
 import okio.ByteString.Companion.decodeHex
 import okio.ByteString.Companion.toByteString
 import org.assertj.core.api.Assertions.assertThat
+import java.nio.BufferOverflowException
+import java.nio.ByteBuffer
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
 import kotlin.test.Test
+import kotlin.test.assertFailsWith
 
 class ProtoAdapterTest {
   @Test fun fromClass() {
@@ -42,4 +48,48 @@ class ProtoAdapterTest {
     val classAdapter = ProtoAdapter.get(Person::class.java)
     assertThat(instanceAdapter).isSameAs(classAdapter)
   }
+
+  @Test fun encodeAllAndDecodeAllOnExecutor() {
+    val people = (0 until 2_000).map { Person(id = it, name = "Person $it") }
+    val executor = Executors.newFixedThreadPool(4)
+    try {
+      val encoded = Person.ADAPTER.encodeAll(people, executor, parallelism = 4)
+      assertThat(encoded).isEqualTo(people.map { Person.ADAPTER.encodeByteString(it) })
+      assertThat(Person.ADAPTER.decodeAll(encoded, executor, parallelism = 4)).isEqualTo(people)
+    } finally {
+      executor.shutdown()
+    }
+  }
+
+  @Test fun encodeAllSplitsIntoParallelismPlusOneBatches() {
+    val people = (0 until 2_000).map { Person(id = it, name = "Person $it") }
+    val tasks = AtomicInteger()
+    val executor = Executor { tasks.incrementAndGet(); it.run() }
+    val encoded = Person.ADAPTER.encodeAll(people, executor, parallelism = 1)
+    assertThat(encoded).isEqualTo(people.map { Person.ADAPTER.encodeByteString(it) })
+    // One batch ran on the calling thread, and only one was handed to the executor.
+    assertThat(tasks.get()).isEqualTo(1)
+  }
+
+  @Test fun encodeIntoHeapAndDirectByteBuffers() {
+    val person = Person(id = 99, name = "Omar Little")
+    val expected = Person.ADAPTER.encodeByteString(person)
+    for (destination in listOf(ByteBuffer.allocate(32), ByteBuffer.allocateDirect(32))) {
+      destination.position(3)
+      assertThat(Person.ADAPTER.encode(person, destination)).isEqualTo(expected.size)
+      assertThat(destination.position()).isEqualTo(3 + expected.size)
+      destination.flip().position(3)
+      assertThat(destination.toByteString()).isEqualTo(expected)
+    }
+  }
+
+  @Test fun encodeIntoByteBufferTooSmall() {
+    val person = Person(id = 99, name = "Omar Little")
+    for (destination in listOf(ByteBuffer.allocate(8), ByteBuffer.allocateDirect(8))) {
+      assertFailsWith<BufferOverflowException> {
+        Person.ADAPTER.encode(person, destination)
+      }
+      assertThat(destination.position()).isEqualTo(0)
+    }
+  }
 }
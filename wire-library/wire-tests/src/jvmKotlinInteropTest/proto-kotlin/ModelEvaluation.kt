@@ -8,6 +8,9 @@ import com.squareup.wire.ProtoWriter
 import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax.PROTO_2
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
+import com.squareup.wire.`internal`.decodeMapEntry
 import com.squareup.wire.`internal`.immutableCopyOf
 import com.squareup.wire.`internal`.redactElements
 import com.squareup.wire.`internal`.sanitize
@@ -155,11 +158,13 @@ public class ModelEvaluation(
           ProtoAdapter.newMapAdapter(ProtoAdapter.STRING, ModelEvaluation.ADAPTER) }
 
       public override fun encodedSize(`value`: ModelEvaluation): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         size += ProtoAdapter.STRING.encodedSizeWithTag(1, value.name)
         size += ProtoAdapter.DOUBLE.encodedSizeWithTag(2, value.score)
         size += modelsAdapter.encodedSizeWithTag(3, value.models)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: ModelEvaluation): Unit {
@@ -184,7 +189,7 @@ public class ModelEvaluation(
           when (tag) {
             1 -> name = ProtoAdapter.STRING.decode(reader)
             2 -> score = ProtoAdapter.DOUBLE.decode(reader)
-            3 -> models.putAll(modelsAdapter.decode(reader))
+            3 -> decodeMapEntry(modelsAdapter, reader, models)
             else -> reader.readUnknownField(tag)
           }
         }
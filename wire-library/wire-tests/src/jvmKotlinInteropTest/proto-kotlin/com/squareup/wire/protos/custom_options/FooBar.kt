@@ -13,6 +13,8 @@ import com.squareup.wire.Syntax
 import com.squareup.wire.Syntax.PROTO_2
 import com.squareup.wire.WireEnum
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.checkElementsNotNull
 import com.squareup.wire.`internal`.immutableCopyOf
 import com.squareup.wire.`internal`.sanitize
@@ -286,7 +288,9 @@ public class FooBar(
       "custom_options.proto"
     ) {
       public override fun encodedSize(`value`: FooBar): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         size += ProtoAdapter.INT32.encodedSizeWithTag(1, value.foo)
         size += ProtoAdapter.STRING.encodedSizeWithTag(2, value.bar)
         size += Nested.ADAPTER.encodedSizeWithTag(3, value.baz)
@@ -296,7 +300,7 @@ public class FooBar(
         size += FooBar.ADAPTER.asRepeated().encodedSizeWithTag(7, value.nested)
         size += FooBarBazEnum.ADAPTER.encodedSizeWithTag(101, value.ext)
         size += FooBarBazEnum.ADAPTER.asRepeated().encodedSizeWithTag(102, value.rep)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: FooBar): Unit {
@@ -451,9 +455,11 @@ public class FooBar(
         "custom_options.proto"
       ) {
         public override fun encodedSize(`value`: Nested): Int {
-          var size = value.unknownFields.size
+          var size = cachedEncodedSize(value)
+          if (size != 0) return size
+          size = value.unknownFields.size
           size += FooBarBazEnum.ADAPTER.encodedSizeWithTag(1, value.value_)
-          return size
+          return cacheEncodedSize(value, size)
         }
 
         public override fun encode(writer: ProtoWriter, `value`: Nested): Unit {
@@ -566,9 +572,11 @@ public class FooBar(
         "custom_options.proto"
       ) {
         public override fun encodedSize(`value`: More): Int {
-          var size = value.unknownFields.size
+          var size = cachedEncodedSize(value)
+          if (size != 0) return size
+          size = value.unknownFields.size
           size += ProtoAdapter.INT32.asRepeated().encodedSizeWithTag(1, value.serial)
-          return size
+          return cacheEncodedSize(value, size)
         }
 
         public override fun encode(writer: ProtoWriter, `value`: More): Unit {
@@ -10,6 +10,8 @@ import com.squareup.wire.ProtoWriter
 import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax.PROTO_2
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.checkElementsNotNull
 import com.squareup.wire.`internal`.immutableCopyOf
 import kotlin.Any
@@ -216,7 +218,9 @@ public class ExternalMessage(
       "external_message.proto"
     ) {
       public override fun encodedSize(`value`: ExternalMessage): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         size += ProtoAdapter.FLOAT.encodedSizeWithTag(1, value.f)
         size += ProtoAdapter.INT32.asRepeated().encodedSizeWithTag(125, value.fooext)
         size += ProtoAdapter.INT32.encodedSizeWithTag(126, value.barext)
@@ -224,7 +228,7 @@ public class ExternalMessage(
         size += SimpleMessage.NestedMessage.ADAPTER.encodedSizeWithTag(128,
             value.nested_message_ext)
         size += SimpleMessage.NestedEnum.ADAPTER.encodedSizeWithTag(129, value.nested_enum_ext)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: ExternalMessage): Unit {
@@ -13,6 +13,8 @@ import com.squareup.wire.Syntax
 import com.squareup.wire.Syntax.PROTO_2
 import com.squareup.wire.WireEnum
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.checkElementsNotNull
 import com.squareup.wire.`internal`.immutableCopyOf
 import com.squareup.wire.`internal`.missingRequiredFields
@@ -415,7 +417,9 @@ public class SimpleMessage(
       "simple_message.proto"
     ) {
       public override fun encodedSize(`value`: SimpleMessage): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         size += ProtoAdapter.INT32.encodedSizeWithTag(1, value.optional_int32)
         size += NestedMessage.ADAPTER.encodedSizeWithTag(2, value.optional_nested_msg)
         size += ExternalMessage.ADAPTER.encodedSizeWithTag(3, value.optional_external_msg)
@@ -428,7 +432,7 @@ public class SimpleMessage(
         size += ProtoAdapter.STRING.encodedSizeWithTag(10, value.result)
         size += ProtoAdapter.STRING.encodedSizeWithTag(11, value.other)
         size += ProtoAdapter.STRING.encodedSizeWithTag(12, value.o)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: SimpleMessage): Unit {
@@ -608,9 +612,11 @@ public class SimpleMessage(
         "simple_message.proto"
       ) {
         public override fun encodedSize(`value`: NestedMessage): Int {
-          var size = value.unknownFields.size
+          var size = cachedEncodedSize(value)
+          if (size != 0) return size
+          size = value.unknownFields.size
           size += ProtoAdapter.INT32.encodedSizeWithTag(1, value.bb)
-          return size
+          return cacheEncodedSize(value, size)
         }
 
         public override fun encode(writer: ProtoWriter, `value`: NestedMessage): Unit {
@@ -10,6 +10,8 @@ import com.squareup.wire.ProtoWriter
 import com.squareup.wire.ReverseProtoWriter
 import com.squareup.wire.Syntax.PROTO_2
 import com.squareup.wire.WireField
+import com.squareup.wire.`internal`.cacheEncodedSize
+import com.squareup.wire.`internal`.cachedEncodedSize
 import com.squareup.wire.`internal`.checkElementsNotNull
 import com.squareup.wire.`internal`.immutableCopyOf
 import com.squareup.wire.`internal`.sanitize
@@ -198,14 +200,16 @@ public class NestedVersionTwo(
       "unknown_fields.proto"
     ) {
       public override fun encodedSize(`value`: NestedVersionTwo): Int {
-        var size = value.unknownFields.size
+        var size = cachedEncodedSize(value)
+        if (size != 0) return size
+        size = value.unknownFields.size
         size += ProtoAdapter.INT32.encodedSizeWithTag(1, value.i)
         size += ProtoAdapter.INT32.encodedSizeWithTag(2, value.v2_i)
         size += ProtoAdapter.STRING.encodedSizeWithTag(3, value.v2_s)
         size += ProtoAdapter.FIXED32.encodedSizeWithTag(4, value.v2_f32)
         size += ProtoAdapter.FIXED64.encodedSizeWithTag(5, value.v2_f64)
         size += ProtoAdapter.STRING.asRepeated().encodedSizeWithTag(6, value.v2_rs)
-        return size
+        return cacheEncodedSize(value, size)
       }
 
       public override fun encode(writer: ProtoWriter, `value`: NestedVersionTwo): Unit {